@@ -0,0 +1,10 @@
+package com.massage.booking.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    // Enables @Cacheable for reference data (service catalogue, working days) — backed by Caffeine in application.yml
+}
@@ -0,0 +1,78 @@
+package com.massage.booking.config;
+
+import com.massage.booking.service.BookingService;
+import com.massage.booking.service.ClientService;
+import com.massage.booking.service.TimeSlotService;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Set;
+
+/**
+ * Persistence metrics: statements, rows and JDBC time per HTTP request (see
+ * {@link QueryMetricsFilter}) and per @Transactional method of the services below, so N+1
+ * patterns show up in dashboards instead of in production incidents.
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.query-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfig {
+
+    private static final Set<Class<?>> INSTRUMENTED_SERVICES =
+            Set.of(BookingService.class, TimeSlotService.class, ClientService.class);
+
+    // Static: post-processors must not drag this configuration in early
+    @Bean
+    static BeanPostProcessor queryMetricsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? QueryMetricsDataSource.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    /**
+     * Infrastructure role so the auto-proxy creator that applies @Transactional applies this too;
+     * ordered first, so the scope also covers the statements flushed at commit.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor queryMetricsAdvisor(ObjectProvider<QueryMetricsRecorder> recorder) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return INSTRUMENTED_SERVICES.contains(ClassUtils.getUserClass(targetClass))
+                        && AnnotatedElementUtils.hasAnnotation(method, Transactional.class);
+            }
+        };
+        MethodInterceptor interceptor = invocation -> {
+            QueryStats.Scope scope = QueryStats.open();
+            try (scope) {
+                return invocation.proceed();
+            } finally {
+                recorder.getObject().recordMethod(
+                        invocation.getMethod().getDeclaringClass().getSimpleName(),
+                        invocation.getMethod().getName(),
+                        scope);
+            }
+        };
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
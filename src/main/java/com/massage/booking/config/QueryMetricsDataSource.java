@@ -0,0 +1,112 @@
+package com.massage.booking.config;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * JDK-proxy wrapper over a DataSource that reports every statement to {@link QueryStats}.
+ *
+ * Connections, statements and result sets are wrapped on the way out; everything else —
+ * including unwrap(), so pool metrics still find the Hikari pool — goes straight to the driver.
+ */
+final class QueryMetricsDataSource {
+
+    private QueryMetricsDataSource() {
+    }
+
+    static DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target, (method, result) ->
+                result instanceof Connection connection && method.getName().equals("getConnection")
+                        ? proxy(Connection.class, connection, QueryMetricsDataSource::onConnectionResult)
+                        : result);
+    }
+
+    private static Object onConnectionResult(Method method, Object result) {
+        String name = method.getName();
+        if (result instanceof Statement statement
+                && (name.equals("createStatement") || name.startsWith("prepare"))) {
+            return statementProxy(method.getReturnType(), statement);
+        }
+        return result;
+    }
+
+    private static Object statementProxy(Class<?> type, Object statement) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            String name = method.getName();
+            if (isIdentityMethod(name)) {
+                return identity(proxy, name, args);
+            }
+            if (!name.startsWith("execute")) {
+                Object result = invoke(statement, method, args);
+                return name.equals("getResultSet") && result instanceof ResultSet rs ? resultSetProxy(rs) : result;
+            }
+
+            long started = System.nanoTime();
+            Object result = invoke(statement, method, args);
+            long elapsed = System.nanoTime() - started;
+
+            QueryStats.recordStatement(elapsed, affectedRows(result));
+            return result instanceof ResultSet rs ? resultSetProxy(rs) : result;
+        });
+    }
+
+    private static ResultSet resultSetProxy(ResultSet target) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if (isIdentityMethod(method.getName())) {
+                        return identity(proxy, method.getName(), args);
+                    }
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                        QueryStats.recordRowRead();
+                    }
+                    return result;
+                });
+    }
+
+    private static long affectedRows(Object result) {
+        return switch (result) {
+            case Integer count -> Math.max(0, count);
+            case Long count -> Math.max(0, count);
+            case int[] counts -> Arrays.stream(counts).filter(c -> c > 0).sum();
+            case long[] counts -> Arrays.stream(counts).filter(c -> c > 0).sum();
+            case null, default -> 0;
+        };
+    }
+
+    private interface ResultMapper {
+        Object map(Method method, Object result) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (isIdentityMethod(method.getName())) {
+                return identity(proxy, method.getName(), args);
+            }
+            return mapper.map(method, invoke(target, method, args));
+        });
+    }
+
+    private static boolean isIdentityMethod(String name) {
+        return name.equals("equals") || name.equals("hashCode");
+    }
+
+    private static Object identity(Object proxy, String name, Object[] args) {
+        return name.equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.massage.booking.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a closed {@link QueryStats.Scope} as histograms:
+ * {@code db.<kind>.statements}, {@code db.<kind>.rows} and {@code db.<kind>.jdbc} (driver time).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryMetricsRecorder {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.query-metrics.statement-budget:25}")
+    private int statementBudget;
+
+    public void recordRequest(String method, String uri, QueryStats.Scope scope) {
+        if (scope.getStatements() == 0) {
+            return;
+        }
+        record("request", Tags.of("method", method, "uri", uri), scope);
+        if (scope.getStatements() > statementBudget) {
+            meterRegistry.counter("db.request.over_budget", "method", method, "uri", uri).increment();
+            log.warn("{} {} ran {} SQL statements (budget {}), {} rows, {} ms in JDBC — likely N+1",
+                    method, uri, scope.getStatements(), statementBudget, scope.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(scope.getJdbcNanos()));
+        }
+    }
+
+    public void recordMethod(String className, String methodName, QueryStats.Scope scope) {
+        record("method", Tags.of("class", className, "method", methodName), scope);
+    }
+
+    private void record(String kind, Tags tags, QueryStats.Scope scope) {
+        DistributionSummary.builder("db." + kind + ".statements")
+                .description("SQL statements per " + kind)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(scope.getStatements());
+        DistributionSummary.builder("db." + kind + ".rows")
+                .description("Rows read or written per " + kind)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(scope.getRows());
+        Timer.builder("db." + kind + ".jdbc")
+                .description("Time spent executing SQL per " + kind)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(scope.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,87 @@
+package com.massage.booking.config;
+
+import java.util.ArrayDeque;
+
+/**
+ * Per-thread counters of JDBC work — statements, rows and time spent in the driver.
+ *
+ * A scope is opened around an HTTP request or a service method; scopes nest, and every statement
+ * counts towards all scopes open on the thread. With no scope open, recording is a ThreadLocal
+ * read and nothing else. Also the hook for asserting query counts in tests.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<ArrayDeque<Scope>> SCOPES = new ThreadLocal<>();
+
+    private QueryStats() {
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private int statements;
+        private long rows;
+        private long jdbcNanos;
+
+        private Scope() {
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getJdbcNanos() {
+            return jdbcNanos;
+        }
+
+        @Override
+        public void close() {
+            ArrayDeque<Scope> scopes = SCOPES.get();
+            if (scopes != null) {
+                scopes.removeLastOccurrence(this);
+                if (scopes.isEmpty()) {
+                    SCOPES.remove();
+                }
+            }
+        }
+    }
+
+    public static Scope open() {
+        ArrayDeque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        Scope scope = new Scope();
+        scopes.addLast(scope);
+        return scope;
+    }
+
+    /**
+     * One round trip to the database; a JDBC batch counts once.
+     */
+    static void recordStatement(long nanos, long affectedRows) {
+        ArrayDeque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        for (Scope scope : scopes) {
+            scope.statements++;
+            scope.rows += affectedRows;
+            scope.jdbcNanos += nanos;
+        }
+    }
+
+    static void recordRowRead() {
+        ArrayDeque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        for (Scope scope : scopes) {
+            scope.rows++;
+        }
+    }
+}
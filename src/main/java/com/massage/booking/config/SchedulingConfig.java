@@ -0,0 +1,10 @@
+package com.massage.booking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Enables @Scheduled housekeeping jobs (e.g. purging expired idempotency keys)
+}
@@ -2,6 +2,7 @@ package com.massage.booking.controller;
 
 import com.massage.booking.dto.response.AuthResponse;
 import com.massage.booking.entity.User;
+import com.massage.booking.event.UserChangedEvent;
 import com.massage.booking.exception.ResourceNotFoundException;
 import com.massage.booking.repository.UserRepository;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional; // FIX #10
@@ -23,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class AdminController {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @PatchMapping("/users/{id}/promote")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -36,6 +39,7 @@ public class AdminController {
 
         user.promoteToSubAdmin();
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
 
         return ResponseEntity.ok(buildUserInfo(user));
     }
@@ -52,6 +56,7 @@ public class AdminController {
 
         user.demoteToClient();
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
 
         return ResponseEntity.ok(buildUserInfo(user));
     }
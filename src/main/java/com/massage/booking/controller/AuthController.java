@@ -1,8 +1,10 @@
 package com.massage.booking.controller;
 
 import com.massage.booking.dto.request.LoginRequest;
+import com.massage.booking.dto.request.RefreshTokenRequest;
 import com.massage.booking.dto.request.RegisterRequest;
 import com.massage.booking.dto.response.AuthResponse;
+import com.massage.booking.security.AuthRateLimiter;
 import com.massage.booking.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,10 +23,11 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/v1/auth")
 @RequiredArgsConstructor
 @Slf4j
-@Tag(name = "Authentication", description = "Register and login endpoints")
+@Tag(name = "Authentication", description = "Register, login, token refresh and logout endpoints")
 public class AuthController {
 
     private final AuthService authService;
+    private final AuthRateLimiter authRateLimiter;
 
     @PostMapping("/register")
     @Operation(summary = "Register new client",
@@ -47,9 +51,38 @@ public class AuthController {
 
         log.info("POST /v1/auth/login - email: {}", request.getEmail());
 
+        // Per-account throttle before the service opens a transaction or runs BCrypt
+        authRateLimiter.checkLoginEmail(request.getEmail());
+
         AuthResponse response = authService.login(request);
 
         // 200 OK = success
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh access token",
+            description = "Exchanges a refresh token for a new access token; the refresh token is rotated")
+    public ResponseEntity<AuthResponse> refresh(
+            @Valid @RequestBody RefreshTokenRequest request) {
+
+        log.info("POST /v1/auth/refresh");
+
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout",
+            description = "Revokes the current access token and the refresh token's session")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+
+        log.info("POST /v1/auth/logout");
+
+        authService.logout(authorization, request != null ? request.getRefreshToken() : null);
+
+        // 204 No Content = done, nothing to return
+        return ResponseEntity.noContent().build();
+    }
+}
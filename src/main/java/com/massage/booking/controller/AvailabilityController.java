@@ -1,17 +1,26 @@
 package com.massage.booking.controller;
 
+import com.massage.booking.service.AvailabilityResponseCache;
+import com.massage.booking.service.AvailabilityStreamService;
+import com.massage.booking.service.ContentVersionService;
 import com.massage.booking.service.TimeSlotService;
 import com.massage.booking.service.TimeSlotService.AvailabilityResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @RestController
 @RequestMapping("/v1/availability")
@@ -20,29 +29,73 @@ import java.util.List;
 public class AvailabilityController {
 
     private final TimeSlotService timeSlotService;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final ContentVersionService contentVersionService;
+    private final AvailabilityResponseCache availabilityResponseCache;
 
     @GetMapping("/slots")
     @Operation(summary = "Get available slots for a specific date")
-    public ResponseEntity<List<LocalDateTime>> getAvailableSlots(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(type = "string", format = "date-time"))))
+    public ResponseEntity<byte[]> getAvailableSlots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest webRequest) {
 
-        return ResponseEntity.ok(timeSlotService.getAvailableSlotsForDate(date));
+        // Day version is read before the data — 304 without touching the database or Jackson
+        String etag = contentVersionService.dayETag(date);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ContentVersionService.AVAILABILITY_CACHE_CONTROL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(availabilityResponseCache.slotsJson(date));   // pre-serialized bytes, written as-is
     }
 
     @GetMapping("/range")
     @Operation(summary = "Get availability for date range (for calendar)")
-    public ResponseEntity<List<AvailabilityResponse>> getAvailabilityRange(
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = AvailabilityResponse.class))))
+    public ResponseEntity<byte[]> getAvailabilityRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest webRequest) {
 
-        return ResponseEntity.ok(timeSlotService.getAvailabilityForRange(startDate, endDate));
+        String etag = contentVersionService.rangeETag(startDate, endDate);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ContentVersionService.AVAILABILITY_CACHE_CONTROL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(availabilityResponseCache.rangeJson(startDate, endDate));
     }
 
     @GetMapping("/check")
     @Operation(summary = "Check if specific date/time is available")
     public ResponseEntity<Boolean> checkAvailability(
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            WebRequest webRequest) {
+
+        String etag = contentVersionService.dayETag(dateTime.toLocalDate());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ContentVersionService.AVAILABILITY_CACHE_CONTROL)
+                .body(timeSlotService.isTimeSlotAvailable(dateTime));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Live slot changes for a date range (Server-Sent Events)",
+            description = "Load /range first, then apply the \"slots\" deltas; on \"resync\" reload /range")
+    public SseEmitter stream(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        return ResponseEntity.ok(timeSlotService.isTimeSlotAvailable(dateTime));
+        return availabilityStreamService.subscribe(startDate, endDate);
     }
 }
\ No newline at end of file
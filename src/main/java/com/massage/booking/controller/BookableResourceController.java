@@ -0,0 +1,53 @@
+package com.massage.booking.controller;
+
+import com.massage.booking.dto.request.BookableResourceRequest;
+import com.massage.booking.dto.response.BookableResourceResponse;
+import com.massage.booking.service.ResourceAllocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/admin/resources")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Resources (Admin)", description = "Therapists and rooms that bookings are assigned to")
+@SecurityRequirement(name = "bearer-jwt")
+public class BookableResourceController {
+
+    private final ResourceAllocationService resourceAllocationService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SUBADMIN')")
+    @Operation(summary = "List resources", description = "Admin and SubAdmin")
+    public ResponseEntity<List<BookableResourceResponse>> getAll() {
+        log.info("GET /v1/admin/resources");
+        return ResponseEntity.ok(resourceAllocationService.getAll());
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Add a therapist or room", description = "Admin only")
+    public ResponseEntity<BookableResourceResponse> create(@Valid @RequestBody BookableResourceRequest request) {
+        log.info("POST /v1/admin/resources");
+        return ResponseEntity.status(HttpStatus.CREATED).body(resourceAllocationService.create(request));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Deactivate a resource", description = "Admin only. Existing bookings keep their assignment")
+    public ResponseEntity<Void> deactivate(@PathVariable Long id) {
+        log.info("DELETE /v1/admin/resources/{}", id);
+        resourceAllocationService.deactivate(id);
+        return ResponseEntity.noContent().build();
+    }
+}
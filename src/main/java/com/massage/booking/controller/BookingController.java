@@ -1,11 +1,15 @@
 package com.massage.booking.controller;
 
+import com.massage.booking.dto.request.BatchBookingRequest;
 import com.massage.booking.dto.request.BookingRequest;
+import com.massage.booking.dto.response.BatchBookingResponse;
 import com.massage.booking.dto.response.BookingResponse;
 import com.massage.booking.entity.enums.BookingStatus;
-import com.massage.booking.entity.valueobject.Email;
-import com.massage.booking.repository.UserRepository;
+import com.massage.booking.security.AuthenticatedUser;
+import com.massage.booking.service.BookingLockService;
+import com.massage.booking.service.BookingMetrics;
 import com.massage.booking.service.BookingService;
+import com.massage.booking.service.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,10 +20,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequestMapping("/v1/bookings")
 @RequiredArgsConstructor
@@ -28,16 +35,32 @@ import org.springframework.web.bind.annotation.*;
 public class BookingController {
 
     private final BookingService bookingService;
-    private final UserRepository userRepository;
+    private final IdempotencyService idempotencyService;
+    private final BookingLockService bookingLockService;
+    private final BookingMetrics bookingMetrics;
 
     @PostMapping
-    @Operation(summary = "Create new booking")
+    @Operation(summary = "Create new booking",
+            description = "Send an Idempotency-Key header to make retries safe — a repeated key returns the original booking")
     public ResponseEntity<BookingResponse> create(
             @Valid @RequestBody BookingRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+
+        // User id straight from the verified token — the service resolves the client
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(idempotencyService.createBooking(user.userId(), idempotencyKey, request));
+    }
 
-        Long clientId = extractClientId(userDetails);
-        return ResponseEntity.status(HttpStatus.CREATED).body(bookingService.create(clientId, request));
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Create many bookings for one client (Admin only)",
+            description = "Validates all items together, returns a per-item result and sends one summary email")
+    public ResponseEntity<BatchBookingResponse> createBatch(@Valid @RequestBody BatchBookingRequest request) {
+        // Queues with single bookings for the same start times before the batch transaction opens
+        List<LocalDateTime> startTimes = request.getBookings().stream().map(BookingRequest::getStartTime).toList();
+        return ResponseEntity.ok(bookingLockService.withSlotLocks(startTimes,
+                () -> bookingService.createBatch(request.getClientId(), request.getBookings())));
     }
 
     @GetMapping("/{id}")
@@ -51,18 +74,13 @@ public class BookingController {
     public ResponseEntity<Page<BookingResponse>> getAll(
             @PageableDefault(size = 20, sort = "startTime") Pageable pageable,
             @RequestParam(required = false) BookingStatus status,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        boolean isAdminOrSubAdmin = userDetails.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")
-                        || a.getAuthority().equals("ROLE_SUBADMIN"));
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
         Page<BookingResponse> bookings;
-        if (isAdminOrSubAdmin) {
+        if (user.isAdminOrSubAdmin()) {
             bookings = bookingService.getAll(pageable, status);
         } else {
-            Long clientId = extractClientId(userDetails);
-            bookings = bookingService.getByClient(clientId, pageable, status);
+            bookings = bookingService.getByClient(user.userId(), pageable, status);
         }
 
         return ResponseEntity.ok(bookings);
@@ -73,13 +91,9 @@ public class BookingController {
     public ResponseEntity<BookingResponse> updateStatus(
             @PathVariable Long id,
             @RequestParam BookingStatus status,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
-        boolean isAdminOrSubAdmin = userDetails.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")
-                        || a.getAuthority().equals("ROLE_SUBADMIN"));
-
-        if (!isAdminOrSubAdmin) {
+        if (!user.isAdminOrSubAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -91,20 +105,11 @@ public class BookingController {
     public ResponseEntity<Void> cancel(
             @PathVariable Long id,
             @RequestParam(required = false) String reason,
-            @AuthenticationPrincipal UserDetails userDetails) {
-
-        boolean isAdmin = userDetails.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-        Long clientId = extractClientId(userDetails);
+            @AuthenticationPrincipal AuthenticatedUser user) {
 
-        bookingService.cancel(id, clientId, isAdmin, reason);
+        // Timed outside the transactional proxy so the commit is part of the measurement
+        bookingMetrics.run(BookingMetrics.CANCEL,
+                () -> bookingService.cancel(id, user.userId(), user.isAdmin(), reason));
         return ResponseEntity.noContent().build();
     }
-
-    private Long extractClientId(UserDetails userDetails) {
-        Email email = Email.of(userDetails.getUsername());
-        return userRepository.findByEmailAndActiveTrue(email)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user not found"))
-                .getId();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.massage.booking.controller;
+
+import com.massage.booking.dto.request.BookingSeriesRequest;
+import com.massage.booking.dto.response.BookingSeriesResponse;
+import com.massage.booking.service.BookingLockService;
+import com.massage.booking.service.BookingSeriesService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/v1/booking-series")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Booking Series", description = "Recurring appointments (Admin)")
+@SecurityRequirement(name = "bearer-jwt")
+public class BookingSeriesController {
+
+    private final BookingSeriesService bookingSeriesService;
+    private final BookingLockService bookingLockService;
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Create recurring series",
+            description = "Admin only. Occurrences are booked up to 90 days ahead and extended nightly")
+    public ResponseEntity<BookingSeriesResponse> create(@Valid @RequestBody BookingSeriesRequest request) {
+        log.info("POST /v1/booking-series");
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookingLockService.withSlotLocks(
+                bookingSeriesService.occurrencesOf(request), () -> bookingSeriesService.create(request)));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SUBADMIN')")
+    @Operation(summary = "Get recurring series", description = "Admin and SubAdmin")
+    public ResponseEntity<BookingSeriesResponse> getById(@PathVariable Long id) {
+        log.info("GET /v1/booking-series/{}", id);
+        return ResponseEntity.ok(bookingSeriesService.getById(id));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "End recurring series", description = "Admin only, cancels upcoming occurrences")
+    public ResponseEntity<Void> end(@PathVariable Long id, @RequestParam(required = false) String reason) {
+        log.info("DELETE /v1/booking-series/{}", id);
+        bookingSeriesService.end(id, reason);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,6 +2,7 @@ package com.massage.booking.controller;
 
 import com.massage.booking.dto.request.ClientRequest;
 import com.massage.booking.dto.response.ClientResponse;
+import com.massage.booking.dto.response.ClientSuggestionResponse;
 import com.massage.booking.service.ClientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -18,6 +19,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/v1/clients")
 @RequiredArgsConstructor
@@ -36,6 +39,16 @@ public class ClientController {
         return ResponseEntity.status(HttpStatus.CREATED).body(clientService.create(request));
     }
 
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SUBADMIN')")
+    @Operation(summary = "Suggest clients", description = "Admin and SubAdmin, prefix match on name, phone or email")
+    public ResponseEntity<List<ClientSuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(clientService.suggest(q, limit));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SUBADMIN')")
     @Operation(summary = "Get client by ID", description = "Admin and SubAdmin")
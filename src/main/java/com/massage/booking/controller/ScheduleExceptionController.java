@@ -0,0 +1,59 @@
+package com.massage.booking.controller;
+
+import com.massage.booking.dto.request.ScheduleExceptionRequest;
+import com.massage.booking.dto.response.ScheduleExceptionResponse;
+import com.massage.booking.service.ScheduleExceptionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/admin/schedule-exceptions")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Schedule Exceptions (Admin)", description = "Holidays, changed hours and extra openings")
+@SecurityRequirement(name = "bearer-jwt")
+public class ScheduleExceptionController {
+
+    private final ScheduleExceptionService scheduleExceptionService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SUBADMIN')")
+    @Operation(summary = "List schedule exceptions", description = "Admin and SubAdmin")
+    public ResponseEntity<List<ScheduleExceptionResponse>> getForRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("GET /v1/admin/schedule-exceptions?startDate={}&endDate={}", startDate, endDate);
+        return ResponseEntity.ok(scheduleExceptionService.getForRange(startDate, endDate));
+    }
+
+    @PutMapping("/{date}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Set the schedule exception of a date",
+            description = "Admin only. Bookings left outside the new hours are reported, not canceled")
+    public ResponseEntity<ScheduleExceptionResponse> save(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Valid @RequestBody ScheduleExceptionRequest request) {
+        log.info("PUT /v1/admin/schedule-exceptions/{}", date);
+        return ResponseEntity.ok(scheduleExceptionService.save(date, request));
+    }
+
+    @DeleteMapping("/{date}")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Remove the schedule exception of a date", description = "Admin only, restores the weekly hours")
+    public ResponseEntity<Void> delete(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("DELETE /v1/admin/schedule-exceptions/{}", date);
+        scheduleExceptionService.delete(date);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -3,6 +3,7 @@ package com.massage.booking.controller;
 import com.massage.booking.dto.request.ServiceRequest;
 import com.massage.booking.dto.response.ServiceResponse;
 import com.massage.booking.entity.enums.ServiceCategory;
+import com.massage.booking.service.ContentVersionService;
 import com.massage.booking.service.ServiceCatalogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,6 +26,7 @@ import java.util.List;
 public class ServiceController {
 
     private final ServiceCatalogService serviceCatalogService;
+    private final ContentVersionService contentVersionService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -49,13 +52,23 @@ public class ServiceController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all services", description = "Public endpoint, can filter by category")
+    @Operation(summary = "Get all services", description = "Public endpoint, can filter by category. Supports If-None-Match")
     public ResponseEntity<List<ServiceResponse>> getAll(
             @RequestParam(required = false) ServiceCategory category,
-            @RequestParam(required = false, defaultValue = "true") Boolean activeOnly
+            @RequestParam(required = false, defaultValue = "true") Boolean activeOnly,
+            WebRequest webRequest
     ) {
         log.info("GET /v1/services - category: {}, activeOnly: {}", category, activeOnly);
-        return ResponseEntity.ok(serviceCatalogService.getAll(category, activeOnly));
+
+        // Version is read before the data — 304 without touching the database or Jackson
+        String etag = contentVersionService.catalogETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ContentVersionService.CATALOG_CACHE_CONTROL)
+                .body(serviceCatalogService.getAll(category, activeOnly));
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,42 @@
+package com.massage.booking.controller;
+
+import com.massage.booking.dto.request.SlotHoldRequest;
+import com.massage.booking.dto.response.SlotHoldResponse;
+import com.massage.booking.security.AuthenticatedUser;
+import com.massage.booking.service.SlotHoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/v1/holds")
+@RequiredArgsConstructor
+@Tag(name = "Slot Holds", description = "Reserve a slot for a few minutes while checking out")
+@SecurityRequirement(name = "bearer-jwt")
+public class SlotHoldController {
+
+    private final SlotHoldService slotHoldService;
+
+    @PostMapping
+    @Operation(summary = "Hold a slot",
+            description = "The slot is shown as taken to everyone else until the hold expires or you book it")
+    public ResponseEntity<SlotHoldResponse> hold(
+            @Valid @RequestBody SlotHoldRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(slotHoldService.hold(user.userId(), request.getStartTime(), request.getServiceId()));
+    }
+
+    @DeleteMapping("/{holdId}")
+    @Operation(summary = "Release a hold")
+    public ResponseEntity<Void> release(@PathVariable String holdId, @AuthenticationPrincipal AuthenticatedUser user) {
+        slotHoldService.release(user.userId(), holdId);
+        return ResponseEntity.noContent().build();
+    }
+}
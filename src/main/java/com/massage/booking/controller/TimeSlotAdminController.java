@@ -0,0 +1,42 @@
+package com.massage.booking.controller;
+
+import com.massage.booking.dto.request.BlockRangeRequest;
+import com.massage.booking.dto.response.BlockRangeResponse;
+import com.massage.booking.service.TimeSlotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/v1/admin/time-slots")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Time Slots (Admin)", description = "Close and reopen the calendar")
+@SecurityRequirement(name = "bearer-jwt")
+public class TimeSlotAdminController {
+
+    private final TimeSlotService timeSlotService;
+
+    @PostMapping("/block")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Block a date range",
+            description = "Admin only. One transaction for the whole span; existing bookings inside it are reported, not canceled")
+    public ResponseEntity<BlockRangeResponse> blockRange(@Valid @RequestBody BlockRangeRequest request) {
+        log.info("POST /v1/admin/time-slots/block");
+        return ResponseEntity.ok(timeSlotService.blockRange(request));
+    }
+
+    @PostMapping("/unblock")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @Operation(summary = "Unblock a date range", description = "Admin only")
+    public ResponseEntity<BlockRangeResponse> unblockRange(@Valid @RequestBody BlockRangeRequest request) {
+        log.info("POST /v1/admin/time-slots/unblock");
+        return ResponseEntity.ok(timeSlotService.unblockRange(request));
+    }
+}
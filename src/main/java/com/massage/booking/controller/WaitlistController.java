@@ -0,0 +1,50 @@
+package com.massage.booking.controller;
+
+import com.massage.booking.dto.request.WaitlistRequest;
+import com.massage.booking.dto.response.WaitlistEntryResponse;
+import com.massage.booking.security.AuthenticatedUser;
+import com.massage.booking.service.WaitlistService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/waitlist")
+@RequiredArgsConstructor
+@Tag(name = "Waitlist", description = "Get notified when a slot opens up")
+@SecurityRequirement(name = "bearer-jwt")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    @PostMapping
+    @Operation(summary = "Join waitlist",
+            description = "When a matching slot is released it is held for you and offered by email")
+    public ResponseEntity<WaitlistEntryResponse> join(
+            @Valid @RequestBody WaitlistRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(waitlistService.join(user.userId(), request));
+    }
+
+    @GetMapping
+    @Operation(summary = "List my waitlist entries, including open offers")
+    public ResponseEntity<List<WaitlistEntryResponse>> getMine(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(waitlistService.getForUser(user.userId()));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Leave waitlist", description = "Also declines an open offer, passing the slot on")
+    public ResponseEntity<Void> leave(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        waitlistService.leave(user.userId(), id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.massage.booking.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingRequest {
+
+    @NotNull(message = "Client ID is required")
+    private Long clientId;
+
+    @NotEmpty(message = "At least one booking is required")
+    @Size(max = 50, message = "A batch cannot contain more than 50 bookings")
+    private List<@Valid BookingRequest> bookings;
+}
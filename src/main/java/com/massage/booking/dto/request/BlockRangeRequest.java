@@ -0,0 +1,32 @@
+package com.massage.booking.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockRangeRequest {
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+
+    // Optional — without a window the whole opening hours are affected (start inclusive, end exclusive)
+    private LocalTime windowStart;
+
+    private LocalTime windowEnd;
+
+    @Size(max = 255, message = "Reason must not exceed 255 characters")
+    private String reason;
+}
@@ -0,0 +1,35 @@
+package com.massage.booking.dto.request;
+
+import com.massage.booking.entity.enums.RecurrenceRule;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSeriesRequest {
+
+    @NotNull(message = "Client ID is required")
+    private Long clientId;
+
+    @NotNull(message = "Service ID is required")
+    private Long serviceId;
+
+    @NotNull(message = "Recurrence is required")
+    private RecurrenceRule recurrence;
+
+    @NotNull(message = "First start time is required")
+    @Future(message = "First start time must be in the future")
+    private LocalDateTime firstStartTime;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+}
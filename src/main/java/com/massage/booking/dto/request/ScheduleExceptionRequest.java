@@ -0,0 +1,28 @@
+package com.massage.booking.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleExceptionRequest {
+
+    // false = closed all day; true = open (custom hours if given, otherwise the usual ones)
+    @NotNull(message = "Availability is required")
+    private Boolean isAvailable;
+
+    private LocalTime openTime;
+
+    private LocalTime closeTime;
+
+    @Size(max = 255, message = "Reason must not exceed 255 characters")
+    private String reason;
+}
@@ -0,0 +1,30 @@
+package com.massage.booking.dto.request;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistRequest {
+
+    @NotNull(message = "Service ID is required")
+    private Long serviceId;
+
+    @NotNull(message = "Date is required")
+    @FutureOrPresent(message = "Date must be today or later")
+    private LocalDate date;
+
+    // Optional — without a window any time that day is acceptable
+    private LocalTime windowStart;
+
+    private LocalTime windowEnd;
+}
@@ -10,7 +10,7 @@ import lombok.NoArgsConstructor;
  * DTO for authentication response
  *
  * Returned after both register and login
- * Contains the JWT token + basic user info
+ * Contains the short-lived JWT access token, a refresh token + basic user info
  *
  * Frontend stores this token and sends it
  * in every future request:
@@ -27,7 +27,11 @@ public class AuthResponse {
     @Builder.Default
     private String type = "Bearer";
 
-    private Long expiresIn;   // milliseconds (86400000 = 24h)
+    private Long expiresIn;   // milliseconds (900000 = 15 min)
+
+    private String refreshToken;          // exchange at /v1/auth/refresh; rotated on every use
+
+    private Long refreshExpiresIn;        // milliseconds
 
     private UserInfo user;
 
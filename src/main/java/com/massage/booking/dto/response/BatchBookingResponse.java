@@ -0,0 +1,33 @@
+package com.massage.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingResponse {
+
+    private int requested;
+    private int created;
+    private int rejected;
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;              // position in the request list
+        private LocalDateTime startTime;
+        private boolean created;
+        private BookingResponse booking; // null when rejected
+        private String error;            // null when created
+    }
+}
@@ -0,0 +1,31 @@
+package com.massage.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockRangeResponse {
+
+    private int slotsUpdated;   // existing rows changed by the set-based UPDATE
+    private int slotsCreated;   // missing rows inserted already blocked
+    private List<ConflictingBooking> conflicts;  // bookings inside the blocked range — not canceled
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ConflictingBooking {
+        private Long bookingId;
+        private Long clientId;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+    }
+}
@@ -0,0 +1,19 @@
+package com.massage.booking.dto.response;
+
+import com.massage.booking.entity.enums.ResourceType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookableResourceResponse {
+
+    private Long id;
+    private String name;
+    private ResourceType type;
+    private Boolean active;
+}
@@ -23,6 +23,9 @@ public class BookingResponse {
     private String guestName;
     private String guestPhone;
     private String canceledReason;
+    private Long seriesId;
+    private Long therapistId;
+    private Long roomId;
     private Boolean canCancel;
     private LocalDateTime createdAt;
 
@@ -0,0 +1,28 @@
+package com.massage.booking.dto.response;
+
+import com.massage.booking.entity.enums.RecurrenceRule;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSeriesResponse {
+
+    private Long id;
+    private Long clientId;
+    private Long serviceId;
+    private RecurrenceRule recurrence;
+    private LocalDateTime firstStartTime;
+    private LocalDate endDate;
+    private LocalDate materializedUntil;
+    private Boolean active;
+    private List<BatchBookingResponse.ItemResult> occurrences; // only filled on creation
+}
@@ -0,0 +1,18 @@
+package com.massage.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientSuggestionResponse {
+
+    private Long id;
+    private String name;
+    private String phone;
+    private String email;
+}
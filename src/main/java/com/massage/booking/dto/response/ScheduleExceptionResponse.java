@@ -0,0 +1,25 @@
+package com.massage.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleExceptionResponse {
+
+    private LocalDate date;
+    private Boolean isAvailable;
+    private LocalTime openTime;
+    private LocalTime closeTime;
+    private String reason;
+    private List<LocalTime> openSlots;            // resolved 30-minute grid for the date
+    private List<Long> conflictingBookingIds;     // bookings now outside the hours — not canceled
+}
@@ -0,0 +1,19 @@
+package com.massage.booking.dto.response;
+
+import com.massage.booking.entity.enums.SlotState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotDeltaResponse {
+
+    private LocalDateTime slotDateTime;
+    private SlotState state;
+}
@@ -0,0 +1,20 @@
+package com.massage.booking.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHoldResponse {
+
+    private String holdId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;     // the hold covers every half-hour of [startTime, endTime)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,28 @@
+package com.massage.booking.dto.response;
+
+import com.massage.booking.entity.enums.WaitlistStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryResponse {
+
+    private Long id;
+    private Long serviceId;
+    private LocalDate date;
+    private LocalTime windowStart;
+    private LocalTime windowEnd;
+    private WaitlistStatus status;
+    private LocalDateTime offeredSlot;     // set while an offer is open
+    private LocalDateTime offerExpiresAt;
+    private LocalDateTime createdAt;
+}
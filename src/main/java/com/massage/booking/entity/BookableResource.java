@@ -0,0 +1,46 @@
+package com.massage.booking.entity;
+
+import com.massage.booking.entity.enums.ResourceType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A therapist or a room. Every booking takes one free resource of each configured type.
+ */
+@Entity
+@Table(name = "bookable_resources",
+        uniqueConstraints = @UniqueConstraint(name = "uk_resource_name", columnNames = "name"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookableResource {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ResourceType type;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
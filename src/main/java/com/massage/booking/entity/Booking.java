@@ -10,7 +10,11 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_series", columnList = "series_id"),
+        @Index(name = "idx_bookings_therapist_time", columnList = "therapist_id, start_time"),
+        @Index(name = "idx_bookings_room_time", columnList = "room_id, start_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,6 +30,16 @@ public class Booking {
     @Column(name = "service_id", nullable = false)
     private Long serviceId;
 
+    @Column(name = "series_id")
+    private Long seriesId;  // Set when materialized from a BookingSeries
+
+    // Assigned resources — null on bookings made before resources were configured
+    @Column(name = "therapist_id")
+    private Long therapistId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", insertable = false, updatable = false)
     private Client client;
@@ -86,6 +100,11 @@ public class Booking {
         return booking;
     }
 
+    public void assignResources(Long therapistId, Long roomId) {
+        this.therapistId = therapistId;
+        this.roomId = roomId;
+    }
+
     public boolean canBeCanceled() {
         Duration until = Duration.between(LocalDateTime.now(), startTime);
         return until.toHours() >= 12;
@@ -0,0 +1,121 @@
+package com.massage.booking.entity;
+
+import com.massage.booking.entity.enums.RecurrenceRule;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recurring appointment ("same time every Thursday").
+ * Only the rule is stored; occurrences are materialized into bookings lazily,
+ * never further ahead than the booking horizon. materializedUntil records how far that went.
+ */
+@Entity
+@Table(name = "booking_series", indexes = {
+        @Index(name = "idx_series_active_materialized", columnList = "active, materialized_until")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "service_id", nullable = false)
+    private Long serviceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecurrenceRule recurrence;
+
+    @Column(name = "first_start_time", nullable = false)
+    private LocalDateTime firstStartTime;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "materialized_until")
+    private LocalDate materializedUntil;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public static BookingSeries create(
+            Long clientId,
+            Long serviceId,
+            RecurrenceRule recurrence,
+            LocalDateTime firstStartTime,
+            LocalDate endDate
+    ) {
+        if (endDate.isBefore(firstStartTime.toLocalDate())) {
+            throw new IllegalArgumentException("End date cannot be before the first appointment");
+        }
+        BookingSeries series = new BookingSeries();
+        series.setClientId(clientId);
+        series.setServiceId(serviceId);
+        series.setRecurrence(recurrence);
+        series.setFirstStartTime(firstStartTime);
+        series.setEndDate(endDate);
+        series.setActive(true);
+        return series;
+    }
+
+    /**
+     * Occurrences not yet materialized, up to the given horizon (or the end date, if earlier).
+     */
+    public List<LocalDateTime> pendingOccurrencesUntil(LocalDate horizon) {
+        LocalDate limit = horizon.isBefore(endDate) ? horizon : endDate;
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        LocalDateTime next = firstStartTime;
+        while (!next.toLocalDate().isAfter(limit)) {
+            if (materializedUntil == null || next.toLocalDate().isAfter(materializedUntil)) {
+                occurrences.add(next);
+            }
+            next = next.plusWeeks(recurrence.getIntervalWeeks());
+        }
+        return occurrences;
+    }
+
+    public void markMaterializedUntil(LocalDate horizon) {
+        this.materializedUntil = horizon.isBefore(endDate) ? horizon : endDate;
+    }
+
+    public boolean isFullyMaterialized() {
+        return materializedUntil != null && !materializedUntil.isBefore(endDate);
+    }
+
+    public void end() {
+        if (!this.active) {
+            throw new IllegalStateException("Series already ended");
+        }
+        this.active = false;
+    }
+}
@@ -0,0 +1,46 @@
+package com.massage.booking.entity;
+
+import com.massage.booking.entity.enums.CacheRegion;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the cross-node invalidation log, written in the transaction of the mutation
+ * it describes. Nodes tail the table by id and evict their local copies.
+ */
+@Entity
+@Table(name = "cache_invalidations",
+        indexes = @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CacheRegion region;
+
+    @Column(name = "cache_key", nullable = false, length = 100)
+    private String cacheKey;
+
+    @Column(name = "origin_node", nullable = false, length = 36)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -11,7 +11,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "clients")
+@Table(name = "clients", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_clients_phone", columnNames = "phone")
+}, indexes = {
+        @Index(name = "idx_clients_search_name", columnList = "search_name"),
+        @Index(name = "idx_clients_phone_reversed", columnList = "phone_reversed")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,12 +41,23 @@ public class Client {
     @Column(length = 500)
     private String notes;  // Admin notes (preferences, allergies, etc.)
 
+    // Maintained by ClientSearchIndex: accent-folded lowercase name, phone digits reversed (suffix lookups)
+    @Column(name = "search_name", length = 100)
+    private String searchName;
+
+    @Column(name = "phone_reversed", length = 20)
+    private String phoneReversed;
+
     @Column(nullable = false)
     private Boolean active = true;
 
     @Column(name = "user_id")
     private Long userId;  // Link to User (if client has login account)
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", insertable = false, updatable = false)
+    private User user;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,31 @@
+package com.massage.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One trigram of a client's normalized name. (gram, client_id) is the lookup index:
+ * a substring query resolves to the clients that carry all of its trigrams.
+ */
+@Entity
+@Table(name = "client_search_grams", indexes = {
+        @Index(name = "idx_client_search_grams_gram", columnList = "gram, client_id"),
+        @Index(name = "idx_client_search_grams_client", columnList = "client_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientSearchGram {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(nullable = false, length = 3)
+    private String gram;
+}
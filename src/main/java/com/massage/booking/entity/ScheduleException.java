@@ -0,0 +1,58 @@
+package com.massage.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Date-specific override of the weekly schedule: a holiday closure (isAvailable = false),
+ * changed hours, or an extra opening on a day that is normally closed.
+ * Without open/close times an available exception keeps the usual hours.
+ */
+@Entity
+@Table(name = "schedule_exceptions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_exception_date", columnNames = "exception_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleException {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "exception_date", nullable = false)
+    private LocalDate exceptionDate;
+
+    @Column(name = "is_available", nullable = false)
+    @Builder.Default
+    private Boolean isAvailable = false;
+
+    @Column(length = 255)
+    private String reason;
+
+    @Column(name = "open_time")
+    private LocalTime openTime;
+
+    @Column(name = "close_time")
+    private LocalTime closeTime;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public boolean hasCustomHours() {
+        return openTime != null && closeTime != null;
+    }
+}
@@ -44,6 +44,13 @@ public class TimeSlot {
     @Column(name = "block_reason")
     private String blockReason;
 
+    // Checkout / waitlist hold — the slot counts as taken for everyone but heldBy until heldUntil
+    @Column(name = "held_until")
+    private LocalDateTime heldUntil;
+
+    @Column(name = "held_by")
+    private Long heldBy;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -78,6 +85,22 @@ public class TimeSlot {
 
     public void book() {
         this.isAvailable = false;
+        this.heldUntil = null;
+        this.heldBy = null;
+    }
+
+    // Booked, but another therapist/room is still free at this time — only the hold is consumed
+    public void bookPartially() {
+        this.heldUntil = null;
+        this.heldBy = null;
+    }
+
+    public boolean isHeld(LocalDateTime now) {
+        return heldUntil != null && heldUntil.isAfter(now);
+    }
+
+    public boolean isHeldByOther(Long userId, LocalDateTime now) {
+        return isHeld(now) && !heldBy.equals(userId);
     }
 
     public void release() {
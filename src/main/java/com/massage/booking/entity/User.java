@@ -14,12 +14,19 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email"),
+        @UniqueConstraint(name = User.UK_PHONE, columnNames = "phone")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class User {
 
+    // Registration relies on these for duplicate detection (see AuthService.register)
+    public static final String UK_EMAIL = "uk_users_email";
+    public static final String UK_PHONE = "uk_users_phone";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -120,6 +127,14 @@ public class User {
         this.passwordHash = newPassword.getHashedValue();
     }
 
+    /**
+     * Re-hashes an already verified password with the encoder's current settings.
+     * No policy check — the password was accepted when it was set.
+     */
+    public void rehashPassword(String verifiedRawPassword, PasswordEncoder encoder) {
+        this.passwordHash = encoder.encode(verifiedRawPassword);
+    }
+
     public boolean canLogin() {
         return this.active;
     }
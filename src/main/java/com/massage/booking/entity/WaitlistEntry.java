@@ -0,0 +1,126 @@
+package com.massage.booking.entity;
+
+import com.massage.booking.entity.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A client's interest in a service on a given date, optionally within a time window.
+ * Entries are matched in id order (first come, first served) when a slot is released.
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_status_date", columnList = "status, desired_date"),
+        @Index(name = "idx_waitlist_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "service_id", nullable = false)
+    private Long serviceId;
+
+    @Column(name = "desired_date", nullable = false)
+    private LocalDate desiredDate;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalTime windowEnd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    @Column(name = "offered_slot")
+    private LocalDateTime offeredSlot;
+
+    @Column(name = "offer_expires_at")
+    private LocalDateTime offerExpiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public static WaitlistEntry create(Long userId, Long serviceId, LocalDate desiredDate,
+                                       LocalTime windowStart, LocalTime windowEnd) {
+        if (!windowStart.isBefore(windowEnd)) {
+            throw new IllegalArgumentException("Window start must be before window end");
+        }
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUserId(userId);
+        entry.setServiceId(serviceId);
+        entry.setDesiredDate(desiredDate);
+        entry.setWindowStart(windowStart);
+        entry.setWindowEnd(windowEnd);
+        entry.setStatus(WaitlistStatus.WAITING);
+        return entry;
+    }
+
+    /**
+     * True if an appointment of the given length starting at slot lies inside the window.
+     */
+    public static boolean fits(LocalDate date, LocalTime windowStart, LocalTime windowEnd,
+                               LocalDateTime slot, int totalMinutes) {
+        LocalDateTime end = slot.plusMinutes(totalMinutes);
+        return slot.toLocalDate().equals(date)
+                && !slot.toLocalTime().isBefore(windowStart)
+                && !end.isAfter(LocalDateTime.of(date, windowEnd));
+    }
+
+    public boolean isActive() {
+        return status == WaitlistStatus.WAITING || status == WaitlistStatus.OFFERED;
+    }
+
+    public void offer(LocalDateTime slot, LocalDateTime expiresAt) {
+        if (status != WaitlistStatus.WAITING) {
+            throw new IllegalStateException("Only waiting entries can receive an offer");
+        }
+        this.status = WaitlistStatus.OFFERED;
+        this.offeredSlot = slot;
+        this.offerExpiresAt = expiresAt;
+    }
+
+    public void fulfil() {
+        this.status = WaitlistStatus.FULFILLED;
+    }
+
+    public void expire() {
+        this.status = WaitlistStatus.EXPIRED;
+    }
+
+    public void cancel() {
+        if (!isActive()) {
+            throw new IllegalStateException("Waitlist entry is no longer active");
+        }
+        this.status = WaitlistStatus.CANCELED;
+    }
+}
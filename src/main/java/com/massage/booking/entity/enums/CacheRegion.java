@@ -0,0 +1,13 @@
+package com.massage.booking.entity.enums;
+
+/**
+ * Local caches kept coherent across nodes through the cache_invalidations log.
+ */
+public enum CacheRegion {
+    AVAILABILITY,   // key: date — slot rows, bookings, holds of that day
+    SCHEDULE,       // key: date — opening hours of that day
+    CATALOG,        // key: service id
+    RESOURCES,      // key: * — therapists and rooms
+    CLIENT,         // key: client id
+    PRINCIPAL       // key: user id
+}
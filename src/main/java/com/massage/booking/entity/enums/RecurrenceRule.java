@@ -0,0 +1,16 @@
+package com.massage.booking.entity.enums;
+
+public enum RecurrenceRule {
+    WEEKLY(1),      // same time every week
+    BIWEEKLY(2);    // same time every other week
+
+    private final int intervalWeeks;
+
+    RecurrenceRule(int intervalWeeks) {
+        this.intervalWeeks = intervalWeeks;
+    }
+
+    public int getIntervalWeeks() {
+        return intervalWeeks;
+    }
+}
@@ -0,0 +1,6 @@
+package com.massage.booking.entity.enums;
+
+public enum ResourceType {
+    THERAPIST,
+    ROOM
+}
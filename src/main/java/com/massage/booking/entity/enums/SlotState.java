@@ -0,0 +1,8 @@
+package com.massage.booking.entity.enums;
+
+public enum SlotState {
+    AVAILABLE,
+    BOOKED,
+    BLOCKED,
+    HELD
+}
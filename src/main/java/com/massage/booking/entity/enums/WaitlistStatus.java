@@ -0,0 +1,9 @@
+package com.massage.booking.entity.enums;
+
+public enum WaitlistStatus {
+    WAITING,    // in the matcher's index
+    OFFERED,    // a released slot is held for this entry until offerExpiresAt
+    FULFILLED,  // the client booked the offered slot
+    EXPIRED,    // the offer timed out, or the requested date passed
+    CANCELED    // withdrawn by the client
+}
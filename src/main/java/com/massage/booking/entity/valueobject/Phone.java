@@ -21,7 +21,8 @@ public class Phone {
             "^\\+?[0-9]{9,15}$"
     );
 
-    @Column(name = "phone", nullable = false, unique = true, length = 20)
+    // Uniqueness is declared per owning table (uk_users_phone, uk_clients_phone)
+    @Column(name = "phone", nullable = false, length = 20)
     private String value;
 
     // Private constructor - forces use of factory method
@@ -0,0 +1,10 @@
+package com.massage.booking.event;
+
+import com.massage.booking.entity.enums.CacheRegion;
+
+/**
+ * Published locally when another node logged a mutation — local caches drop the entry.
+ * Never published for this node's own mutations; those are handled by the domain events.
+ */
+public record CacheInvalidatedEvent(CacheRegion region, String key) {
+}
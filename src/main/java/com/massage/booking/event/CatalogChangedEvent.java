@@ -0,0 +1,7 @@
+package com.massage.booking.event;
+
+/**
+ * Published when a massage service is created, updated or deactivated.
+ */
+public record CatalogChangedEvent(Long serviceId) {
+}
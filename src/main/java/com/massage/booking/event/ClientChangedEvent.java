@@ -0,0 +1,7 @@
+package com.massage.booking.event;
+
+/**
+ * Published when a client is created, edited or deactivated.
+ */
+public record ClientChangedEvent(Long clientId) {
+}
@@ -0,0 +1,7 @@
+package com.massage.booking.event;
+
+/**
+ * Published when a therapist or room is added or deactivated.
+ */
+public record ResourcesChangedEvent(Long resourceId) {
+}
@@ -0,0 +1,9 @@
+package com.massage.booking.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published when the opening hours of a date change (schedule exception added, edited or removed).
+ */
+public record ScheduleChangedEvent(LocalDate date) {
+}
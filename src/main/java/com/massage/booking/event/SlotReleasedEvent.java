@@ -0,0 +1,10 @@
+package com.massage.booking.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a booked slot becomes free again (cancellation, expired waitlist offer).
+ * Listeners run after the releasing transaction commits.
+ */
+public record SlotReleasedEvent(LocalDateTime slotDateTime) {
+}
@@ -0,0 +1,12 @@
+package com.massage.booking.event;
+
+import com.massage.booking.entity.enums.SlotState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by TimeSlotService on every slot state change; pushed to availability stream
+ * subscribers after the changing transaction commits.
+ */
+public record SlotStateChangedEvent(LocalDateTime slotDateTime, SlotState state) {
+}
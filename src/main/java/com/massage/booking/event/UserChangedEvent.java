@@ -0,0 +1,7 @@
+package com.massage.booking.event;
+
+/**
+ * Published when a user's role or status changes.
+ */
+public record UserChangedEvent(Long userId) {
+}
@@ -0,0 +1,9 @@
+package com.massage.booking.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the booking path when a client books a slot that was held for their waitlist entry.
+ */
+public record WaitlistOfferAcceptedEvent(Long entryId, LocalDateTime slotDateTime, Long bookingId) {
+}
@@ -5,13 +5,23 @@ import org.springframework.http.HttpStatus;
 public class BusinessException extends RuntimeException {
 
     private final HttpStatus status;
+    private final RejectionReason reason;
 
     public BusinessException(String message, HttpStatus status) {
+        this(message, status, RejectionReason.OTHER);
+    }
+
+    public BusinessException(String message, HttpStatus status, RejectionReason reason) {
         super(message);
         this.status = status;
+        this.reason = reason;
     }
 
     public HttpStatus getStatus() {
         return status;
     }
-}
\ No newline at end of file
+
+    public RejectionReason getReason() {
+        return reason;
+    }
+}
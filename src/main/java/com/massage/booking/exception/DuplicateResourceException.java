@@ -7,4 +7,8 @@ public class DuplicateResourceException extends BusinessException {
     public DuplicateResourceException(String message) {
         super(message, HttpStatus.CONFLICT);
     }
+
+    public DuplicateResourceException(String message, RejectionReason reason) {
+        super(message, HttpStatus.CONFLICT, reason);
+    }
 }
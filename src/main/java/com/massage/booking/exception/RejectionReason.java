@@ -0,0 +1,32 @@
+package com.massage.booking.exception;
+
+/**
+ * Why a booking or cancellation was turned down — a bounded tag for the booking.conflicts metric,
+ * set where the exception is thrown rather than derived from its message.
+ */
+public enum RejectionReason {
+
+    SLOT_BOOKED("slot_booked"),
+    CONCURRENT_BOOKING("concurrent_booking"),
+    DUPLICATE_REQUEST("duplicate_request"),
+    LOCK_BUSY("lock_busy"),
+    ON_HOLD("on_hold"),
+    NOT_AVAILABLE("not_available"),
+    NO_RESOURCE("no_resource"),
+    TOO_SOON("too_soon"),
+    TOO_FAR("too_far"),
+    CLOSED("closed"),
+    CANCEL_TOO_LATE("cancel_too_late"),
+    NOT_OWNER("not_owner"),
+    OTHER("other");
+
+    private final String tag;
+
+    RejectionReason(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
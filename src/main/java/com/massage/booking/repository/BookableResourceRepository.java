@@ -0,0 +1,17 @@
+package com.massage.booking.repository;
+
+import com.massage.booking.entity.BookableResource;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookableResourceRepository extends JpaRepository<BookableResource, Long> {
+
+    List<BookableResource> findByActiveTrueOrderByIdAsc();
+
+    List<BookableResource> findAllByOrderByTypeAscNameAsc();
+
+    boolean existsByName(String name);
+}
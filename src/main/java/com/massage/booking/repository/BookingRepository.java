@@ -26,10 +26,22 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("endTime") LocalDateTime endTime
     );
 
+    // Same range without the row lock — feeds occupancy caches, never a booking decision
+    @Query("SELECT b FROM Booking b WHERE b.status = 'BOOKED' AND " +
+            "b.startTime < :endTime AND b.endTime > :startTime")
+    List<Booking> findActiveOverlapping(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
     // ✅ Used by getById() and updateStatus() — already correct
     @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.client LEFT JOIN FETCH b.service WHERE b.id = :id")
     Optional<Booking> findByIdWithDetails(@Param("id") Long id);
 
+    // Used by cancel() — booking, client, owning user and service in a single query
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.client c LEFT JOIN FETCH c.user LEFT JOIN FETCH b.service WHERE b.id = :id")
+    Optional<Booking> findByIdWithOwner(@Param("id") Long id);
+
     // ✅ FIX: was findAll(pageable) — now loads client+service in one query (admin, no filter)
     @Query(value = "SELECT b FROM Booking b LEFT JOIN FETCH b.client LEFT JOIN FETCH b.service",
             countQuery = "SELECT COUNT(b) FROM Booking b")
@@ -50,6 +62,10 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.clientId = :clientId AND b.status = :status")
     Page<Booking> findByClientIdAndStatusWithDetails(@Param("clientId") Long clientId, @Param("status") BookingStatus status, Pageable pageable);
 
+    // Ending a series: its future, still-booked occurrences
+    @Query("SELECT b FROM Booking b WHERE b.seriesId = :seriesId AND b.status = 'BOOKED' AND b.startTime > :after")
+    List<Booking> findUpcomingBySeriesId(@Param("seriesId") Long seriesId, @Param("after") LocalDateTime after);
+
     // Keep these — still used by findByClient (list, not page) elsewhere
     List<Booking> findByClientId(Long clientId);
 
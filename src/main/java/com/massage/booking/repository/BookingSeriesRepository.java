@@ -0,0 +1,19 @@
+package com.massage.booking.repository;
+
+import com.massage.booking.entity.BookingSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BookingSeriesRepository extends JpaRepository<BookingSeries, Long> {
+
+    // Active series whose materialized window has not yet reached the horizon (or their end date)
+    @Query("SELECT s.id FROM BookingSeries s WHERE s.active = true AND " +
+            "(s.materializedUntil IS NULL OR (s.materializedUntil < :horizon AND s.materializedUntil < s.endDate))")
+    List<Long> findIdsDueForExtension(@Param("horizon") LocalDate horizon);
+}
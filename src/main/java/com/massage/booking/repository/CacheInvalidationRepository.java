@@ -0,0 +1,27 @@
+package com.massage.booking.repository;
+
+import com.massage.booking.entity.CacheInvalidation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+
+    // Primary-key range scan — the whole poll
+    @Query("SELECT c FROM CacheInvalidation c WHERE c.id > :afterId ORDER BY c.id ASC")
+    List<CacheInvalidation> findAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM CacheInvalidation c")
+    long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM CacheInvalidation c WHERE c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,10 +25,39 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
 
     Page<Client> findByActiveTrue(Pageable pageable);
 
-    @Query("SELECT c FROM Client c WHERE c.active = :active AND " +
-           "(LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "c.phone.value LIKE CONCAT('%', :search, '%'))")
-    Page<Client> searchClients(@Param("search") String search,
+    @Query("SELECT c FROM Client c LEFT JOIN FETCH c.user WHERE c.id = :id")
+    Optional<Client> findByIdWithUser(@Param("id") Long id);
+
+    // Client search — queries built by ClientSearchIndex, each served by one index
+
+    @Query(value = "SELECT c FROM Client c WHERE (:active IS NULL OR c.active = :active) " +
+                   "AND c.id IN (SELECT g.clientId FROM ClientSearchGram g WHERE g.gram IN :grams " +
+                   "GROUP BY g.clientId HAVING COUNT(g) = :gramCount) " +
+                   "AND c.searchName LIKE CONCAT('%', :term, '%')",
+           countQuery = "SELECT COUNT(c) FROM Client c WHERE (:active IS NULL OR c.active = :active) " +
+                   "AND c.id IN (SELECT g.clientId FROM ClientSearchGram g WHERE g.gram IN :grams " +
+                   "GROUP BY g.clientId HAVING COUNT(g) = :gramCount) " +
+                   "AND c.searchName LIKE CONCAT('%', :term, '%')")
+    Page<Client> searchByName(@Param("term") String term,
+                              @Param("grams") Collection<String> grams,
+                              @Param("gramCount") long gramCount,
+                              @Param("active") Boolean active,
+                              Pageable pageable);
+
+    @Query("SELECT c FROM Client c WHERE (:active IS NULL OR c.active = :active) " +
+           "AND c.searchName LIKE CONCAT(:prefix, '%')")
+    Page<Client> searchByNamePrefix(@Param("prefix") String prefix,
+                                    @Param("active") Boolean active,
+                                    Pageable pageable);
+
+    @Query("SELECT c FROM Client c WHERE (:active IS NULL OR c.active = :active) AND (" +
+           "c.phone.value LIKE CONCAT(:digits, '%') OR c.phone.value LIKE CONCAT('+', :digits, '%') OR " +
+           "c.phoneReversed LIKE CONCAT(:reversed, '%'))")
+    Page<Client> searchByPhone(@Param("digits") String digits,
+                               @Param("reversed") String reversed,
                                @Param("active") Boolean active,
                                Pageable pageable);
+
+    // Rows written before the search columns existed
+    List<Client> findBySearchNameIsNull(Pageable pageable);
 }
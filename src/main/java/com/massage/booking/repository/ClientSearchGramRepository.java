@@ -0,0 +1,16 @@
+package com.massage.booking.repository;
+
+import com.massage.booking.entity.ClientSearchGram;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClientSearchGramRepository extends JpaRepository<ClientSearchGram, Long> {
+
+    @Modifying
+    @Query("DELETE FROM ClientSearchGram g WHERE g.clientId = :clientId")
+    void deleteByClientId(@Param("clientId") Long clientId);
+}
@@ -0,0 +1,17 @@
+package com.massage.booking.repository;
+
+import com.massage.booking.entity.ScheduleException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduleExceptionRepository extends JpaRepository<ScheduleException, Long> {
+
+    Optional<ScheduleException> findByExceptionDate(LocalDate exceptionDate);
+
+    List<ScheduleException> findByExceptionDateBetweenOrderByExceptionDateAsc(LocalDate startDate, LocalDate endDate);
+}
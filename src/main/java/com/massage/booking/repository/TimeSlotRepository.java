@@ -1,13 +1,18 @@
 package com.massage.booking.repository;
 
 import com.massage.booking.entity.TimeSlot;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +23,74 @@ public interface TimeSlotRepository extends JpaRepository<TimeSlot, Long> {
 
     Optional<TimeSlot> findBySlotDateTime(LocalDateTime dateTime);
 
+    // Booking path: one locked read, reused for both the availability check and the update
+    // Booking path: lock every half-hour row in [start, end) in one statement, in slot order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ts FROM TimeSlot ts WHERE ts.slotDateTime >= :start AND ts.slotDateTime < :end " +
+            "ORDER BY ts.slotDateTime")
+    List<TimeSlot> findAllInRangeForUpdate(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Batch booking: lock every affected row in one statement, in slot order (consistent lock order → no deadlocks)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ts FROM TimeSlot ts WHERE ts.slotDateTime IN :dateTimes ORDER BY ts.slotDateTime")
+    List<TimeSlot> findAllBySlotDateTimeInForUpdate(@Param("dateTimes") Collection<LocalDateTime> dateTimes);
+
+    // Cancellation: release in place, no read of the slot row (blocked slots stay unavailable)
+    @Modifying
+    @Query("UPDATE TimeSlot ts SET ts.isAvailable = true, ts.updatedAt = :now " +
+            "WHERE ts.slotDateTime = :dateTime AND ts.isBlocked = false")
+    int releaseBySlotDateTime(@Param("dateTime") LocalDateTime dateTime, @Param("now") LocalDateTime now);
+
+    // Range blocking: which rows already exist in the span (missing ones are batch-inserted)
+    @Query("SELECT ts.slotDateTime FROM TimeSlot ts WHERE ts.slotDate BETWEEN :startDate AND :endDate")
+    List<LocalDateTime> findSlotDateTimesInRange(@Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("UPDATE TimeSlot ts SET ts.isBlocked = true, ts.isAvailable = false, " +
+            "ts.blockReason = :reason, ts.updatedAt = :now " +
+            "WHERE ts.slotDate BETWEEN :startDate AND :endDate " +
+            "AND ts.slotTime >= :fromTime AND ts.slotTime < :toTime AND ts.isBlocked = false")
+    int blockRange(@Param("startDate") LocalDate startDate,
+                   @Param("endDate") LocalDate endDate,
+                   @Param("fromTime") LocalTime fromTime,
+                   @Param("toTime") LocalTime toTime,
+                   @Param("reason") String reason,
+                   @Param("now") LocalDateTime now);
+
+    // A slot that still has a booking stays unavailable after the block is lifted
+    @Modifying
+    @Query("UPDATE TimeSlot ts SET ts.isBlocked = false, ts.blockReason = NULL, ts.updatedAt = :now, " +
+            "ts.isAvailable = CASE WHEN EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.startTime = ts.slotDateTime AND b.status = 'BOOKED') THEN false ELSE true END " +
+            "WHERE ts.slotDate BETWEEN :startDate AND :endDate " +
+            "AND ts.slotTime >= :fromTime AND ts.slotTime < :toTime AND ts.isBlocked = true")
+    int unblockRange(@Param("startDate") LocalDate startDate,
+                     @Param("endDate") LocalDate endDate,
+                     @Param("fromTime") LocalTime fromTime,
+                     @Param("toTime") LocalTime toTime,
+                     @Param("now") LocalDateTime now);
+
+    // Hold: succeeds only on a free slot that is unheld, expired, or already held by the same user
+    @Modifying
+    @Query("UPDATE TimeSlot ts SET ts.heldUntil = :until, ts.heldBy = :userId, ts.updatedAt = :now " +
+            "WHERE ts.slotDateTime = :dateTime AND ts.isAvailable = true AND ts.isBlocked = false " +
+            "AND (ts.heldUntil IS NULL OR ts.heldUntil <= :now OR ts.heldBy = :userId)")
+    int holdBySlotDateTime(@Param("dateTime") LocalDateTime dateTime,
+                           @Param("userId") Long userId,
+                           @Param("until") LocalDateTime until,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE TimeSlot ts SET ts.heldUntil = NULL, ts.heldBy = NULL, ts.updatedAt = :now " +
+            "WHERE ts.slotDateTime = :dateTime AND ts.heldBy = :userId")
+    int clearHold(@Param("dateTime") LocalDateTime dateTime,
+                  @Param("userId") Long userId,
+                  @Param("now") LocalDateTime now);
+
+    // Startup: holds still running survive a restart
+    List<TimeSlot> findByHeldUntilAfter(LocalDateTime now);
+
     @Query("SELECT ts FROM TimeSlot ts WHERE ts.slotDate BETWEEN :startDate AND :endDate " +
             "AND ts.isAvailable = true AND ts.isBlocked = false " +
             "ORDER BY ts.slotDateTime")
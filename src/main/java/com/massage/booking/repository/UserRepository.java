@@ -4,8 +4,13 @@ import com.massage.booking.entity.User;
 import com.massage.booking.entity.valueobject.Email;
 import com.massage.booking.entity.valueobject.Phone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -20,4 +25,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(Email email);
 
     Optional<User> findByEmailAndActiveTrue(Email email);
+
+    // Compare-and-set, so a password changed since the login read is never overwritten
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash, u.updatedAt = :now WHERE u.id = :id AND u.passwordHash = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
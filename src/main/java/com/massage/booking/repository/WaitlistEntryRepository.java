@@ -0,0 +1,37 @@
+package com.massage.booking.repository;
+
+import com.massage.booking.entity.WaitlistEntry;
+import com.massage.booking.entity.enums.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Startup: rebuild the in-memory matcher index
+    List<WaitlistEntry> findByStatusAndDesiredDateGreaterThanEqualOrderByIdAsc(WaitlistStatus status, LocalDate from);
+
+    List<WaitlistEntry> findByStatus(WaitlistStatus status);
+
+    List<WaitlistEntry> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    long countByUserIdAndStatusIn(Long userId, Collection<WaitlistStatus> statuses);
+
+    boolean existsByUserIdAndServiceIdAndDesiredDateAndStatusIn(
+            Long userId, Long serviceId, LocalDate desiredDate, Collection<WaitlistStatus> statuses);
+
+    List<WaitlistEntry> findByStatusAndOfferExpiresAtBefore(WaitlistStatus status, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED', w.updatedAt = :now " +
+            "WHERE w.status = 'WAITING' AND w.desiredDate < :today")
+    int expireWaitingBefore(@Param("today") LocalDate today, @Param("now") LocalDateTime now);
+}
@@ -4,6 +4,7 @@ import com.massage.booking.entity.WorkingDay;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +13,6 @@ public interface WorkingDayRepository extends JpaRepository<WorkingDay, Long> {
     Optional<WorkingDay> findByDayOfWeek(Integer dayOfWeek);
 
     boolean existsByDayOfWeekAndIsActiveTrue(Integer dayOfWeek);
+
+    List<WorkingDay> findByIsActiveTrue();
 }
\ No newline at end of file
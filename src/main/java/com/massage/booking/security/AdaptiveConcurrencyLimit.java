@@ -0,0 +1,107 @@
+package com.massage.booking.security;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows observed latency (additive increase, multiplicative decrease).
+ *
+ * Latencies are averaged over windows of {@code windowSize} requests and compared with a
+ * baseline — the lowest window average seen, drifting slowly up so one quiet moment does not
+ * pin it forever. A window slower than {@code tolerance} × baseline means requests are queueing
+ * somewhere downstream (DB pool, CPU), so the limit shrinks by 10%. A healthy window in which
+ * the limit was actually reached grows it by one.
+ *
+ * Callers ask for a share of the limit, which is how lower priorities are shed first.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double DECREASE_FACTOR = 0.9;
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int windowSize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder windowNanos = new LongAdder();
+    private final LongAdder windowCount = new LongAdder();
+    private final AtomicBoolean rolling = new AtomicBoolean();
+
+    private volatile int limit;
+    private volatile boolean saturated;
+    private double baselineNanos = Double.NaN;   // only touched while holding "rolling"
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, int windowSize) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowSize = windowSize;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Admits one request if fewer than {@code share} × limit are in flight.
+     */
+    boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                saturated = true;
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request; {@code latencyNanos} < 0 releases without a latency sample.
+     */
+    void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos < 0) {
+            return;
+        }
+        windowNanos.add(latencyNanos);
+        windowCount.increment();
+        if (windowCount.sum() >= windowSize && rolling.compareAndSet(false, true)) {
+            try {
+                roll();
+            } finally {
+                rolling.set(false);
+            }
+        }
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void roll() {
+        long count = windowCount.sumThenReset();
+        long total = windowNanos.sumThenReset();
+        if (count == 0) {
+            return;
+        }
+        double average = (double) total / count;
+        baselineNanos = Double.isNaN(baselineNanos)
+                ? average
+                : Math.min(average, baselineNanos + (average - baselineNanos) * BASELINE_DRIFT);
+
+        if (average > baselineNanos * tolerance) {
+            limit = Math.max(minLimit, (int) (limit * DECREASE_FACTOR));
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        saturated = false;
+    }
+}
@@ -0,0 +1,109 @@
+package com.massage.booking.security;
+
+import com.massage.booking.exception.GlobalExceptionHandler;
+import com.massage.booking.security.AdmissionGate.EndpointGroup;
+import com.massage.booking.security.AdmissionGate.Priority;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+
+/**
+ * Load shedding for the whole API. Runs after JWT authentication so it knows who is asking:
+ * anonymous reads are LOW, authenticated reads and the auth endpoints NORMAL, authenticated
+ * writes CRITICAL. Shed requests get 503 with Retry-After.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final AdmissionGate admissionGate;
+    private final JsonMapper jsonMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return !admissionGate.isEnabled()
+                || "OPTIONS".equals(request.getMethod())
+                || !path.startsWith("/v1/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String path = path(request);
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        EndpointGroup group = groupFor(path, read);
+        Priority priority = priorityFor(group, read, isAuthenticated());
+
+        AdmissionGate.Permit permit = admissionGate.admit(group, priority);
+        if (permit == null) {
+            reject(response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // An SSE stream returns here at once; its duration says nothing about load
+            permit.release(!request.isAsyncStarted());
+        }
+    }
+
+    static EndpointGroup groupFor(String path, boolean read) {
+        if (path.startsWith("/v1/auth/")) {
+            return EndpointGroup.AUTH;
+        }
+        if (read && (path.startsWith("/v1/availability") || path.startsWith("/v1/services"))) {
+            return EndpointGroup.PUBLIC_READ;
+        }
+        if (!read && (path.startsWith("/v1/bookings") || path.startsWith("/v1/holds")
+                || path.startsWith("/v1/waitlist") || path.startsWith("/v1/booking-series"))) {
+            return EndpointGroup.BOOKING_WRITE;
+        }
+        return EndpointGroup.OTHER;
+    }
+
+    static Priority priorityFor(EndpointGroup group, boolean read, boolean authenticated) {
+        if (group == EndpointGroup.AUTH) {
+            return Priority.NORMAL;
+        }
+        if (!authenticated) {
+            return Priority.LOW;
+        }
+        return read ? Priority.NORMAL : Priority.CRITICAL;
+    }
+
+    private boolean isAuthenticated() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser;
+    }
+
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        jsonMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.name(),
+                "The server is busy. Please retry in a moment."));
+    }
+}
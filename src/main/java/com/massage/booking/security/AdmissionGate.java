@@ -0,0 +1,205 @@
+package com.massage.booking.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether a request may run now, wait briefly, or be shed.
+ *
+ * Two checks, both lock-free on the fast path:
+ * 1️⃣ a fixed concurrency cap per endpoint group, so scraped public reads cannot take every thread;
+ * 2️⃣ a shared {@link AdaptiveConcurrencyLimit} of which each priority may use only a share —
+ *    anonymous reads are refused while authenticated traffic still has headroom, and booking
+ *    writes may use the whole limit.
+ *
+ * LOW priority is never queued. Higher priorities wait up to queue-timeout-ms for a release.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionGate {
+
+    public enum EndpointGroup { PUBLIC_READ, AUTH, BOOKING_WRITE, OTHER }
+
+    public enum Priority { LOW, NORMAL, CRITICAL }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.admission.enabled:true}")
+    private boolean enabled;
+    @Value("${booking.admission.initial-limit:100}")
+    private int initialLimit;
+    @Value("${booking.admission.min-limit:20}")
+    private int minLimit;
+    @Value("${booking.admission.max-limit:400}")
+    private int maxLimit;
+    @Value("${booking.admission.latency-tolerance:2.0}")
+    private double latencyTolerance;
+    @Value("${booking.admission.window-size:200}")
+    private int windowSize;
+    @Value("${booking.admission.queue-timeout-ms:100}")
+    private long queueTimeoutMs;
+    @Value("${booking.admission.max-queue:100}")
+    private int maxQueue;
+    @Value("${booking.admission.low-priority-share:0.5}")
+    private double lowShare;
+    @Value("${booking.admission.normal-priority-share:0.85}")
+    private double normalShare;
+    @Value("${booking.admission.public-read.max-concurrent:60}")
+    private int publicReadMaxConcurrent;
+    @Value("${booking.admission.auth.max-concurrent:40}")
+    private int authMaxConcurrent;
+
+    private AdaptiveConcurrencyLimit limit;
+    private final Map<EndpointGroup, AtomicInteger> groupInFlight = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, Integer> groupCaps = new EnumMap<>(EndpointGroup.class);
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Object monitor = new Object();
+
+    /**
+     * An admitted request; release exactly once.
+     */
+    public final class Permit {
+        private final EndpointGroup group;
+        private final long startedNanos = System.nanoTime();
+
+        private Permit(EndpointGroup group) {
+            this.group = group;
+        }
+
+        /**
+         * @param sampleLatency false for requests whose duration says nothing about load
+         *                      (e.g. a response handed off to an async stream)
+         */
+        public void release(boolean sampleLatency) {
+            groupInFlight.get(group).decrementAndGet();
+            limit.release(sampleLatency ? System.nanoTime() - startedNanos : -1);
+            if (waiting.get() > 0) {
+                synchronized (monitor) {
+                    monitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyTolerance, windowSize);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            groupInFlight.put(group, new AtomicInteger());
+        }
+        groupCaps.put(EndpointGroup.PUBLIC_READ, publicReadMaxConcurrent);
+        groupCaps.put(EndpointGroup.AUTH, authMaxConcurrent);
+
+        Gauge.builder("http.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit").register(meterRegistry);
+        Gauge.builder("http.admission.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .register(meterRegistry);
+        Gauge.builder("http.admission.waiting", waiting, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * @return a permit, or null when the request should be shed
+     */
+    public Permit admit(EndpointGroup group, Priority priority) {
+        if (tryAcquire(group, priority)) {
+            return admitted(group, priority, "admitted");
+        }
+        if (priority == Priority.LOW || queueTimeoutMs <= 0) {
+            return rejected(group, priority);
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            return rejected(group, priority);
+        }
+
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        try {
+            synchronized (monitor) {
+                while (true) {
+                    if (tryAcquire(group, priority)) {
+                        return admitted(group, priority, "queued");
+                    }
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return rejected(group, priority);
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(monitor, left);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return rejected(group, priority);
+        } finally {
+            waiting.decrementAndGet();
+            Timer.builder("http.admission.queue.wait")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    int getLimit() {
+        return limit.getLimit();
+    }
+
+    private boolean tryAcquire(EndpointGroup group, Priority priority) {
+        AtomicInteger inGroup = groupInFlight.get(group);
+        Integer cap = groupCaps.get(group);
+        if (cap != null && inGroup.incrementAndGet() > cap) {
+            inGroup.decrementAndGet();
+            return false;
+        }
+        if (cap == null) {
+            inGroup.incrementAndGet();
+        }
+        if (!limit.tryAcquire(share(priority))) {
+            inGroup.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private double share(Priority priority) {
+        return switch (priority) {
+            case LOW -> lowShare;
+            case NORMAL -> normalShare;
+            case CRITICAL -> 1.0;
+        };
+    }
+
+    private Permit admitted(EndpointGroup group, Priority priority, String outcome) {
+        count(group, priority, outcome);
+        return new Permit(group);
+    }
+
+    private Permit rejected(EndpointGroup group, Priority priority) {
+        count(group, priority, "rejected");
+        log.debug("Shed {} request in group {}", priority, group);
+        return null;
+    }
+
+    private void count(EndpointGroup group, Priority priority, String outcome) {
+        meterRegistry.counter("http.admission.requests",
+                "group", group.name().toLowerCase(Locale.ROOT),
+                "priority", priority.name().toLowerCase(Locale.ROOT),
+                "outcome", outcome).increment();
+    }
+}
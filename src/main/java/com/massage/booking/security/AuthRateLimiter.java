@@ -0,0 +1,151 @@
+package com.massage.booking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.massage.booking.exception.BusinessException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket limits for the unauthenticated auth endpoints, per client IP and per login email.
+ *
+ * Runs before any database or BCrypt work, so a credential-stuffing burst is refused for the
+ * price of a map lookup. Buckets live in size-bounded Caffeine caches and expire once idle long
+ * enough to have refilled completely — forgetting them changes nothing.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthRateLimiter {
+
+    public static final String LOGIN = "login";
+    public static final String LOGIN_EMAIL = "login-email";
+    public static final String REGISTER = "register";
+    public static final String REFRESH = "refresh";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${booking.rate-limit.login.capacity:10}")
+    private int loginCapacity;
+    @Value("${booking.rate-limit.login.per-minute:5}")
+    private int loginPerMinute;
+
+    @Value("${booking.rate-limit.login-email.capacity:5}")
+    private int loginEmailCapacity;
+    @Value("${booking.rate-limit.login-email.per-minute:2}")
+    private int loginEmailPerMinute;
+
+    @Value("${booking.rate-limit.register.capacity:5}")
+    private int registerCapacity;
+    @Value("${booking.rate-limit.register.per-minute:2}")
+    private int registerPerMinute;
+
+    @Value("${booking.rate-limit.refresh.capacity:30}")
+    private int refreshCapacity;
+    @Value("${booking.rate-limit.refresh.per-minute:30}")
+    private int refreshPerMinute;
+
+    private final Map<String, Group> groups = new HashMap<>();
+
+    private record Group(int capacity, long intervalNanos, Cache<String, TokenBucket> buckets) {
+    }
+
+    @PostConstruct
+    void init() {
+        register(LOGIN, loginCapacity, loginPerMinute);
+        register(LOGIN_EMAIL, loginEmailCapacity, loginEmailPerMinute);
+        register(REGISTER, registerCapacity, registerPerMinute);
+        register(REFRESH, refreshCapacity, refreshPerMinute);
+    }
+
+    /**
+     * The auth endpoint group a request belongs to, or null when it is not limited.
+     */
+    public static String groupFor(String method, String path) {
+        if (!"POST".equals(method)) {
+            return null;
+        }
+        return switch (path) {
+            case "/v1/auth/login" -> LOGIN;
+            case "/v1/auth/register" -> REGISTER;
+            case "/v1/auth/refresh" -> REFRESH;
+            default -> null;
+        };
+    }
+
+    /**
+     * Takes a token from the group's bucket for {@code key}.
+     *
+     * @return 0 when allowed, otherwise the nanoseconds until the caller may retry
+     */
+    public long tryAcquire(String groupName, String key) {
+        Group group = groups.get(groupName);
+        if (!enabled || group == null || key == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long waitNanos = group.buckets()
+                .get(key, k -> new TokenBucket(group.capacity(), group.intervalNanos(), now))
+                .tryAcquire(now);
+
+        meterRegistry.counter("auth.rate_limit.requests",
+                "group", groupName, "outcome", waitNanos == 0 ? "allowed" : "rejected").increment();
+        return waitNanos;
+    }
+
+    /**
+     * Per-account guard for login, called before the user lookup: spreading a password list
+     * over many IPs still lands on the one email.
+     */
+    public void checkLoginEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        long waitNanos = tryAcquire(LOGIN_EMAIL, email.trim().toLowerCase(Locale.ROOT));
+        if (waitNanos > 0) {
+            log.warn("Login throttled for email: {}", email);
+            throw tooManyRequests(waitNanos);
+        }
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    public static BusinessException tooManyRequests(long waitNanos) {
+        return new BusinessException(
+                "Too many attempts. Please retry in " + retryAfterSeconds(waitNanos) + " seconds.",
+                HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private void register(String name, int capacity, int perMinute) {
+        long intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+        // Idle for capacity intervals = full again, so the bucket can be forgotten
+        Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(intervalNanos * Math.max(1, capacity)))
+                .build();
+        groups.put(name, new Group(capacity, intervalNanos, buckets));
+        Gauge.builder("auth.rate_limit.buckets", buckets, Cache::estimatedSize)
+                .tag("group", name)
+                .register(meterRegistry);
+    }
+}
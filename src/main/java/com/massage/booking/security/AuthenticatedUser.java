@@ -0,0 +1,41 @@
+package com.massage.booking.security;
+
+import com.massage.booking.entity.enums.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The caller, rebuilt from verified JWT claims — no database read.
+ *
+ * clientId is null until the user has a client record (created with the first booking);
+ * services that need it still resolve it from userId.
+ */
+public record AuthenticatedUser(Long userId, Long clientId, String email, Role role) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ROLE_ADMIN;
+    }
+
+    public boolean isAdminOrSubAdmin() {
+        return role == Role.ROLE_ADMIN || role == Role.ROLE_SUBADMIN;
+    }
+}
@@ -1,5 +1,6 @@
 package com.massage.booking.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,7 +9,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,7 +21,8 @@ import java.io.IOException;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalRevalidator principalRevalidator;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(
@@ -40,23 +41,31 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
         log.debug("JWT token found in request");
 
-        if (!jwtUtil.validateToken(token)) {
+        // Parsed and verified once; everything below reads the claims
+        Claims claims = jwtUtil.parseValid(token).orElse(null);
+        if (claims == null) {
             log.warn("Invalid JWT token in request");
             filterChain.doFilter(request, response);
             return;
         }
 
-        // FIX #6: use extractEmail (was extractPhone)
-        String email = jwtUtil.extractEmail(token);
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            log.warn("Revoked JWT token in request");
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticatedUser principal = jwtUtil.toPrincipal(claims);
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        if (principal != null
+                && SecurityContextHolder.getContext().getAuthentication() == null
+                && principalRevalidator.isCurrent(principal)) {
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            principal.getAuthorities()
                     );
 
             authentication.setDetails(
@@ -64,7 +73,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            log.debug("User authenticated: {}", email);
+            log.debug("User authenticated: {}", principal.email());
         }
 
         filterChain.doFilter(request, response);
@@ -1,5 +1,6 @@
 package com.massage.booking.security;
 
+import com.massage.booking.entity.enums.Role;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
@@ -9,7 +10,11 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 @Slf4j
@@ -21,14 +26,22 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_CLIENT_ID = "cid";
+
     // FIX #6: renamed parameter from 'phone' to 'email' — JWT subject is email
-    public String generateToken(String email, String role) {
+    // Role and ids travel in the token so requests authenticate without a user query
+    public String generateToken(String email, String role, Long userId, Long clientId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())   // jti — lets a single token be revoked
                 .subject(email)
-                .claim("role", role)
+                .claim(CLAIM_ROLE, role)
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_CLIENT_ID, clientId)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
@@ -36,16 +49,32 @@ public class JwtUtil {
     }
 
     public boolean validateToken(String token) {
+        return parseValid(token).isPresent();
+    }
+
+    /**
+     * Verifies signature and expiry once; empty when the token is not acceptable.
+     */
+    public Optional<Claims> parseValid(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return Optional.of(extractClaims(token));
         } catch (Exception e) {
             log.warn("Invalid JWT token: {}", e.getMessage());
-            return false;
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The caller described by already verified claims, or null for a token without a user id.
+     */
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
         }
+        return new AuthenticatedUser(userId, claims.get(CLAIM_CLIENT_ID, Long.class),
+                claims.getSubject(), Role.valueOf(role));
     }
 
     // FIX #6: renamed from extractPhone to extractEmail — subject holds email
@@ -54,7 +83,15 @@ public class JwtUtil {
     }
 
     public String extractRole(String token) {
-        return extractClaims(token).get("role", String.class);
+        return extractClaims(token).get(CLAIM_ROLE, String.class);
+    }
+
+    public String extractTokenId(String token) {
+        return extractClaims(token).getId();
+    }
+
+    public LocalDateTime extractExpiration(String token) {
+        return LocalDateTime.ofInstant(extractClaims(token).getExpiration().toInstant(), ZoneId.systemDefault());
     }
 
     public boolean isTokenExpired(String token) {
@@ -0,0 +1,120 @@
+package com.massage.booking.security;
+
+import com.massage.booking.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the wrapped (BCrypt) encoder on a small fixed pool with a bounded queue.
+ *
+ * Hashing stays synchronous for the caller, but at most {@code threads} hashes burn CPU at
+ * once, whatever the number of concurrent logins. When the pool and its queue are full the
+ * request is refused immediately with 429 instead of piling up on request threads; a hash
+ * that waited past the timeout is given up with 503.
+ *
+ * {@link #upgradeEncoding} is answered inline — it only parses the stored hash.
+ */
+@Slf4j
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer duration;
+    private final Counter rejected;
+    private final Counter timeouts;
+
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, int threads, int queueSize, long timeoutMs,
+                                    MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                task -> {
+                    Thread thread = new Thread(task, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.duration = Timer.builder("auth.password.hash")
+                .description("Time from submitting a password hash to its result, queueing included")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected").tag("reason", "saturated").register(meterRegistry);
+        this.timeouts = Counter.builder("auth.password.rejected").tag("reason", "timeout").register(meterRegistry);
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        log.info("Password hashing on {} thread(s), queue {}, timeout {} ms", threads, queueSize, timeoutMs);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // Picked up by Spring as the bean's destroy method
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        long started = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusinessException("Too many sign-in requests right now. Please retry in a moment.",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.increment();
+            throw unavailable();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw unavailable();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } finally {
+            duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private BusinessException unavailable() {
+        return new BusinessException("Sign-in is temporarily busy. Please retry in a moment.",
+                HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,80 @@
+package com.massage.booking.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.massage.booking.entity.enums.CacheRegion;
+import com.massage.booking.entity.enums.Role;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.UserChangedEvent;
+import com.massage.booking.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Checks token claims against the database at most once per user per revalidation interval.
+ *
+ * A token's role and status are true when it is issued; a demotion or deactivation after that
+ * must still take effect before the token expires. Each user's current role and status are
+ * cached for {@code jwt.revalidation-interval-ms}; UserChangedEvent (local or, through the
+ * PRINCIPAL region, from another node) drops the entry so changes apply on the next request.
+ * A token whose role no longer matches is refused — the client refreshes and gets a new one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PrincipalRevalidator {
+
+    private final UserRepository userRepository;
+
+    @Value("${jwt.revalidation-interval-ms:300000}")
+    private long revalidationIntervalMs;
+
+    @Value("${jwt.revalidation-max-users:50000}")
+    private long maxUsers;
+
+    private LoadingCache<Long, UserState> states;
+
+    record UserState(Role role, boolean active) {
+        static final UserState GONE = new UserState(null, false);
+    }
+
+    @PostConstruct
+    void initCache() {
+        states = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMillis(revalidationIntervalMs))
+                .build(userId -> userRepository.findById(userId)
+                        .map(user -> new UserState(user.getRole(), user.canLogin()))
+                        .orElse(UserState.GONE));
+    }
+
+    public boolean isCurrent(AuthenticatedUser principal) {
+        UserState state = states.get(principal.userId());
+        if (!state.active() || state.role() != principal.role()) {
+            log.warn("Token for user {} is stale (role {}, now {}, active {})",
+                    principal.userId(), principal.role(), state.role(), state.active());
+            return false;
+        }
+        return true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        states.invalidate(event.userId());
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.region() == CacheRegion.PRINCIPAL) {
+            states.invalidate(Long.valueOf(event.key()));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.massage.booking.security;
+
+import com.massage.booking.exception.GlobalExceptionHandler;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+
+/**
+ * Per-IP throttle for login, register and refresh — ahead of authentication, controllers and
+ * BCrypt. Refused requests get 429 with Retry-After in the usual error body.
+ *
+ * Keys on the connection's remote address; behind a proxy, enable
+ * server.forward-headers-strategy so that is the client's address and not the proxy's.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final AuthRateLimiter rateLimiter;
+    private final JsonMapper jsonMapper;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String group = AuthRateLimiter.groupFor(request.getMethod(), path);
+
+        if (group != null) {
+            long waitNanos = rateLimiter.tryAcquire(group, request.getRemoteAddr());
+            if (waitNanos > 0) {
+                log.warn("Rate limit hit on {} from {}", group, request.getRemoteAddr());
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(AuthRateLimiter.retryAfterSeconds(waitNanos)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        jsonMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.name(),
+                AuthRateLimiter.tooManyRequests(waitNanos).getMessage()));
+    }
+}
@@ -1,6 +1,8 @@
 package com.massage.booking.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -30,6 +32,8 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final AdmissionFilter admissionFilter;
     private final UserDetailsServiceImpl userDetailsService;
 
     // FIX #7: CORS configuration — allows the React frontend to communicate
@@ -42,7 +46,7 @@ public class SecurityConfig {
                 "http://localhost:4173"    // Vite preview
         ));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Idempotency-Key"));
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
 
@@ -52,7 +56,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // FIX #7: enable CORS
                 .csrf(AbstractHttpConfigurer::disable)
@@ -72,6 +76,8 @@ public class SecurityConfig {
 
                         // Public - Actuator health
                         .requestMatchers("/actuator/health").permitAll()
+                        // Prometheus scrape — actuator is served on management.server.port only, never the public port
+                        .requestMatchers("/actuator/prometheus").permitAll()
 
                         // Public - View services and availability
                         .requestMatchers(HttpMethod.GET, "/v1/services/**").permitAll()
@@ -92,21 +98,38 @@ public class SecurityConfig {
                         // All authenticated - bookings
                         .anyRequest().authenticated()
                 )
+                // Throttle auth endpoints first — a refused request costs no token parsing or DB work
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
-                .authenticationProvider(authenticationProvider());
+                // Load shedding needs to know who is asking — after the JWT filter
+                .addFilterAfter(admissionFilter, UsernamePasswordAuthenticationFilter.class)
+                .authenticationProvider(authenticationProvider(passwordEncoder));
 
         return http.build();
     }
 
+    /**
+     * BCrypt off the request threads on a bounded pool (see {@link OffloadedPasswordEncoder}).
+     * Raising the strength re-hashes each user on their next successful login; existing hashes
+     * keep verifying because BCrypt stores the cost in the hash.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${booking.password-hashing.bcrypt-strength:10}") int strength,
+            @Value("${booking.password-hashing.threads:0}") int threads,
+            @Value("${booking.password-hashing.queue-size:32}") int queueSize,
+            @Value("${booking.password-hashing.timeout-ms:2000}") long timeoutMs,
+            MeterRegistry meterRegistry) {
+        // Half the cores by default — the other half keeps serving bookings during a login burst
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new OffloadedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueSize, timeoutMs,
+                meterRegistry);
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
         return provider;
     }
 
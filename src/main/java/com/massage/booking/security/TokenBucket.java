@@ -0,0 +1,42 @@
+package com.massage.booking.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as a single "theoretical arrival time" (GCRA).
+ *
+ * Each granted request pushes the arrival time one emission interval further; a request is
+ * refused while that time is more than {@code capacity - 1} intervals ahead of now. This is
+ * exactly a bucket of {@code capacity} tokens refilled one per interval, in one CAS per call.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong arrival;
+
+    TokenBucket(int capacity, long intervalNanos, long now) {
+        this.intervalNanos = intervalNanos;
+        this.toleranceNanos = intervalNanos * (Math.max(1, capacity) - 1);
+        this.arrival = new AtomicLong(now);   // starts full
+    }
+
+    /**
+     * Takes one token at {@code now}.
+     *
+     * @return 0 when granted, otherwise the nanoseconds until a token is available
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = arrival.get();
+            long earliest = Math.max(current, now);
+            long ahead = earliest - now;
+            if (ahead > toleranceNanos) {
+                return ahead - toleranceNanos;
+            }
+            if (arrival.compareAndSet(current, earliest + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.massage.booking.security;
+
+import com.massage.booking.entity.RevokedToken;
+import com.massage.booking.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens (by jti), checked on every authenticated request without a query.
+ *
+ * A Bloom filter answers "never revoked" for almost every token with a few bit tests; only a
+ * filter hit consults the exact jti map. Both are loaded from revoked_tokens at startup and
+ * topped up by polling rows revoked since the last poll — with an overlap, so rows committed
+ * late or stamped by a node with a slightly different clock are not missed. Adding a jti twice
+ * is harmless. Expired entries are dropped nightly and the filter is rebuilt without them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${jwt.revocation.expected-entries:10000}")
+    private int expectedEntries;
+
+    private final Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile int capacity;
+    private volatile LocalDateTime lastPoll;
+
+    @PostConstruct
+    void init() {
+        capacity = expectedEntries;
+        filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && filter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * Records the revocation in the caller's transaction and applies it locally at once;
+     * other nodes pick it up on their next poll.
+     */
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        if (jti == null || isRevoked(jti)) {
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .revokedAt(LocalDateTime.now())
+                .build());
+        remember(jti, expiresAt);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByExpiresAtAfter(now).forEach(this::remember);
+        lastPoll = now;
+        log.info("Token revocation list loaded: {} active entries", revoked.size());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime since = lastPoll;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            revokedTokenRepository.findByRevokedAtGreaterThanEqual(since.minus(POLL_OVERLAP)).forEach(this::remember);
+            lastPoll = now;
+        } catch (DataAccessException e) {
+            log.warn("Token revocation poll failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${jwt.revocation.cleanup-cron:0 50 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = revokedTokenRepository.deleteExpiredBefore(now);
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        rebuild(Math.max(expectedEntries, revoked.size() * 2));
+        if (deleted > 0) {
+            log.info("Purged {} expired token revocations", deleted);
+        }
+    }
+
+    private void remember(RevokedToken token) {
+        remember(token.getJti(), token.getExpiresAt());
+    }
+
+    private void remember(String jti, LocalDateTime expiresAt) {
+        if (revoked.putIfAbsent(jti, expiresAt) != null) {
+            return;
+        }
+        // Under the rebuild lock, so a concurrent rebuild cannot drop this jti from the filter
+        synchronized (this) {
+            filter.add(jti);
+        }
+        if (revoked.size() > capacity) {
+            rebuild(revoked.size() * 2);
+        }
+    }
+
+    private synchronized void rebuild(int newCapacity) {
+        BloomFilter fresh = new BloomFilter(newCapacity, FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(fresh::add);
+        capacity = newCapacity;
+        filter = fresh;
+    }
+}
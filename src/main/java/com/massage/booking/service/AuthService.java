@@ -1,46 +1,49 @@
 package com.massage.booking.service;
 
 import com.massage.booking.dto.request.LoginRequest;
+import com.massage.booking.dto.request.RefreshTokenRequest;
 import com.massage.booking.dto.request.RegisterRequest;
 import com.massage.booking.dto.response.AuthResponse;
 import com.massage.booking.entity.valueobject.Email;
-import com.massage.booking.entity.valueobject.Phone;
+import com.massage.booking.entity.Client;
 import com.massage.booking.entity.User;
 import com.massage.booking.exception.DuplicateResourceException;
 import com.massage.booking.exception.UnauthorizedException;
+import com.massage.booking.repository.ClientRepository;
 import com.massage.booking.repository.UserRepository;
 import com.massage.booking.security.JwtUtil;
+import com.massage.booking.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
 
     private final UserRepository userRepository;
+    private final ClientRepository clientRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final EmailNotificationService emailNotificationService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
-    @Transactional
+    /**
+     * Not transactional: BCrypt runs first, with no connection held, and the insert and the
+     * refresh token each commit in their own short transaction.
+     */
     public AuthResponse register(RegisterRequest request) {
         log.info("Registering new user with email: {}", request.getEmail());
 
-        Phone phone = Phone.of(request.getPhone());
-        Email email = Email.of(request.getEmail());
-
-        if (userRepository.existsByPhone(phone)) {
-            throw new DuplicateResourceException("Phone number already registered: " + request.getPhone());
-        }
-
-        if (userRepository.existsByEmail(email)) {
-            throw new DuplicateResourceException("Email already registered: " + request.getEmail());
-        }
-
+        // Hashing may queue on the password pool — never while holding a pooled connection
         User user = User.createClient(
                 request.getName(),
                 request.getPhone(),
@@ -49,15 +52,25 @@ public class AuthService {
                 passwordEncoder
         );
 
-        User savedUser = userRepository.save(user);
+        // One insert — the unique indexes on email and phone are the duplicate check, race-free
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicate(e, request);
+        }
         log.info("User registered successfully with id: {}", savedUser.getId());
 
         emailNotificationService.sendWelcomeEmail(savedUser.getEmailAddress(), savedUser.getName());
 
-        return buildAuthResponse(savedUser);
+        return buildAuthResponse(savedUser, refreshTokenService.issue(savedUser.getId()));
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Not transactional, for the same reason as {@link #register}: the user is read in the
+     * repository's own read-only transaction, the password is checked with no connection held,
+     * and a hash below the configured BCrypt strength is upgraded in a separate short write.
+     */
     public AuthResponse login(LoginRequest request) {
         log.info("Login attempt for email: {}", request.getEmail());
 
@@ -74,17 +87,74 @@ public class AuthService {
             throw new UnauthorizedException("Invalid email or password");
         }
 
+        if (passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            String oldHash = user.getPasswordHash();
+            user.rehashPassword(request.getPassword(), passwordEncoder);
+            if (userRepository.replacePasswordHash(user.getId(), oldHash, user.getPasswordHash(), LocalDateTime.now()) > 0) {
+                log.info("Password hash upgraded for user: {}", user.getId());
+            }
+        }
+
         log.info("Login successful for user: {}", user.getId());
-        return buildAuthResponse(user);
+        return buildAuthResponse(user, refreshTokenService.issue(user.getId()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and the next refresh token.
+     *
+     * Deliberately not transactional: a reused token revokes its family inside rotate(),
+     * and that revocation must commit even though the call ends in 401.
+     */
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+        User user = userRepository.findById(rotation.userId())
+                .filter(User::canLogin)
+                .orElseThrow(() -> new UnauthorizedException("Invalid or expired refresh token"));
+
+        return buildAuthResponse(user, rotation.token());
+    }
+
+    /**
+     * Revokes the presented access token (by jti) and the refresh token's family.
+     * Either may be missing or already invalid — logout never fails.
+     */
+    @Transactional
+    public void logout(String bearerHeader, String refreshToken) {
+        if (bearerHeader != null && bearerHeader.startsWith("Bearer ")) {
+            String accessToken = bearerHeader.substring(7);
+            if (jwtUtil.validateToken(accessToken)) {
+                tokenRevocationService.revoke(jwtUtil.extractTokenId(accessToken), jwtUtil.extractExpiration(accessToken));
+            }
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
+    private DuplicateResourceException duplicate(DataIntegrityViolationException e, RegisterRequest request) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains(User.UK_PHONE)) {
+            return new DuplicateResourceException("Phone number already registered: " + request.getPhone());
+        }
+        if (detail.contains(User.UK_EMAIL)) {
+            return new DuplicateResourceException("Email already registered: " + request.getEmail());
+        }
+        log.warn("Registration rejected by an unexpected constraint: {}", detail);
+        return new DuplicateResourceException("Phone number or email already registered");
     }
 
-    private AuthResponse buildAuthResponse(User user) {
-        String token = jwtUtil.generateToken(user.getEmailAddress(), user.getRole().name());
+    private AuthResponse buildAuthResponse(User user, String refreshToken) {
+        // Client id rides along in the token; null until the first booking creates the client
+        Long clientId = clientRepository.findByUserId(user.getId()).map(Client::getId).orElse(null);
+        String token = jwtUtil.generateToken(user.getEmailAddress(), user.getRole().name(), user.getId(), clientId);
 
         return AuthResponse.builder()
                 .token(token)
                 .type("Bearer")
                 .expiresIn(jwtUtil.getExpiration())
+                .refreshToken(refreshToken)
+                .refreshExpiresIn(refreshTokenService.getRefreshExpiration())
                 .user(AuthResponse.UserInfo.builder()
                         .id(user.getId())
                         .name(user.getName())
@@ -0,0 +1,137 @@
+package com.massage.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.ResourcesChangedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
+import com.massage.booking.service.TimeSlotService.AvailabilityResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-serialized availability JSON, one entry per day: the /slots body and the day's
+ * element of the /range array. A range response is assembled by concatenating cached
+ * day chunks, so a hot calendar read is map lookups plus buffer copies — no query, no Jackson.
+ *
+ * Entries carry the day version they were built at ({@link ContentVersionService}) and are
+ * dropped when a slot of that day changes, and all at once when therapists or rooms change;
+ * a version mismatch also forces a rebuild, which covers a change racing with the build.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityResponseCache {
+
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    private final TimeSlotService timeSlotService;
+    private final ContentVersionService contentVersionService;
+    private final JsonMapper jsonMapper;
+    private final BookingMetrics bookingMetrics;
+
+    @Value("${booking.availability-cache.max-days:400}")
+    private long maxDays;
+
+    private Cache<LocalDate, DayEntry> days;
+
+    @PostConstruct
+    void initCache() {
+        days = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .build();
+    }
+
+    public byte[] slotsJson(LocalDate date) {
+        return bookingMetrics.time(BookingMetrics.AVAILABILITY_SLOTS, () -> entry(date).slotsJson());
+    }
+
+    public byte[] rangeJson(LocalDate startDate, LocalDate endDate) {
+        return bookingMetrics.time(BookingMetrics.AVAILABILITY_RANGE, () -> buildRange(startDate, endDate));
+    }
+
+    private byte[] buildRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return EMPTY_ARRAY;
+        }
+        List<byte[]> chunks = new ArrayList<>();
+        int size = 2;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            byte[] chunk = entry(date).dayJson();
+            chunks.add(chunk);
+            size += chunk.length + 1;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write('[');
+        for (int i = 0; i < chunks.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(chunks.get(i));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSlotStateChanged(SlotStateChangedEvent event) {
+        days.invalidate(event.slotDateTime().toLocalDate());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onResourcesChanged(ResourcesChangedEvent event) {
+        days.invalidateAll();
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        switch (event.region()) {
+            case AVAILABILITY, SCHEDULE -> days.invalidate(LocalDate.parse(event.key()));
+            case RESOURCES -> days.invalidateAll();
+            default -> {
+            }
+        }
+    }
+
+    private DayEntry entry(LocalDate date) {
+        // Version first, data second — an entry is never tagged newer than its content
+        long version = contentVersionService.dayVersion(date);
+        DayEntry cached = days.getIfPresent(date);
+        if (cached != null && cached.version() == version) {
+            bookingMetrics.cacheLookup("availability", true);
+            return cached;
+        }
+        bookingMetrics.cacheLookup("availability", false);
+
+        boolean isWorking = timeSlotService.isWorkingDay(date);
+        List<LocalDateTime> slots = isWorking ? timeSlotService.getAvailableSlotsForDate(date) : List.of();
+        DayEntry built = new DayEntry(
+                version,
+                jsonMapper.writeValueAsBytes(slots),
+                jsonMapper.writeValueAsBytes(AvailabilityResponse.builder()
+                        .date(date)
+                        .isWorkingDay(isWorking)
+                        .availableSlots(slots)
+                        .build())
+        );
+        days.put(date, built);
+        log.debug("Availability cache rebuilt for {} at version {}", date, version);
+        return built;
+    }
+
+    private record DayEntry(long version, byte[] slotsJson, byte[] dayJson) {
+    }
+}
@@ -0,0 +1,252 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.response.SlotDeltaResponse;
+import com.massage.booking.entity.enums.CacheRegion;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
+import com.massage.booking.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process event bus behind GET /v1/availability/stream.
+ *
+ * Slot state changes are fanned out only to subscribers whose date range contains the slot
+ * (date → subscribers index). Each subscriber has a bounded {@link CoalescingBuffer}; a single
+ * flusher sends one "slots" event per dirty subscriber every flush interval. Idle viewers are
+ * never touched except for the periodic heartbeat — no thread and no query per connection.
+ *
+ * The scheduled flush and heartbeat only hand work to a small dedicated send pool, so a slow
+ * client or a large heartbeat round never delays the other jobs on the shared scheduler (hold
+ * expiry, cache coherence polling). At most one send per subscriber is in flight, which keeps
+ * its events in order; a subscriber still sending is simply picked up by the next flush.
+ */
+@Service
+@Slf4j
+public class AvailabilityStreamService {
+
+    @Value("${booking.availability-stream.max-subscribers:5000}")
+    private int maxSubscribers;
+
+    @Value("${booking.availability-stream.max-range-days:31}")
+    private int maxRangeDays;
+
+    @Value("${booking.availability-stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${booking.availability-stream.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${booking.availability-stream.send-threads:4}")
+    private int sendThreads;
+
+    private ThreadPoolExecutor sender;
+
+    private final Map<LocalDate, Set<Subscriber>> byDate = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> dirty = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger sequence = new AtomicInteger();
+        // One queued task per subscriber at most — the queue never needs to exceed the subscriber cap
+        sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxSubscribers)),
+                task -> {
+                    Thread thread = new Thread(task, "availability-stream-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    public SseEmitter subscribe(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new BusinessException("End date cannot be before start date", HttpStatus.BAD_REQUEST);
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxRangeDays) {
+            throw new BusinessException("Cannot stream more than " + maxRangeDays + " days", HttpStatus.BAD_REQUEST);
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new BusinessException("Too many live viewers, please fall back to polling",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(timeoutMinutes).toMillis());
+        Subscriber subscriber = new Subscriber(emitter, startDate, endDate, new CoalescingBuffer(bufferSize),
+                new AtomicBoolean());
+
+        subscribers.add(subscriber);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            byDate.computeIfAbsent(date, d -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        send(subscriber, SseEmitter.event().name("ready").data(Map.of("startDate", startDate, "endDate", endDate)));
+        return emitter;
+    }
+
+    /**
+     * Only committed state is pushed. Cheap: a map lookup and a buffer put per matching subscriber.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSlotStateChanged(SlotStateChangedEvent event) {
+        Set<Subscriber> interested = byDate.get(event.slotDateTime().toLocalDate());
+        if (interested == null) {
+            return;
+        }
+        for (Subscriber subscriber : interested) {
+            subscriber.buffer().offer(event.slotDateTime(), event.state());
+            dirty.add(subscriber);
+        }
+    }
+
+    /**
+     * Another node committed a booking, release, block or schedule change for that day. Only the
+     * date is known, so viewers of it are told to resync rather than sent deltas.
+     */
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.region() != CacheRegion.AVAILABILITY && event.region() != CacheRegion.SCHEDULE) {
+            return;
+        }
+        Set<Subscriber> interested = byDate.get(LocalDate.parse(event.key()));
+        if (interested == null) {
+            return;
+        }
+        for (Subscriber subscriber : interested) {
+            subscriber.buffer().invalidate();
+            dirty.add(subscriber);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.availability-stream.flush-interval-ms:250}")
+    public void flush() {
+        for (Subscriber subscriber : dirty) {
+            // Still sending — stays dirty, its new deltas go out with the next flush
+            if (subscriber.sending().get()) {
+                continue;
+            }
+            dirty.remove(subscriber);
+            submit(subscriber, () -> {
+                List<SlotDeltaResponse> deltas = subscriber.buffer().drain();
+                if (deltas == null) {
+                    // Fell too far behind — the client refetches /v1/availability/range
+                    send(subscriber, SseEmitter.event().name("resync").data(Map.of()));
+                } else if (!deltas.isEmpty()) {
+                    send(subscriber, SseEmitter.event().name("slots").data(deltas));
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.availability-stream.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        // Keeps proxies from closing idle connections and detects clients that went away;
+        // a subscriber with a send in flight needs no keep-alive
+        for (Subscriber subscriber : subscribers) {
+            submit(subscriber, () -> send(subscriber, SseEmitter.event().comment("keep-alive")));
+        }
+    }
+
+    // Evict stale date keys so the index does not grow with the calendar
+    @Scheduled(cron = "0 5 0 * * *")
+    public void pruneIndex() {
+        LocalDate today = LocalDate.now();
+        byDate.entrySet().removeIf(e -> e.getKey().isBefore(today) || e.getValue().isEmpty());
+    }
+
+    // Whenever the task cannot run now, pending deltas keep the subscriber dirty for the next flush
+    private void submit(Subscriber subscriber, Runnable task) {
+        if (!subscriber.sending().compareAndSet(false, true)) {
+            // A heartbeat (or another flush) won the race since flush() checked sending()
+            keepDirty(subscriber);
+            return;
+        }
+        try {
+            sender.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    subscriber.sending().set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            subscriber.sending().set(false);
+            keepDirty(subscriber);
+        }
+    }
+
+    private void keepDirty(Subscriber subscriber) {
+        if (!subscriber.buffer().isEmpty() && subscribers.contains(subscriber)) {
+            dirty.add(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter().send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping availability stream subscriber: {}", e.getMessage());
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        dirty.remove(subscriber);
+        for (LocalDate date = subscriber.startDate(); !date.isAfter(subscriber.endDate()); date = date.plusDays(1)) {
+            Set<Subscriber> set = byDate.get(date);
+            if (set != null) {
+                set.remove(subscriber);
+            }
+        }
+    }
+
+    private record Subscriber(SseEmitter emitter, LocalDate startDate, LocalDate endDate, CoalescingBuffer buffer,
+                              AtomicBoolean sending) {
+        // Identity semantics — two viewers of the same range are different subscribers
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
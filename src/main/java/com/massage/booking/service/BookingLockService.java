@@ -0,0 +1,252 @@
+package com.massage.booking.service;
+
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.RejectionReason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Queues booking attempts for the same start time before they open a transaction.
+ *
+ * Attempts at the same half-hour queue on a striped in-process lock instead of all entering
+ * the SERIALIZABLE booking transaction and losing to each other in MySQL; attempts at other
+ * times of the same day do not wait, so per-resource capacity is not serialized away. Batches
+ * and series take the locks of all their start times, in ascending stripe order. With several
+ * nodes, a MySQL advisory lock (GET_LOCK) per start time extends the queue across the cluster;
+ * if it cannot be taken because of a database error the attempt goes ahead.
+ *
+ * This layer only settles contention. What guarantees correctness is the transaction: the start
+ * row is read FOR UPDATE (batches lock their rows in sorted order), the overlap query runs inside
+ * the SERIALIZABLE transaction, and the unique slot and idempotency keys reject what slips through —
+ * overlapping bookings with different start times are ordered there, not here.
+ *
+ * GET_LOCK is taken before the booking transaction opens, so each advisory holder pins a pooled
+ * connection while its transaction borrows a second one. A semaphore caps the lock sessions
+ * well below the pool size — without it, enough bookings for different times could take every
+ * connection for their locks and then wait on each other for a transaction connection.
+ *
+ * Lock waits, lock timeouts and booking attempts are published as Micrometer meters; rejected
+ * attempts are counted by reason in {@link BookingMetrics}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingLockService {
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.locks.stripes:64}")
+    private int stripeCount;
+
+    @Value("${booking.locks.wait-ms:3000}")
+    private long waitMs;
+
+    @Value("${booking.locks.advisory-enabled:false}")
+    private boolean advisoryEnabled;
+
+    // Keep below spring.datasource.hikari.maximum-pool-size
+    @Value("${booking.locks.advisory-max-sessions:4}")
+    private int advisoryMaxSessions;
+
+    private ReentrantLock[] stripes;
+    private Semaphore advisorySessions;
+    private Timer jvmWait;
+    private Timer dbWait;
+    private Counter jvmTimeouts;
+    private Counter dbTimeouts;
+    private Counter attempts;
+
+    @PostConstruct
+    void init() {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        advisorySessions = new Semaphore(Math.max(1, advisoryMaxSessions), true);
+        jvmWait = Timer.builder("booking.lock.wait").tag("layer", "jvm")
+                .description("Time spent waiting for the booking slot locks")
+                .publishPercentileHistogram().register(meterRegistry);
+        dbWait = Timer.builder("booking.lock.wait").tag("layer", "db")
+                .description("Time spent waiting for the booking slot locks")
+                .publishPercentileHistogram().register(meterRegistry);
+        jvmTimeouts = Counter.builder("booking.lock.timeouts").tag("layer", "jvm").register(meterRegistry);
+        dbTimeouts = Counter.builder("booking.lock.timeouts").tag("layer", "db").register(meterRegistry);
+        attempts = Counter.builder("booking.create.attempts")
+                .description("Booking attempts that reached the booking transaction").register(meterRegistry);
+    }
+
+    public <T> T withSlotLock(LocalDateTime startTime, Supplier<T> action) {
+        return withSlotLocks(List.of(startTime), action);
+    }
+
+    public <T> T withSlotLocks(Collection<LocalDateTime> startTimes, Supplier<T> action) {
+        List<LocalDateTime> keys = startTimes.stream().map(BookingLockService::halfHour).distinct().sorted().toList();
+        int[] indexes = keys.stream()
+                .mapToInt(key -> Math.floorMod(key.hashCode(), stripes.length))
+                .distinct()
+                .sorted()
+                .toArray();
+        long started = System.nanoTime();
+        int held = 0;
+        try {
+            held = lockStripes(indexes, started + TimeUnit.MILLISECONDS.toNanos(waitMs));
+            jvmWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (held < indexes.length) {
+                jvmTimeouts.increment();
+                throw busy(keys);
+            }
+            return advisoryEnabled && !keys.isEmpty() ? withAdvisoryLocks(keys, action) : run(action);
+        } finally {
+            for (int i = held - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    // Ascending stripe order, so batches sharing stripes cannot deadlock; returns how many were taken
+    private int lockStripes(int[] indexes, long deadline) {
+        int held = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                held++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return held;
+    }
+
+    private <T> T withAdvisoryLocks(List<LocalDateTime> keys, Supplier<T> action) {
+        long started = System.nanoTime();
+        boolean session;
+        try {
+            session = advisorySessions.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy(keys);
+        }
+        if (!session) {
+            dbWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            dbTimeouts.increment();
+            throw busy(keys);
+        }
+        try {
+            return withAdvisoryLocks(keys, action, started);
+        } finally {
+            advisorySessions.release();
+        }
+    }
+
+    // One session holds the locks of all keys, taken in ascending order like the stripes
+    private <T> T withAdvisoryLocks(List<LocalDateTime> keys, Supplier<T> action, long started) {
+        List<String> names = keys.stream().map(key -> "booking:" + key).toList();
+        List<String> acquired = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            for (String name : names) {
+                if (query(connection, "SELECT GET_LOCK(?, ?)", name, Math.max(1, waitMs / 1000)) != 1) {
+                    break;
+                }
+                acquired.add(name);
+            }
+            dbWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (acquired.size() < names.size()) {
+                dbTimeouts.increment();
+                throw busy(keys);
+            }
+        } catch (SQLException e) {
+            log.warn("Advisory locks {} unavailable, continuing without them: {}", names, e.getMessage());
+            release(connection, acquired);
+            return run(action);
+        } catch (BusinessException e) {
+            release(connection, acquired);
+            throw e;
+        }
+
+        try {
+            return run(action);
+        } finally {
+            release(connection, acquired);
+        }
+    }
+
+    private void release(Connection connection, List<String> names) {
+        if (connection == null) {
+            return;
+        }
+        for (String name : names) {
+            try {
+                query(connection, "SELECT RELEASE_LOCK(?)", name, null);
+            } catch (SQLException e) {
+                // Closing the session releases it as well
+                log.warn("Could not release advisory lock {}: {}", name, e.getMessage());
+            }
+        }
+        close(connection);
+    }
+
+    private <T> T run(Supplier<T> action) {
+        attempts.increment();
+        return action.get();
+    }
+
+    private long query(Connection connection, String sql, String name, Long timeoutSeconds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name);
+            if (timeoutSeconds != null) {
+                statement.setLong(2, timeoutSeconds);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Could not close advisory lock connection: {}", e.getMessage());
+        }
+    }
+
+    private BusinessException busy(List<LocalDateTime> keys) {
+        log.warn("Booking locks for {} not acquired within {} ms", keys, waitMs);
+        return new BusinessException("Too many bookings are being made for this time right now. Please retry.",
+                HttpStatus.SERVICE_UNAVAILABLE, RejectionReason.LOCK_BUSY);
+    }
+
+    private static LocalDateTime halfHour(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS).plusMinutes(time.getMinute() / 30 * 30L);
+    }
+}
@@ -0,0 +1,92 @@
+package com.massage.booking.service;
+
+import com.massage.booking.exception.BusinessException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Business metrics for the booking path.
+ *
+ * booking.operation          latency histogram per operation and outcome (success, rejected, error)
+ * booking.conflicts          rejected bookings/cancellations by reason (slot_booked, too_soon, ...)
+ * booking.cache.requests     hit/miss per in-memory cache, plus booking.cache.hit.ratio
+ *
+ * Lock waits (booking.lock.wait) and email dispatch (booking.email.dispatch) are timed where
+ * they happen, in BookingLockService and EmailNotificationService.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingMetrics {
+
+    public static final String CREATE = "create";
+    public static final String CANCEL = "cancel";
+    public static final String AVAILABILITY_SLOTS = "availability_slots";
+    public static final String AVAILABILITY_RANGE = "availability_range";
+    public static final String AVAILABILITY_CHECK = "availability_check";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CacheCounters> caches = new ConcurrentHashMap<>();
+
+    private record CacheCounters(LongAdder hits, LongAdder misses) {
+        double hitRatio() {
+            long hit = hits.sum();
+            long total = hit + misses.sum();
+            return total == 0 ? Double.NaN : (double) hit / total;
+        }
+    }
+
+    public <T> T time(String operation, Supplier<T> action) {
+        long started = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } catch (BusinessException e) {
+            outcome = "rejected";
+            meterRegistry.counter("booking.conflicts", "operation", operation, "reason", e.getReason().tag())
+                    .increment();
+            throw e;
+        } finally {
+            Timer.builder("booking.operation")
+                    .description("Latency of booking operations, by outcome")
+                    .tags("operation", operation, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        time(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public void cacheLookup(String cache, boolean hit) {
+        CacheCounters counters = caches.computeIfAbsent(cache, this::registerCache);
+        (hit ? counters.hits() : counters.misses()).increment();
+    }
+
+    private CacheCounters registerCache(String cache) {
+        CacheCounters counters = new CacheCounters(new LongAdder(), new LongAdder());
+        FunctionCounter.builder("booking.cache.requests", counters.hits(), LongAdder::sum)
+                .tags("cache", cache, "result", "hit").register(meterRegistry);
+        FunctionCounter.builder("booking.cache.requests", counters.misses(), LongAdder::sum)
+                .tags("cache", cache, "result", "miss").register(meterRegistry);
+        Gauge.builder("booking.cache.hit.ratio", counters, CacheCounters::hitRatio)
+                .tag("cache", cache).register(meterRegistry);
+        return counters;
+    }
+}
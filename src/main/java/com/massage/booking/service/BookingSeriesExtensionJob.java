@@ -0,0 +1,38 @@
+package com.massage.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Nightly roll-forward of recurring series. Kept apart from BookingSeriesService so each
+ * extend() call goes through the service's transactional proxy.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSeriesExtensionJob {
+
+    private final BookingSeriesService bookingSeriesService;
+    private final BookingLockService bookingLockService;
+
+    // Nightly: roll every active series forward into the booking window — one transaction per series
+    @Scheduled(cron = "${booking.series.extend-cron:0 15 2 * * *}")
+    public void extendSeries() {
+        List<Long> due = bookingSeriesService.findDueForExtension();
+        for (Long seriesId : due) {
+            try {
+                bookingLockService.withSlotLocks(bookingSeriesService.pendingOccurrences(seriesId), () -> {
+                    bookingSeriesService.extend(seriesId);
+                    return null;
+                });
+            } catch (Exception e) {
+                log.error("Failed to extend booking series {}: {}", seriesId, e.getMessage());
+            }
+        }
+        log.info("Booking series extension complete for {} series", due.size());
+    }
+}
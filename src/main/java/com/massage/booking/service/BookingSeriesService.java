@@ -0,0 +1,183 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.request.BookingRequest;
+import com.massage.booking.dto.request.BookingSeriesRequest;
+import com.massage.booking.dto.response.BatchBookingResponse;
+import com.massage.booking.dto.response.BookingSeriesResponse;
+import com.massage.booking.entity.Booking;
+import com.massage.booking.entity.BookingSeries;
+import com.massage.booking.entity.Client;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.ResourceNotFoundException;
+import com.massage.booking.repository.BookingRepository;
+import com.massage.booking.repository.BookingSeriesRepository;
+import com.massage.booking.repository.ClientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recurring appointments with lazy materialization.
+ * A series only ever has bookings (and time_slots occupancy) inside the rolling
+ * {@link BookingService#MAX_ADVANCE_DAYS}-day window; {@link #extend(Long)} is called
+ * nightly to push that window forward one day at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSeriesService {
+
+    private final BookingSeriesRepository seriesRepository;
+    private final BookingRepository bookingRepository;
+    private final ClientRepository clientRepository;
+    private final ReferenceDataService referenceDataService;
+    private final BookingService bookingService;
+    private final TimeSlotService timeSlotService;
+
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public BookingSeriesResponse create(BookingSeriesRequest request) {
+        log.info("Creating {} series for client {} starting {}",
+                request.getRecurrence(), request.getClientId(), request.getFirstStartTime());
+
+        if (request.getEndDate().isBefore(request.getFirstStartTime().toLocalDate())) {
+            throw new BusinessException("End date cannot be before the first appointment", HttpStatus.BAD_REQUEST);
+        }
+
+        Client client = clientRepository.findByIdWithUser(request.getClientId())
+                .orElseThrow(() -> new ResourceNotFoundException("Client", request.getClientId()));
+        referenceDataService.getService(request.getServiceId()); // must exist
+
+        BookingSeries series = seriesRepository.save(BookingSeries.create(
+                client.getId(),
+                request.getServiceId(),
+                request.getRecurrence(),
+                request.getFirstStartTime(),
+                request.getEndDate()
+        ));
+
+        BatchBookingResponse materialized = materialize(series, client, true);
+        return mapToResponse(series, materialized.getResults());
+    }
+
+    /**
+     * Start times {@link #create} will try to book — for the slot locks taken before its transaction.
+     */
+    public List<LocalDateTime> occurrencesOf(BookingSeriesRequest request) {
+        if (request.getEndDate().isBefore(request.getFirstStartTime().toLocalDate())) {
+            return List.of(); // create() rejects it
+        }
+        return BookingSeries.create(request.getClientId(), request.getServiceId(), request.getRecurrence(),
+                request.getFirstStartTime(), request.getEndDate()).pendingOccurrencesUntil(horizon());
+    }
+
+    /**
+     * Start times {@link #extend} will try to book — for the slot locks taken before its transaction.
+     */
+    @Transactional(readOnly = true)
+    public List<LocalDateTime> pendingOccurrences(Long id) {
+        return seriesRepository.findById(id)
+                .filter(BookingSeries::getActive)
+                .map(series -> series.pendingOccurrencesUntil(horizon()))
+                .orElse(List.of());
+    }
+
+    @Transactional(readOnly = true)
+    public BookingSeriesResponse getById(Long id) {
+        BookingSeries series = seriesRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking series", id));
+        return mapToResponse(series, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findDueForExtension() {
+        return seriesRepository.findIdsDueForExtension(horizon());
+    }
+
+    /**
+     * Materializes the occurrences that entered the booking window since the last run.
+     * Conflicting occurrences are skipped and logged — the series itself carries on.
+     */
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public void extend(Long id) {
+        BookingSeries series = seriesRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking series", id));
+        if (!series.getActive() || series.isFullyMaterialized()) {
+            return;
+        }
+        Client client = clientRepository.findByIdWithUser(series.getClientId())
+                .orElseThrow(() -> new ResourceNotFoundException("Client", series.getClientId()));
+
+        BatchBookingResponse result = materialize(series, client, false);
+        result.getResults().stream()
+                .filter(r -> !r.isCreated())
+                .forEach(r -> log.warn("Series {} occurrence {} skipped: {}", id, r.getStartTime(), r.getError()));
+    }
+
+    /**
+     * Ends the series and cancels its upcoming occurrences, releasing their slots.
+     */
+    @Transactional
+    public void end(Long id, String reason) {
+        BookingSeries series = seriesRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking series", id));
+        if (!series.getActive()) {
+            throw new BusinessException("Series already ended", HttpStatus.CONFLICT);
+        }
+        series.end();
+        seriesRepository.save(series);
+
+        String cancelReason = (reason == null || reason.isBlank()) ? "Recurring series ended" : reason;
+        List<Booking> upcoming = bookingRepository.findUpcomingBySeriesId(id, LocalDateTime.now());
+        for (Booking booking : upcoming) {
+            booking.adminCancel(cancelReason);
+            timeSlotService.releaseSlot(booking.getStartTime());
+        }
+        bookingRepository.saveAll(upcoming);
+        log.info("Series {} ended, {} upcoming occurrences canceled", id, upcoming.size());
+    }
+
+    private BatchBookingResponse materialize(BookingSeries series, Client client, boolean notify) {
+        LocalDate horizon = horizon();
+        List<BookingRequest> occurrences = series.pendingOccurrencesUntil(horizon).stream()
+                .map(startTime -> BookingRequest.builder()
+                        .serviceId(series.getServiceId())
+                        .startTime(startTime)
+                        .build())
+                .toList();
+
+        BatchBookingResponse result = occurrences.isEmpty()
+                ? BatchBookingResponse.builder().results(List.of()).build()
+                : bookingService.createSeriesOccurrences(client, series.getId(), occurrences, notify);
+
+        series.markMaterializedUntil(horizon);
+        seriesRepository.save(series);
+        log.info("Series {} materialized until {} ({} new occurrences)",
+                series.getId(), series.getMaterializedUntil(), result.getCreated());
+        return result;
+    }
+
+    private LocalDate horizon() {
+        return LocalDate.now().plusDays(BookingService.MAX_ADVANCE_DAYS);
+    }
+
+    private BookingSeriesResponse mapToResponse(BookingSeries series, List<BatchBookingResponse.ItemResult> occurrences) {
+        return BookingSeriesResponse.builder()
+                .id(series.getId())
+                .clientId(series.getClientId())
+                .serviceId(series.getServiceId())
+                .recurrence(series.getRecurrence())
+                .firstStartTime(series.getFirstStartTime())
+                .endDate(series.getEndDate())
+                .materializedUntil(series.getMaterializedUntil())
+                .active(series.getActive())
+                .occurrences(occurrences)
+                .build();
+    }
+}
@@ -1,20 +1,28 @@
 package com.massage.booking.service;
 
 import com.massage.booking.dto.request.BookingRequest;
+import com.massage.booking.dto.response.BatchBookingResponse;
 import com.massage.booking.dto.response.BookingResponse;
 import com.massage.booking.entity.Booking;
 import com.massage.booking.entity.Client;
+import com.massage.booking.entity.IdempotencyRecord;
 import com.massage.booking.entity.MassageService;
+import com.massage.booking.entity.TimeSlot;
 import com.massage.booking.entity.User;
 import com.massage.booking.entity.enums.BookingStatus;
+import com.massage.booking.event.ClientChangedEvent;
+import com.massage.booking.event.WaitlistOfferAcceptedEvent;
 import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.DuplicateResourceException;
+import com.massage.booking.exception.RejectionReason;
 import com.massage.booking.exception.ResourceNotFoundException;
 import com.massage.booking.repository.BookingRepository;
 import com.massage.booking.repository.ClientRepository;
-import com.massage.booking.repository.MassageServiceRepository;
+import com.massage.booking.repository.IdempotencyRecordRepository;
 import com.massage.booking.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,30 +33,81 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingService {
 
+    // Booking horizon — also the window recurring series are materialized into
+    public static final int MAX_ADVANCE_DAYS = 90;
+
     private final BookingRepository bookingRepository;
     private final ClientRepository clientRepository;
-    private final MassageServiceRepository serviceRepository;
     private final UserRepository userRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ReferenceDataService referenceDataService;
     private final TimeSlotService timeSlotService;
     private final EmailNotificationService emailNotificationService;
-
+    private final SlotHoldService slotHoldService;
+    private final ResourceAllocationService resourceAllocationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClientSearchIndex clientSearchIndex;
+
+    /**
+     * Booking pipeline — every lookup runs at most once:
+     * rule checks (no I/O) → cached reference data → user/client → one locked slot read
+     * → one conflict query → inserts. The slot row read in step 4 is the one updated in step 5.
+     */
     @Transactional(isolation = Isolation.SERIALIZABLE)
     public BookingResponse create(Long userId, BookingRequest request) {
+        return doCreate(userId, request, null);
+    }
+
+    /**
+     * Same pipeline, claiming an Idempotency-Key in the booking transaction: the key row is
+     * inserted before the booking, so a duplicate of the key fails with
+     * {@link DuplicateResourceException} and its transaction rolls back without booking.
+     */
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public BookingResponse create(Long userId, BookingRequest request, IdempotencyRecord claim) {
+        return doCreate(userId, request, claim);
+    }
+
+    private BookingResponse doCreate(Long userId, BookingRequest request, IdempotencyRecord claim) {
         log.info("Creating booking for userId: {}, service: {}, time: {}",
                 userId, request.getServiceId(), request.getStartTime());
 
-        // 1️⃣ Load User (must exist)
+        LocalDateTime startTime = request.getStartTime();
+
+        // 1️⃣ Validate booking rules first — rejected requests never touch the database
+        validateBookingRules(startTime);
+
+        // 2️⃣ Reference data from cache (service catalogue + business calendar)
+        MassageService service = referenceDataService.getService(request.getServiceId());
+
+        if (!timeSlotService.isWorkingDay(startTime.toLocalDate())) {
+            throw new BusinessException("We are closed on " + startTime.toLocalDate()
+                    + " (regular opening days are Thursday through Sunday)", HttpStatus.BAD_REQUEST,
+                    RejectionReason.CLOSED);
+        }
+
+        // 🔑 Claim the Idempotency-Key before anything is written — a concurrent duplicate stops here
+        if (claim != null) {
+            claimKey(claim);
+        }
+
+        // 3️⃣ Load User (must exist)
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", userId));
 
-        // 2️⃣ Find client by userId, or auto-create from user account
+        // Find client by userId, or auto-create from user account
         // ✅ FIX: use findByUserId() not findById() — controller passes USER id, not client id
         Client client = clientRepository.findByUserId(userId)
                 .orElseGet(() -> {
@@ -58,43 +117,61 @@ public class BookingService {
                     newClient.setName(user.getName());
                     newClient.setEmail(user.getEmail());
                     newClient.setPhone(user.getPhone());
-                    return clientRepository.save(newClient);
+                    Client saved = clientRepository.save(newClient);
+                    clientSearchIndex.index(saved);
+                    eventPublisher.publishEvent(new ClientChangedEvent(saved.getId()));
+                    return saved;
                 });
 
-        // 3️⃣ Load Service
-        MassageService service = serviceRepository.findById(request.getServiceId())
-                .orElseThrow(() -> new ResourceNotFoundException("Service", request.getServiceId()));
-
-        // 4️⃣ Validate booking rules
-        validateBookingRules(request.getStartTime());
-
-        if (!timeSlotService.isWorkingDay(request.getStartTime().toLocalDate())) {
-            throw new BusinessException("We are only open Thursday through Sunday", HttpStatus.BAD_REQUEST);
+        // 4️⃣ Slot row fetched once (locked) + overlapping bookings checked once
+        // A held half-hour (checkout or waitlist offer) can only be booked by its holder — in-memory check first
+        LocalDateTime endTime = startTime.plusMinutes(service.getTotalMinutes());
+        Optional<SlotHoldService.Hold> hold = slotHoldService.checkHold(startTime, endTime, userId);
+        TimeSlot slot = timeSlotService.claimSlot(startTime, endTime, userId);
+
+        List<Booking> overlapping = bookingRepository.findConflictingBookings(startTime, endTime);
+        ResourceAllocationService.Assignment assignment = null;
+        if (resourceAllocationService.isEnabled()) {
+            // Any free therapist and room will do — the overlapping bookings keep theirs
+            assignment = resourceAllocationService.assign(startTime, endTime, overlapping);
+        } else if (!overlapping.isEmpty()) {
+            throw new BusinessException("Time slot already booked", HttpStatus.CONFLICT, RejectionReason.SLOT_BOOKED);
         }
 
-        LocalDateTime endTime = request.getStartTime().plusMinutes(service.getTotalMinutes());
-        checkAvailability(request.getStartTime(), endTime);
-
-        // 5️⃣ Create Booking
+        // 5️⃣ Create Booking and mark the already-loaded slot as booked
         Booking booking = Booking.create(
                 client.getId(),
                 service.getId(),
-                request.getStartTime(),
+                startTime,
                 service.getTotalMinutes(),
                 request.getGuestName(),
                 request.getGuestPhone()
         );
+        if (assignment != null) {
+            booking.assignResources(assignment.therapistId(), assignment.roomId());
+        }
 
         Booking saved;
         try {
             saved = bookingRepository.save(booking);
-            timeSlotService.bookSlot(request.getStartTime());
+            timeSlotService.markBooked(slot);
+            if (claim != null) {
+                claim.setBookingId(saved.getId());
+            }
         } catch (DataIntegrityViolationException e) {
             throw new BusinessException(
                     "Time slot was just booked by another user. Please select a different time.",
-                    HttpStatus.CONFLICT
+                    HttpStatus.CONFLICT,
+                    RejectionReason.CONCURRENT_BOOKING
             );
         }
+        if (hold.isPresent()) {
+            slotHoldService.consume(startTime, hold.get());
+            if (hold.get().waitlistEntryId() != null) {
+                eventPublisher.publishEvent(
+                        new WaitlistOfferAcceptedEvent(hold.get().waitlistEntryId(), startTime, saved.getId()));
+            }
+        }
 
         // 6️⃣ Send confirmation email — never rolls back the booking if it fails
         try {
@@ -102,7 +179,7 @@ public class BookingService {
                     user.getEmailAddress(),
                     user.getName(),
                     service.getName(),
-                    request.getStartTime()
+                    startTime
             );
         } catch (Exception e) {
             log.error("Failed to send confirmation email for booking {}: {}", saved.getId(), e.getMessage());
@@ -113,31 +190,175 @@ public class BookingService {
         return mapToResponse(saved, client, service);
     }
 
+    private void claimKey(IdempotencyRecord claim) {
+        try {
+            idempotencyRecordRepository.saveAndFlush(claim);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateResourceException("Idempotency-Key " + claim.getIdempotencyKey() + " was already used",
+                    RejectionReason.DUPLICATE_REQUEST);
+        }
+    }
+
+    /**
+     * Admin batch booking (e.g. a weekly series for a regular client) in one transaction.
+     * Items are validated against an in-memory view of existing bookings plus the items
+     * accepted so far; the affected slot rows are locked once, in sorted order; accepted
+     * bookings are written with a single saveAll and the client gets one summary email.
+     * Rejected items are reported by index instead of failing the whole batch.
+     */
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public BatchBookingResponse createBatch(Long clientId, List<BookingRequest> requests) {
+        log.info("Creating batch of {} bookings for clientId: {}", requests.size(), clientId);
+
+        Client client = clientRepository.findByIdWithUser(clientId)
+                .orElseThrow(() -> new ResourceNotFoundException("Client", clientId));
+
+        return bookAll(client, requests, null, true);
+    }
+
+    /**
+     * Materializes occurrences of a recurring series through the same batch path.
+     * Occurrences that conflict are skipped (reported as rejected), the rest are tagged with the series id.
+     */
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public BatchBookingResponse createSeriesOccurrences(Client client, Long seriesId,
+                                                        List<BookingRequest> requests, boolean notify) {
+        log.info("Materializing {} occurrences of series {}", requests.size(), seriesId);
+        return bookAll(client, requests, seriesId, notify);
+    }
+
+    private BatchBookingResponse bookAll(Client client, List<BookingRequest> requests, Long seriesId, boolean notify) {
+        BatchBookingResponse.ItemResult[] results = new BatchBookingResponse.ItemResult[requests.size()];
+
+        // 1️⃣ Rule checks + cached reference data — invalid items never reach the locking step
+        List<BatchItem> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            try {
+                candidates.add(new BatchItem(i, request, validateBatchItem(request)));
+            } catch (BusinessException e) {
+                results[i] = rejected(i, request.getStartTime(), e.getMessage());
+            }
+        }
+
+        List<BatchItem> acceptedItems = new ArrayList<>();
+        List<Booking> acceptedBookings = new ArrayList<>();
+
+        if (!candidates.isEmpty()) {
+            // 2️⃣ Lock every affected slot row with one query, in ascending slot order
+            Map<LocalDateTime, TimeSlot> slots = timeSlotService.lockSlots(
+                    candidates.stream().map(BatchItem::startTime).toList());
+
+            // 3️⃣ In-memory occupancy: bookings across the whole batch window, plus accepted items
+            LocalDateTime windowStart = candidates.stream().map(BatchItem::startTime)
+                    .min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime windowEnd = candidates.stream().map(BatchItem::endTime)
+                    .max(Comparator.naturalOrder()).orElseThrow();
+            List<Booking> occupied = new ArrayList<>(bookingRepository.findConflictingBookings(windowStart, windowEnd));
+            boolean withResources = resourceAllocationService.isEnabled();
+            LocalDateTime now = LocalDateTime.now();
+
+            for (BatchItem item : candidates) {
+                TimeSlot slot = slots.get(item.startTime());
+                if (slot != null && (!slot.getIsAvailable() || slot.getIsBlocked())) {
+                    results[item.index()] = rejected(item.index(), item.startTime(), "Selected time slot is not available");
+                } else if ((slot != null && slot.isHeldByOther(client.getUserId(), now))
+                        || slotHoldService.isHeldByOther(item.startTime(), item.endTime(), client.getUserId())) {
+                    results[item.index()] = rejected(item.index(), item.startTime(), "Selected time slot is on hold for another client");
+                } else if (!withResources && overlapsAny(occupied, item.startTime(), item.endTime())) {
+                    results[item.index()] = rejected(item.index(), item.startTime(), "Time slot already booked");
+                } else {
+                    Optional<ResourceAllocationService.Assignment> assignment = withResources
+                            ? resourceAllocationService.tryAssign(item.startTime(), item.endTime(), occupied)
+                            : Optional.empty();
+                    if (withResources && assignment.isEmpty()) {
+                        results[item.index()] = rejected(item.index(), item.startTime(), "No therapist or room is free at this time");
+                        continue;
+                    }
+                    Booking booking = Booking.create(
+                            client.getId(),
+                            item.service().getId(),
+                            item.startTime(),
+                            item.service().getTotalMinutes(),
+                            item.request().getGuestName(),
+                            item.request().getGuestPhone()
+                    );
+                    booking.setSeriesId(seriesId);
+                    assignment.ifPresent(a -> booking.assignResources(a.therapistId(), a.roomId()));
+                    occupied.add(booking);
+                    acceptedItems.add(item);
+                    acceptedBookings.add(booking);
+                }
+            }
+
+            // 4️⃣ Write accepted bookings and their slot flags in one go
+            if (!acceptedBookings.isEmpty()) {
+                try {
+                    bookingRepository.saveAll(acceptedBookings);
+                    timeSlotService.markAllBooked(acceptedItems.stream().map(BatchItem::startTime).toList(), slots);
+                } catch (DataIntegrityViolationException e) {
+                    throw new BusinessException(
+                            "A time slot in this batch was just booked by another user. Please retry the batch.",
+                            HttpStatus.CONFLICT,
+                            RejectionReason.CONCURRENT_BOOKING
+                    );
+                }
+                for (int i = 0; i < acceptedItems.size(); i++) {
+                    BatchItem item = acceptedItems.get(i);
+                    results[item.index()] = BatchBookingResponse.ItemResult.builder()
+                            .index(item.index())
+                            .startTime(item.startTime())
+                            .created(true)
+                            .booking(mapToResponse(acceptedBookings.get(i), client, item.service()))
+                            .build();
+                }
+            }
+        }
+
+        // 5️⃣ One summary email for the whole batch — never rolls back the bookings
+        if (notify && !acceptedItems.isEmpty()) {
+            sendBatchSummary(client, acceptedItems);
+        }
+
+        log.info("Batch for clientId {} done: {} created, {} rejected",
+                client.getId(), acceptedItems.size(), requests.size() - acceptedItems.size());
+
+        return BatchBookingResponse.builder()
+                .requested(requests.size())
+                .created(acceptedItems.size())
+                .rejected(requests.size() - acceptedItems.size())
+                .results(List.of(results))
+                .build();
+    }
+
+    /**
+     * One fetch-joined read (booking + client + owning user + service), then the booking
+     * update and an in-place slot release — no separate owner/service/slot lookups.
+     */
     @Transactional
     public void cancel(Long id, Long userId, boolean isAdmin, String reason) {
         log.info("Canceling booking: {}, admin: {}", id, isAdmin);
 
-        Booking booking = bookingRepository.findById(id)
+        Booking booking = bookingRepository.findByIdWithOwner(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", id));
 
-        Client callerClient = clientRepository.findByUserId(userId).orElse(null);
-        Long callerClientId = (callerClient != null) ? callerClient.getId() : userId;
+        Client ownerClient = booking.getClient();
+        boolean isOwner = ownerClient != null && userId.equals(ownerClient.getUserId());
 
-        if (!isAdmin && !booking.getClientId().equals(callerClientId)) {
-            throw new BusinessException("Cannot cancel other client's booking", HttpStatus.FORBIDDEN);
+        if (!isAdmin && !isOwner) {
+            throw new BusinessException("Cannot cancel other client's booking", HttpStatus.FORBIDDEN,
+                    RejectionReason.NOT_OWNER);
         }
 
-        MassageService service = serviceRepository.findById(booking.getServiceId()).orElse(null);
-        Client ownerClient = clientRepository.findById(booking.getClientId()).orElse(null);
-        User ownerUser = (ownerClient != null && ownerClient.getUserId() != null)
-                ? userRepository.findById(ownerClient.getUserId()).orElse(null)
-                : null;
+        MassageService service = booking.getService();
+        User ownerUser = ownerClient != null ? ownerClient.getUser() : null;
 
         if (isAdmin) {
             booking.adminCancel(reason);
         } else {
             if (!booking.canBeCanceled()) {
-                throw new BusinessException("Cannot cancel within 12 hours of appointment", HttpStatus.CONFLICT);
+                throw new BusinessException("Cannot cancel within 12 hours of appointment", HttpStatus.CONFLICT,
+                        RejectionReason.CANCEL_TOO_LATE);
             }
             booking.cancel(null);
         }
@@ -207,23 +428,59 @@ public class BookingService {
         return bookings.map(this::mapToResponseFromJoin);
     }
 
-    private void checkAvailability(LocalDateTime startTime, LocalDateTime endTime) {
-        if (!timeSlotService.isTimeSlotAvailable(startTime)) {
-            throw new BusinessException("Selected time slot is not available", HttpStatus.CONFLICT);
+    private MassageService validateBatchItem(BookingRequest request) {
+        LocalDateTime startTime = request.getStartTime();
+        validateBookingRules(startTime);
+        MassageService service = referenceDataService.getService(request.getServiceId());
+        if (!timeSlotService.isWorkingDay(startTime.toLocalDate())) {
+            throw new BusinessException("We are closed on " + startTime.toLocalDate()
+                    + " (regular opening days are Thursday through Sunday)", HttpStatus.BAD_REQUEST,
+                    RejectionReason.CLOSED);
         }
-        List<Booking> conflicts = bookingRepository.findConflictingBookings(startTime, endTime);
-        if (!conflicts.isEmpty()) {
-            throw new BusinessException("Time slot already booked", HttpStatus.CONFLICT);
+        if (!timeSlotService.isWithinOpeningHours(startTime)) {
+            throw new BusinessException("Selected time slot is not available", HttpStatus.CONFLICT,
+                    RejectionReason.NOT_AVAILABLE);
+        }
+        return service;
+    }
+
+    private boolean overlapsAny(List<Booking> occupied, LocalDateTime startTime, LocalDateTime endTime) {
+        return occupied.stream().anyMatch(b -> b.getStartTime().isBefore(endTime) && b.getEndTime().isAfter(startTime));
+    }
+
+    private BatchBookingResponse.ItemResult rejected(int index, LocalDateTime startTime, String error) {
+        return BatchBookingResponse.ItemResult.builder()
+                .index(index)
+                .startTime(startTime)
+                .created(false)
+                .error(error)
+                .build();
+    }
+
+    private void sendBatchSummary(Client client, List<BatchItem> items) {
+        String to = client.getUser() != null ? client.getUser().getEmailAddress() : client.getEmailAddress();
+        if (to == null) {
+            log.warn("Client {} has no email address - skipping batch summary", client.getId());
+            return;
+        }
+        Map<LocalDateTime, String> appointments = new TreeMap<>();
+        items.forEach(item -> appointments.put(item.startTime(), item.service().getName()));
+        try {
+            emailNotificationService.sendBookingSummary(to, client.getName(), appointments);
+        } catch (Exception e) {
+            log.error("Failed to send batch summary email for client {}: {}", client.getId(), e.getMessage());
         }
     }
 
     private void validateBookingRules(LocalDateTime startTime) {
         Duration until = Duration.between(LocalDateTime.now(), startTime);
         if (until.toHours() < 2) {
-            throw new BusinessException("Must book at least 2 hours in advance", HttpStatus.BAD_REQUEST);
+            throw new BusinessException("Must book at least 2 hours in advance", HttpStatus.BAD_REQUEST,
+                    RejectionReason.TOO_SOON);
         }
-        if (until.toDays() > 90) {
-            throw new BusinessException("Cannot book more than 3 months in advance", HttpStatus.BAD_REQUEST);
+        if (until.toDays() > MAX_ADVANCE_DAYS) {
+            throw new BusinessException("Cannot book more than 3 months in advance", HttpStatus.BAD_REQUEST,
+                    RejectionReason.TOO_FAR);
         }
     }
 
@@ -246,6 +503,9 @@ public class BookingService {
                 .guestName(booking.getGuestName())
                 .guestPhone(booking.getGuestPhone())
                 .canceledReason(booking.getCanceledReason())
+                .seriesId(booking.getSeriesId())
+                .therapistId(booking.getTherapistId())
+                .roomId(booking.getRoomId())
                 .canCancel(booking.canBeCanceled())
                 .createdAt(booking.getCreatedAt())
                 .build();
@@ -254,4 +514,14 @@ public class BookingService {
     private BookingResponse mapToResponseFromJoin(Booking booking) {
         return mapToResponse(booking, booking.getClient(), booking.getService());
     }
+
+    private record BatchItem(int index, BookingRequest request, MassageService service) {
+        LocalDateTime startTime() {
+            return request.getStartTime();
+        }
+
+        LocalDateTime endTime() {
+            return request.getStartTime().plusMinutes(service.getTotalMinutes());
+        }
+    }
 }
\ No newline at end of file
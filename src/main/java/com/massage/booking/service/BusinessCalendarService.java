@@ -0,0 +1,192 @@
+package com.massage.booking.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.massage.booking.entity.ScheduleException;
+import com.massage.booking.entity.WorkingDay;
+import com.massage.booking.entity.enums.CacheRegion;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.ScheduleChangedEvent;
+import com.massage.booking.repository.ScheduleExceptionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Opening hours per calendar date: the weekly rule (working_days) merged with the
+ * date's schedule exception, if any. Each date is resolved once into a {@link DaySchedule}
+ * bitmask over the 30-minute grid and cached, so "is this day / this slot open" is a map
+ * lookup plus a bit test.
+ *
+ * Entries are dropped after commit when an exception of that date changes, and expire
+ * together with the cached weekly rules.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BusinessCalendarService {
+
+    public static final int SLOT_MINUTES = 30;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    // Hours of an extra opening on a normally closed weekday when the exception gives none
+    // FIX #5: align with DB schema (database-schema.sql sets open_time = 10:00)
+    private static final LocalTime DEFAULT_OPEN_TIME = LocalTime.of(10, 0);
+    private static final LocalTime DEFAULT_CLOSE_TIME = LocalTime.of(20, 0);
+
+    private final ReferenceDataService referenceDataService;
+    private final ScheduleExceptionRepository scheduleExceptionRepository;
+
+    @Value("${booking.calendar.max-days:800}")
+    private long maxDays;
+
+    private LoadingCache<LocalDate, DaySchedule> days;
+
+    @PostConstruct
+    void initCache() {
+        days = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .expireAfterWrite(Duration.ofHours(1))
+                .build(new CacheLoader<LocalDate, DaySchedule>() {
+                    @Override
+                    public DaySchedule load(LocalDate date) {
+                        return resolve(date, scheduleExceptionRepository.findByExceptionDate(date).orElse(null));
+                    }
+
+                    @Override
+                    public Map<LocalDate, DaySchedule> loadAll(Set<? extends LocalDate> dates) {
+                        return loadSpan(dates);
+                    }
+                });
+    }
+
+    public DaySchedule day(LocalDate date) {
+        return days.get(date);
+    }
+
+    /**
+     * Resolves a whole span with at most one exception query for the dates not cached yet.
+     */
+    public Map<LocalDate, DaySchedule> days(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return days.getAll(dates);
+    }
+
+    public boolean isOpen(LocalDate date) {
+        return day(date).isOpen();
+    }
+
+    public boolean isOpenAt(LocalDateTime dateTime) {
+        return day(dateTime.toLocalDate()).isOpenAt(dateTime.toLocalTime());
+    }
+
+    /**
+     * Pure merge of the weekly rule and an (optional) exception — also used to preview
+     * a schedule before the exception is committed.
+     */
+    public DaySchedule resolve(LocalDate date, ScheduleException exception) {
+        WorkingDay weekly = referenceDataService.getWeeklyHours().get(date.getDayOfWeek().getValue());
+        if (exception == null) {
+            return weekly != null ? DaySchedule.of(weekly.getOpenTime(), weekly.getCloseTime()) : DaySchedule.CLOSED;
+        }
+        if (!exception.getIsAvailable()) {
+            return DaySchedule.CLOSED;
+        }
+        if (exception.hasCustomHours()) {
+            return DaySchedule.of(exception.getOpenTime(), exception.getCloseTime());
+        }
+        return weekly != null
+                ? DaySchedule.of(weekly.getOpenTime(), weekly.getCloseTime())
+                : DaySchedule.of(DEFAULT_OPEN_TIME, DEFAULT_CLOSE_TIME);
+    }
+
+    // Runs before the availability cache and ETag listeners so their rebuild sees the new hours
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        days.invalidate(event.date());
+        log.debug("Calendar entry for {} invalidated", event.date());
+    }
+
+    // Same ordering for exceptions changed on another node
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.region() == CacheRegion.SCHEDULE) {
+            days.invalidate(LocalDate.parse(event.key()));
+        }
+    }
+
+    private Map<LocalDate, DaySchedule> loadSpan(Set<? extends LocalDate> dates) {
+        LocalDate min = dates.stream().min(LocalDate::compareTo).orElseThrow();
+        LocalDate max = dates.stream().max(LocalDate::compareTo).orElseThrow();
+        Map<LocalDate, ScheduleException> exceptions = scheduleExceptionRepository
+                .findByExceptionDateBetweenOrderByExceptionDateAsc(min, max).stream()
+                .collect(Collectors.toMap(ScheduleException::getExceptionDate, e -> e));
+        Map<LocalDate, DaySchedule> loaded = new HashMap<>();
+        for (LocalDate date : dates) {
+            loaded.put(date, resolve(date, exceptions.get(date)));
+        }
+        return loaded;
+    }
+
+    /**
+     * Open half-hours of one day: bit i set = the slot starting at i × 30 minutes is open.
+     * A day has 48 slots, so the whole interval set fits in one long.
+     */
+    public record DaySchedule(long openMask) {
+
+        public static final DaySchedule CLOSED = new DaySchedule(0L);
+
+        // [open, close) — an unaligned open rounds up, an unaligned close rounds down
+        static DaySchedule of(LocalTime open, LocalTime close) {
+            int from = (open.toSecondOfDay() / 60 + SLOT_MINUTES - 1) / SLOT_MINUTES;
+            int to = Math.min(close.toSecondOfDay() / 60 / SLOT_MINUTES, SLOTS_PER_DAY);
+            if (from >= to) {
+                return CLOSED;
+            }
+            return new DaySchedule(((1L << to) - 1) & ~((1L << from) - 1));
+        }
+
+        public boolean isOpen() {
+            return openMask != 0;
+        }
+
+        public boolean isOpenAt(LocalTime time) {
+            return (openMask >>> (time.toSecondOfDay() / 60 / SLOT_MINUTES) & 1L) != 0;
+        }
+
+        public List<LocalTime> slotStarts() {
+            List<LocalTime> starts = new ArrayList<>(Long.bitCount(openMask));
+            long remaining = openMask;
+            while (remaining != 0) {
+                int index = Long.numberOfTrailingZeros(remaining);
+                starts.add(LocalTime.ofSecondOfDay((long) index * SLOT_MINUTES * 60));
+                remaining &= remaining - 1;
+            }
+            return starts;
+        }
+    }
+}
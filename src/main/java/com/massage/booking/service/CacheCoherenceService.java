@@ -0,0 +1,211 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.CacheInvalidation;
+import com.massage.booking.entity.enums.CacheRegion;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.CatalogChangedEvent;
+import com.massage.booking.event.ClientChangedEvent;
+import com.massage.booking.event.ResourcesChangedEvent;
+import com.massage.booking.event.ScheduleChangedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
+import com.massage.booking.event.UserChangedEvent;
+import com.massage.booking.repository.CacheInvalidationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Keeps the per-node Caffeine caches coherent when several instances run against one database.
+ *
+ * Every mutation that one of those caches depends on is appended to cache_invalidations
+ * inside its own transaction (one row per region and key, however many events the
+ * transaction raised), so the log holds exactly the committed changes. Each node tails the
+ * log by id and republishes other nodes' rows as a local {@link CacheInvalidatedEvent};
+ * its own rows are skipped, the domain events already evicted locally after commit.
+ *
+ * IDENTITY ids are handed out at insert but become visible at commit, so a lower id can
+ * appear after a higher one. Ids skipped over are remembered as gaps and re-read until they
+ * show up or time out (a rolled-back insert leaves a permanent gap).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheCoherenceService {
+
+    private static final int POLL_BATCH = 500;
+    private static final int MAX_TRACKED_GAPS = 1000;
+    private static final String ALL_KEYS = "*";
+
+    private final CacheInvalidationRepository invalidationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${booking.cache-coherence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.cache-coherence.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    @Value("${booking.cache-coherence.retention-hours:24}")
+    private long retentionHours;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Poll state — only touched under the instance lock
+    private long highestSeen = -1;
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+
+    private record Entry(CacheRegion region, String key) {
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @EventListener
+    public void onSlotStateChanged(SlotStateChangedEvent event) {
+        record(CacheRegion.AVAILABILITY, event.slotDateTime().toLocalDate().toString());
+    }
+
+    @EventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        record(CacheRegion.SCHEDULE, event.date().toString());
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        record(CacheRegion.CATALOG, String.valueOf(event.serviceId()));
+    }
+
+    @EventListener
+    public void onResourcesChanged(ResourcesChangedEvent event) {
+        record(CacheRegion.RESOURCES, ALL_KEYS);
+    }
+
+    @EventListener
+    public void onClientChanged(ClientChangedEvent event) {
+        record(CacheRegion.CLIENT, String.valueOf(event.clientId()));
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        record(CacheRegion.PRINCIPAL, String.valueOf(event.userId()));
+    }
+
+    @Scheduled(fixedDelayString = "${booking.cache-coherence.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            poll(System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            // Next tick resumes from the same position
+            log.warn("Cache invalidation poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 1️⃣ first poll starts at the current end of the log — a fresh node has nothing cached,
+     * 2️⃣ read from the oldest open gap, 3️⃣ publish rows not seen before, 4️⃣ expire old gaps.
+     *
+     * @return number of remote invalidations applied
+     */
+    synchronized int poll(long nowMillis) {
+        if (highestSeen < 0) {
+            highestSeen = invalidationRepository.findMaxId();
+            log.info("Cache coherence node {} tailing invalidations after id {}", nodeId, highestSeen);
+            return 0;
+        }
+
+        long after = gaps.isEmpty() ? highestSeen : gaps.firstKey() - 1;
+        List<CacheInvalidation> rows = invalidationRepository.findAfter(after, PageRequest.of(0, POLL_BATCH));
+
+        int applied = 0;
+        for (CacheInvalidation row : rows) {
+            long id = row.getId();
+            if (id > highestSeen) {
+                for (long missing = Math.max(highestSeen + 1, id - MAX_TRACKED_GAPS); missing < id; missing++) {
+                    gaps.put(missing, nowMillis);
+                }
+                highestSeen = id;
+            } else if (gaps.remove(id) == null) {
+                continue;   // already applied on an earlier poll
+            }
+            if (!nodeId.equals(row.getOriginNode())) {
+                eventPublisher.publishEvent(new CacheInvalidatedEvent(row.getRegion(), row.getCacheKey()));
+                applied++;
+            }
+        }
+
+        gaps.values().removeIf(since -> nowMillis - since > gapTimeoutMs);
+        if (applied > 0) {
+            log.debug("Applied {} cache invalidation(s) from other nodes", applied);
+        }
+        return applied;
+    }
+
+    @Scheduled(cron = "${booking.cache-coherence.cleanup-cron:0 45 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = invalidationRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} cache invalidation rows", deleted);
+        }
+    }
+
+    // Rows are written in the mutating transaction, so a rollback leaves no invalidation behind
+    private void record(CacheRegion region, String key) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(region, key);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            invalidationRepository.save(toRow(entry));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Entry> pending = (Set<Entry>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Entry> batch = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    invalidationRepository.saveAll(batch.stream().map(CacheCoherenceService.this::toRow).toList());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheCoherenceService.this);
+                }
+            });
+            pending = batch;
+        }
+        pending.add(entry);
+    }
+
+    private CacheInvalidation toRow(Entry entry) {
+        return CacheInvalidation.builder()
+                .region(entry.region())
+                .cacheKey(entry.key())
+                .originNode(nodeId)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.Client;
+import com.massage.booking.entity.ClientSearchGram;
+import com.massage.booking.repository.ClientRepository;
+import com.massage.booking.repository.ClientSearchGramRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Index-backed client search for the admin client list.
+ *
+ * Names are folded to lowercase ASCII-ish text (accents stripped, punctuation as spaces) into
+ * clients.search_name, and every trigram of that text goes to client_search_grams. A substring
+ * query becomes "clients having all of the query's trigrams" — an index lookup per trigram —
+ * and the LIKE on search_name only re-checks those few candidates. Queries shorter than a
+ * trigram use the search_name index as a prefix match.
+ *
+ * Phone queries (digits only) match the number's prefix on the phone index or its suffix
+ * on clients.phone_reversed, so "last four digits" lookups are index range scans too.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientSearchIndex {
+
+    static final int GRAM_LENGTH = 3;
+    private static final int BACKFILL_BATCH = 500;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern PHONE_QUERY = Pattern.compile("^\\+?[0-9\\s()\\-]+$");
+
+    private final ClientRepository clientRepository;
+    private final ClientSearchGramRepository gramRepository;
+
+    /**
+     * Refreshes the search columns and trigrams of a saved client — call inside the
+     * transaction that saved it.
+     */
+    public void index(Client client) {
+        String searchName = normalize(client.getName());
+        client.setSearchName(searchName);
+        client.setPhoneReversed(reverse(digits(client.getPhoneNumber())));
+
+        gramRepository.deleteByClientId(client.getId());
+        gramRepository.saveAll(trigrams(searchName).stream()
+                .map(gram -> new ClientSearchGram(null, client.getId(), gram))
+                .toList());
+    }
+
+    public Page<Client> search(String query, Boolean active, Pageable pageable) {
+        if (isPhoneQuery(query)) {
+            String digits = digits(query);
+            return clientRepository.searchByPhone(digits, reverse(digits), active, pageable);
+        }
+
+        String term = normalize(query);
+        if (term.length() < GRAM_LENGTH) {
+            return clientRepository.searchByNamePrefix(term, active, pageable);
+        }
+        Set<String> grams = trigrams(term);
+        return clientRepository.searchByName(term, grams, grams.size(), active, pageable);
+    }
+
+    // Clients created before search columns existed — indexed once, then this finds nothing
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int indexed = 0;
+        List<Client> batch;
+        // Each query auto-flushes the previous batch, so indexed rows drop out of the result
+        while (!(batch = clientRepository.findBySearchNameIsNull(PageRequest.of(0, BACKFILL_BATCH))).isEmpty()) {
+            batch.forEach(this::index);
+            indexed += batch.size();
+        }
+        if (indexed > 0) {
+            log.info("Client search index built for {} existing clients", indexed);
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    static boolean isPhoneQuery(String query) {
+        return PHONE_QUERY.matcher(query.trim()).matches();
+    }
+
+    static String digits(String phone) {
+        return phone == null ? "" : phone.replaceAll("\\D", "");
+    }
+
+    private static String reverse(String digits) {
+        return new StringBuilder(digits).reverse().toString();
+    }
+}
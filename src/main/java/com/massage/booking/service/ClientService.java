@@ -2,24 +2,34 @@ package com.massage.booking.service;
 
 import com.massage.booking.dto.request.ClientRequest;
 import com.massage.booking.dto.response.ClientResponse;
+import com.massage.booking.dto.response.ClientSuggestionResponse;
 import com.massage.booking.entity.Client;
 import com.massage.booking.entity.valueobject.Phone;
+import com.massage.booking.event.ClientChangedEvent;
 import com.massage.booking.exception.DuplicateResourceException;
 import com.massage.booking.exception.ResourceNotFoundException;
 import com.massage.booking.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ClientService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final ClientRepository clientRepository;
+    private final ClientSearchIndex clientSearchIndex;
+    private final ClientTypeaheadIndex clientTypeaheadIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ClientResponse create(ClientRequest request) {
@@ -41,6 +51,8 @@ public class ClientService {
         );
 
         Client saved = clientRepository.save(client);
+        clientSearchIndex.index(saved);
+        eventPublisher.publishEvent(new ClientChangedEvent(saved.getId()));
         log.info("Client created with id: {}", saved.getId());
         return mapToResponse(saved);
     }
@@ -60,10 +72,8 @@ public class ClientService {
 
         Page<Client> clients;
 
-        if (search != null && !search.isBlank() && active != null) {
-            clients = clientRepository.searchClients(search, active, pageable);
-        } else if (search != null && !search.isBlank()) {
-            clients = clientRepository.searchClients(search, null, pageable);
+        if (search != null && !search.isBlank()) {
+            clients = clientSearchIndex.search(search, active, pageable);
         } else if (Boolean.TRUE.equals(active)) {
             clients = clientRepository.findByActiveTrue(pageable);
         } else {
@@ -73,6 +83,16 @@ public class ClientService {
         return clients.map(this::mapToResponse);
     }
 
+    /**
+     * Typeahead for the booking UI — served from memory, no query.
+     */
+    public List<ClientSuggestionResponse> suggest(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return clientTypeaheadIndex.suggest(query, Math.clamp(limit, 1, MAX_SUGGESTIONS));
+    }
+
     @Transactional
     public ClientResponse update(Long id, ClientRequest request) {
         log.info("Updating client id: {}", id);
@@ -88,6 +108,8 @@ public class ClientService {
         );
 
         Client updated = clientRepository.save(client);
+        clientSearchIndex.index(updated);
+        eventPublisher.publishEvent(new ClientChangedEvent(id));
         log.info("Client updated: {}", id);
         return mapToResponse(updated);
     }
@@ -101,6 +123,7 @@ public class ClientService {
 
         client.deactivate();
         clientRepository.save(client);
+        eventPublisher.publishEvent(new ClientChangedEvent(id));
         log.info("Client deactivated: {}", id);
     }
 
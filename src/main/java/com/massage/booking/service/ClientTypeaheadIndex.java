@@ -0,0 +1,214 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.response.ClientSuggestionResponse;
+import com.massage.booking.entity.Client;
+import com.massage.booking.entity.enums.CacheRegion;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.ClientChangedEvent;
+import com.massage.booking.repository.ClientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Type-as-you-go client lookup for the admin booking UI, answered from memory.
+ *
+ * Every active client contributes a few normalized keys — the name from each word on
+ * ("maria nu" finds "José María Núñez"), the email, the phone digits with and without the
+ * country code — to one sorted String[] with a parallel long[] of client ids. A suggestion is
+ * a binary search for the first key ≥ the prefix plus a short forward scan.
+ *
+ * The arrays are an immutable snapshot swapped on write: readers never lock, and a client
+ * change merges its keys into a new snapshot after commit (linear in the index size).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientTypeaheadIndex {
+
+    private static final int LOAD_BATCH = 1000;
+    private static final int NATIONAL_DIGITS = 9;
+
+    private final ClientRepository clientRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private record Snapshot(String[] keys, long[] owners, Map<Long, ClientSuggestionResponse> clients) {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new long[0], Map.of());
+    }
+
+    private record Key(String key, long owner) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    public List<ClientSuggestionResponse> suggest(String query, int limit) {
+        Snapshot current = snapshot;
+        String prefix = ClientSearchIndex.isPhoneQuery(query)
+                ? ClientSearchIndex.digits(query)
+                : ClientSearchIndex.normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> matches = new LinkedHashSet<>();
+        for (int i = lowerBound(current.keys(), prefix);
+             i < current.keys().length && matches.size() < limit && current.keys()[i].startsWith(prefix); i++) {
+            matches.add(current.owners()[i]);
+        }
+        return matches.stream().map(current.clients()::get).toList();
+    }
+
+    public int size() {
+        return snapshot.clients().size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        Map<Long, ClientSuggestionResponse> clients = new HashMap<>();
+        Page<Client> page = clientRepository.findByActiveTrue(PageRequest.of(0, LOAD_BATCH, Sort.by("id")));
+        while (true) {
+            page.forEach(client -> clients.put(client.getId(), toSuggestion(client)));
+            if (!page.hasNext()) {
+                break;
+            }
+            page = clientRepository.findByActiveTrue(page.nextPageable());
+        }
+
+        List<Key> keys = new ArrayList<>();
+        clients.values().forEach(client -> keys.addAll(keysOf(client)));
+        keys.sort(null);
+        synchronized (this) {
+            snapshot = toSnapshot(keys, clients);
+        }
+        log.info("Client typeahead index built: {} clients, {} keys", clients.size(), keys.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onClientChanged(ClientChangedEvent event) {
+        refresh(event.clientId());
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.region() == CacheRegion.CLIENT) {
+            refresh(Long.valueOf(event.key()));
+        }
+    }
+
+    // Reads the committed row — the same path for local and remote changes
+    private void refresh(Long clientId) {
+        ClientSuggestionResponse suggestion = clientRepository.findById(clientId)
+                .filter(Client::getActive)
+                .map(this::toSuggestion)
+                .orElse(null);
+        replace(clientId, suggestion);
+    }
+
+    /**
+     * Drops the client's old keys and merges in the new ones (none when removed) in one pass.
+     */
+    synchronized void replace(long clientId, ClientSuggestionResponse suggestion) {
+        Snapshot current = snapshot;
+        List<Key> added = suggestion != null ? keysOf(suggestion) : new ArrayList<>();
+        added.sort(null);
+
+        int size = current.keys().length + added.size();
+        List<Key> merged = new ArrayList<>(size);
+        int a = 0;
+        for (int i = 0; i < current.keys().length; i++) {
+            if (current.owners()[i] == clientId) {
+                continue;
+            }
+            while (a < added.size() && added.get(a).key().compareTo(current.keys()[i]) < 0) {
+                merged.add(added.get(a++));
+            }
+            merged.add(new Key(current.keys()[i], current.owners()[i]));
+        }
+        while (a < added.size()) {
+            merged.add(added.get(a++));
+        }
+
+        Map<Long, ClientSuggestionResponse> clients = new HashMap<>(current.clients());
+        if (suggestion != null) {
+            clients.put(clientId, suggestion);
+        } else {
+            clients.remove(clientId);
+        }
+        snapshot = toSnapshot(merged, clients);
+    }
+
+    private List<Key> keysOf(ClientSuggestionResponse client) {
+        Set<String> keys = new LinkedHashSet<>();
+        String name = ClientSearchIndex.normalize(client.getName());
+        for (int start = 0; start >= 0 && start < name.length(); ) {
+            keys.add(name.substring(start));
+            int space = name.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        if (client.getEmail() != null) {
+            keys.add(ClientSearchIndex.normalize(client.getEmail()));
+        }
+        String digits = ClientSearchIndex.digits(client.getPhone());
+        if (!digits.isEmpty()) {
+            keys.add(digits);
+            if (digits.length() > NATIONAL_DIGITS) {
+                keys.add(digits.substring(digits.length() - NATIONAL_DIGITS));
+            }
+        }
+        List<Key> result = new ArrayList<>(keys.size());
+        keys.forEach(key -> result.add(new Key(key, client.getId())));
+        return result;
+    }
+
+    private ClientSuggestionResponse toSuggestion(Client client) {
+        return ClientSuggestionResponse.builder()
+                .id(client.getId())
+                .name(client.getName())
+                .phone(client.getPhoneNumber())
+                .email(client.getEmailAddress())
+                .build();
+    }
+
+    private static Snapshot toSnapshot(List<Key> sorted, Map<Long, ClientSuggestionResponse> clients) {
+        String[] keys = new String[sorted.size()];
+        long[] owners = new long[sorted.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = sorted.get(i).key();
+            owners[i] = sorted.get(i).owner();
+        }
+        return new Snapshot(keys, owners, Map.copyOf(clients));
+    }
+
+    private static int lowerBound(String[] keys, String prefix) {
+        int index = Arrays.binarySearch(keys, prefix);
+        return index >= 0 ? firstEqual(keys, index) : -index - 1;
+    }
+
+    // Several clients can share a key (same name) — step back to the first one
+    private static int firstEqual(String[] keys, int index) {
+        while (index > 0 && keys[index - 1].equals(keys[index])) {
+            index--;
+        }
+        return index;
+    }
+}
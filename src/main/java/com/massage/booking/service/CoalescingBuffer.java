@@ -0,0 +1,71 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.response.SlotDeltaResponse;
+import com.massage.booking.entity.enums.SlotState;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-subscriber pending deltas: only the latest state per slot is kept, and at most
+ * {@code capacity} slots. On overflow the buffer is dropped and the subscriber is told to resync,
+ * so a slow client can never hold more than {@code capacity} entries of memory.
+ */
+final class CoalescingBuffer {
+
+    private final int capacity;
+    private final Map<LocalDateTime, SlotState> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    CoalescingBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void offer(LocalDateTime slot, SlotState state) {
+        if (overflowed.get()) {
+            return;   // a resync is already due — deltas would be discarded anyway
+        }
+        if (pending.size() >= capacity && !pending.containsKey(slot)) {
+            overflowed.set(true);
+            pending.clear();
+            return;
+        }
+        pending.put(slot, state);
+    }
+
+    /**
+     * Discards pending deltas and makes the next drain ask for a resync — used when the change
+     * happened on another node and only its date is known.
+     */
+    void invalidate() {
+        overflowed.set(true);
+        pending.clear();
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty() && !overflowed.get();
+    }
+
+    /**
+     * Removes and returns the pending deltas in slot order; null means the subscriber must resync.
+     */
+    List<SlotDeltaResponse> drain() {
+        if (overflowed.getAndSet(false)) {
+            pending.clear();
+            return null;
+        }
+        List<SlotDeltaResponse> deltas = new ArrayList<>(pending.size());
+        for (LocalDateTime slot : pending.keySet()) {
+            SlotState state = pending.remove(slot);
+            if (state != null) {
+                deltas.add(SlotDeltaResponse.builder().slotDateTime(slot).state(state).build());
+            }
+        }
+        deltas.sort((a, b) -> a.getSlotDateTime().compareTo(b.getSlotDateTime()));
+        return deltas;
+    }
+}
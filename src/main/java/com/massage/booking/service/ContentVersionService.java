@@ -0,0 +1,99 @@
+package com.massage.booking.service;
+
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.CatalogChangedEvent;
+import com.massage.booking.event.ResourcesChangedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind the ETags of the availability and catalog endpoints:
+ * one counter per day (bumped on every slot state change of that day) and one for the catalog.
+ * A therapist or room change can affect any day, so a resources counter is added to every day's
+ * version. Counters only ever grow, so a range ETag can be the sum of its days' versions.
+ *
+ * Counters are bumped after commit, and controllers read the version before the data, so a
+ * response is never tagged newer than its content. The per-process epoch keeps ETags from a
+ * previous run (counters restart at 0) from ever matching.
+ */
+@Service
+public class ContentVersionService {
+
+    public static final CacheControl AVAILABILITY_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+    public static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<LocalDate, AtomicLong> dayVersions = new ConcurrentHashMap<>();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong resourcesVersion = new AtomicLong();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSlotStateChanged(SlotStateChangedEvent event) {
+        bump(event.slotDateTime().toLocalDate());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onResourcesChanged(ResourcesChangedEvent event) {
+        resourcesVersion.incrementAndGet();
+    }
+
+    // A change committed on another node — clients holding this node's ETag must refetch
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        switch (event.region()) {
+            case AVAILABILITY, SCHEDULE -> bump(LocalDate.parse(event.key()));
+            case CATALOG -> catalogVersion.incrementAndGet();
+            case RESOURCES -> resourcesVersion.incrementAndGet();
+            default -> {
+            }
+        }
+    }
+
+    public String dayETag(LocalDate date) {
+        return etag("d" + version(date));
+    }
+
+    public String rangeETag(LocalDate startDate, LocalDate endDate) {
+        long sum = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            sum += version(date);
+        }
+        return etag("r" + sum);
+    }
+
+    public String catalogETag() {
+        return etag("c" + catalogVersion.get());
+    }
+
+    public long dayVersion(LocalDate date) {
+        return version(date);
+    }
+
+    private void bump(LocalDate date) {
+        dayVersions.computeIfAbsent(date, d -> new AtomicLong()).incrementAndGet();
+    }
+
+    private long version(LocalDate date) {
+        AtomicLong version = dayVersions.get(date);
+        return (version != null ? version.get() : 0) + resourcesVersion.get();
+    }
+
+    private String etag(String version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
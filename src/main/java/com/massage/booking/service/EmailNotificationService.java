@@ -4,6 +4,9 @@ import com.sendgrid.*;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
@@ -12,11 +15,16 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class EmailNotificationService {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${sendgrid.api-key:}")
     private String apiKey;
 
@@ -38,7 +46,7 @@ public class EmailNotificationService {
                         "You can now book your massage sessions online.\n\n" +
                         "We look forward to seeing you!\n\n" +
                         "The Tokame Team";
-        send(to, subject, body);
+        send("welcome", to, subject, body);
     }
 
     @Async
@@ -55,7 +63,7 @@ public class EmailNotificationService {
                         "- Arrive 5 minutes early\n\n" +
                         "See you soon!\n\n" +
                         "The Tokame Team";
-        send(to, subject, body);
+        send("confirmation", to, subject, body);
     }
 
     @Async
@@ -70,13 +78,58 @@ public class EmailNotificationService {
                         (reason != null ? "Reason: " + reason + "\n" : "") + "\n" +
                         "Feel free to book a new appointment anytime.\n\n" +
                         "The Tokame Team";
-        send(to, subject, body);
+        send("cancellation", to, subject, body);
+    }
+
+    @Async
+    public void sendBookingSummary(String to, String name, Map<LocalDateTime, String> appointments) {
+        StringBuilder lines = new StringBuilder();
+        appointments.forEach((startTime, serviceName) ->
+                lines.append("- ").append(startTime.format(FORMATTER)).append(" — ").append(serviceName).append("\n"));
+
+        String subject = "Your Upcoming Appointments - Tokame Massage";
+        String body =
+                "Hello " + name + ",\n\n" +
+                        "The following appointments have been booked for you:\n\n" +
+                        lines + "\n" +
+                        "Please remember:\n" +
+                        "- You can cancel up to 12 hours before each appointment\n" +
+                        "- Arrive 5 minutes early\n\n" +
+                        "See you soon!\n\n" +
+                        "The Tokame Team";
+        send("summary", to, subject, body);
+    }
+
+    @Async
+    public void sendWaitlistOffer(String to, String name, String serviceName,
+                                  LocalDateTime startTime, LocalDateTime expiresAt) {
+        String subject = "A Slot Opened Up - Tokame Massage";
+        String body =
+                "Hello " + name + ",\n\n" +
+                        "Good news! A slot you were waiting for is now free and we are holding it for you.\n\n" +
+                        "Service: " + serviceName + "\n" +
+                        "Date & Time: " + startTime.format(FORMATTER) + "\n\n" +
+                        "Book it before " + expiresAt.format(FORMATTER) + " — after that it goes to the next person on the waitlist.\n\n" +
+                        "The Tokame Team";
+        send("waitlist_offer", to, subject, body);
+    }
+
+    // Timed per type and outcome — runs on the async pool, so this is SendGrid latency, not request latency
+    private void send(String type, String to, String subject, String body) {
+        long started = System.nanoTime();
+        String outcome = send(to, subject, body);
+        Timer.builder("booking.email.dispatch")
+                .description("Email dispatch latency")
+                .tags("type", type, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
     }
 
-    private void send(String to, String subject, String body) {
+    private String send(String to, String subject, String body) {
         if (apiKey == null || apiKey.isBlank()) {
             log.warn("SendGrid API key not configured - skipping email to: {}", to);
-            return;
+            return "skipped";
         }
 
         try {
@@ -95,11 +148,13 @@ public class EmailNotificationService {
 
             if (response.getStatusCode() >= 400) {
                 log.error("SendGrid error {} sending to {}: {}", response.getStatusCode(), to, response.getBody());
-            } else {
-                log.info("Email sent successfully to: {} (status: {})", to, response.getStatusCode());
+                return "failed";
             }
+            log.info("Email sent successfully to: {} (status: {})", to, response.getStatusCode());
+            return "sent";
         } catch (IOException e) {
             log.error("Failed to send email to {}: {}", to, e.getMessage());
+            return "failed";
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.massage.booking.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timer wheel for hold expiry: one bucket per tick, advanced by a single scheduled
+ * sweep instead of one scheduled task per hold. Scheduling is O(1) and lock-free; a sweep
+ * only touches the buckets whose ticks have passed.
+ *
+ * The wheel only decides *when* to look at a hold — whether it actually expired is still
+ * decided from the hold's own timestamp, so a late or early pop is harmless.
+ */
+final class HoldExpiryWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Queue<Timeout<T>>[] buckets;
+    private final long startMillis;
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    HoldExpiryWheel(int ticksPerWheel, long tickMillis, long startMillis) {
+        if (Integer.bitCount(ticksPerWheel) != 1) {
+            throw new IllegalArgumentException("ticksPerWheel must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = ticksPerWheel - 1;
+        this.startMillis = startMillis;
+        this.buckets = new Queue[ticksPerWheel];
+        for (int i = 0; i < ticksPerWheel; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    void schedule(T item, long deadlineMillis) {
+        // Never schedule into a bucket the sweep has already passed
+        long tick = Math.max((deadlineMillis - startMillis + tickMillis - 1) / tickMillis, currentTick);
+        buckets[(int) (tick & mask)].add(new Timeout<>(item, tick));
+    }
+
+    /**
+     * Pops everything due up to nowMillis. Called from a single thread.
+     */
+    List<T> advance(long nowMillis) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        List<T> due = new ArrayList<>();
+        long tick = currentTick;
+        while (tick <= targetTick) {
+            Iterator<Timeout<T>> it = buckets[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout<T> timeout = it.next();
+                if (timeout.tick() <= tick) {   // later rounds stay in the bucket
+                    it.remove();
+                    due.add(timeout.item());
+                }
+            }
+            tick++;
+        }
+        currentTick = tick;
+        return due;
+    }
+
+    private record Timeout<T>(T item, long tick) {
+    }
+}
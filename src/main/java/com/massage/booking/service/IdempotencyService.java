@@ -0,0 +1,183 @@
+package com.massage.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.massage.booking.dto.request.BookingRequest;
+import com.massage.booking.dto.response.BookingResponse;
+import com.massage.booking.entity.IdempotencyRecord;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.DuplicateResourceException;
+import com.massage.booking.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Idempotent booking submission.
+ *
+ * Retries carrying the same Idempotency-Key are answered from a bounded Caffeine cache
+ * (falling back to the idempotency_keys table after a restart or eviction) and never
+ * reach the SERIALIZABLE {@link BookingService#create} transaction again.
+ * The key row is inserted inside that transaction, before the booking: a duplicate racing on
+ * another node fails on the unique key, rolls back and replays the winner's booking, and a
+ * failed attempt leaves no row behind, so it may be retried with the same key.
+ * Rows older than the retention are treated as gone, like the cache entries.
+ * Attempts that do reach the transaction first queue on the per-start-time {@link BookingLockService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final BookingService bookingService;
+    private final BookingLockService bookingLockService;
+    private final BookingMetrics bookingMetrics;
+
+    @Value("${booking.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${booking.idempotency.cache-size:10000}")
+    private long cacheSize;
+
+    private Cache<String, StoredResult> results;
+
+    // Keys currently being processed — a concurrent duplicate is rejected instead of racing for the slot lock
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void initCache() {
+        results = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofHours(retentionHours))
+                .build();
+    }
+
+    public BookingResponse createBooking(Long userId, String idempotencyKey, BookingRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return book(userId, request);
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must not exceed " + MAX_KEY_LENGTH + " characters",
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        String cacheKey = userId + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        // 1️⃣ Hot path — answered from memory
+        StoredResult cached = results.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash, idempotencyKey);
+        }
+
+        if (!inFlight.add(cacheKey)) {
+            throw new BusinessException("A request with this Idempotency-Key is already being processed",
+                    HttpStatus.CONFLICT);
+        }
+        try {
+            // 2️⃣ Evicted or restarted — the table still knows the outcome
+            Optional<StoredResult> stored = findStored(userId, idempotencyKey);
+            if (stored.isPresent()) {
+                results.put(cacheKey, stored.get());
+                return replay(stored.get(), requestHash, idempotencyKey);
+            }
+
+            // 3️⃣ First submission — the key row is claimed in the booking transaction itself
+            IdempotencyRecord claim = IdempotencyRecord.builder()
+                    .userId(userId)
+                    .idempotencyKey(idempotencyKey)
+                    .requestHash(requestHash)
+                    .build();
+            BookingResponse response;
+            try {
+                response = book(userId, request, claim);
+            } catch (DuplicateResourceException e) {
+                // Another node committed the same key first — its booking is the answer
+                StoredResult winner = findStored(userId, idempotencyKey).orElseThrow(() -> e);
+                results.put(cacheKey, winner);
+                return replay(winner, requestHash, idempotencyKey);
+            }
+            results.put(cacheKey, new StoredResult(requestHash, response));
+            return response;
+        } finally {
+            inFlight.remove(cacheKey);
+        }
+    }
+
+    @Scheduled(cron = "${booking.idempotency.cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    // Contention for the same start time is settled in the JVM before the transaction opens.
+    // Timed out here, around lock and commit, so a failed commit is never recorded as a success.
+    private BookingResponse book(Long userId, BookingRequest request) {
+        return bookingMetrics.time(BookingMetrics.CREATE, () -> bookingLockService.withSlotLock(
+                request.getStartTime(), () -> bookingService.create(userId, request)));
+    }
+
+    private BookingResponse book(Long userId, BookingRequest request, IdempotencyRecord claim) {
+        return bookingMetrics.time(BookingMetrics.CREATE, () -> bookingLockService.withSlotLock(
+                request.getStartTime(), () -> bookingService.create(userId, request, claim)));
+    }
+
+    private Optional<StoredResult> findStored(Long userId, String idempotencyKey) {
+        Optional<IdempotencyRecord> stored =
+                idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        IdempotencyRecord record = stored.get();
+        if (record.getCreatedAt().isBefore(LocalDateTime.now().minusHours(retentionHours))) {
+            // Expired like its cache entry — free the key now instead of waiting for the nightly purge
+            idempotencyRecordRepository.delete(record);
+            return Optional.empty();
+        }
+        return Optional.of(new StoredResult(record.getRequestHash(), bookingService.getById(record.getBookingId())));
+    }
+
+    private BookingResponse replay(StoredResult result, String requestHash, String idempotencyKey) {
+        if (!result.requestHash().equals(requestHash)) {
+            throw new BusinessException("Idempotency-Key was already used for a different booking request",
+                    HttpStatus.BAD_REQUEST);
+        }
+        log.info("Replaying booking {} for Idempotency-Key {}", result.response().getId(), idempotencyKey);
+        return result.response();
+    }
+
+    private String hash(BookingRequest request) {
+        String canonical = request.getServiceId() + "|" + request.getStartTime() + "|"
+                + request.getGuestName() + "|" + request.getGuestPhone() + "|" + request.getGuestEmail();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record StoredResult(String requestHash, BookingResponse response) {
+    }
+}
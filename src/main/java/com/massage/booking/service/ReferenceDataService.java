@@ -0,0 +1,63 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.MassageService;
+import com.massage.booking.entity.WorkingDay;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.exception.ResourceNotFoundException;
+import com.massage.booking.repository.MassageServiceRepository;
+import com.massage.booking.repository.WorkingDayRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cached reference data used on the booking path.
+ * The service catalogue and the weekly schedule change rarely, so they are read
+ * from Caffeine instead of hitting the database on every booking.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataService {
+
+    public static final String SERVICES_CACHE = "services";
+    public static final String WEEKLY_HOURS_CACHE = "weeklyHours";
+
+    private final MassageServiceRepository serviceRepository;
+    private final WorkingDayRepository workingDayRepository;
+
+    @Cacheable(SERVICES_CACHE)
+    @Transactional(readOnly = true)
+    public MassageService getService(Long id) {
+        log.debug("Loading service {} into cache", id);
+        return serviceRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Service", id));
+    }
+
+    /**
+     * Weekly rules keyed by ISO day of week (1=Monday); days without an active row are closed.
+     * Merged with date exceptions by {@link BusinessCalendarService}.
+     */
+    @Cacheable(WEEKLY_HOURS_CACHE)
+    @Transactional(readOnly = true)
+    public Map<Integer, WorkingDay> getWeeklyHours() {
+        log.debug("Loading weekly hours into cache");
+        return workingDayRepository.findByIsActiveTrue().stream()
+                .collect(Collectors.toUnmodifiableMap(WorkingDay::getDayOfWeek, Function.identity()));
+    }
+
+    // A service edited on another node; local edits evict through ServiceCatalogService
+    @EventListener(condition = "#event.region() == T(com.massage.booking.entity.enums.CacheRegion).CATALOG")
+    @CacheEvict(value = SERVICES_CACHE, key = "T(Long).valueOf(#event.key())")
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        log.debug("Service {} evicted after a change on another node", event.key());
+    }
+}
@@ -0,0 +1,123 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.RefreshToken;
+import com.massage.booking.exception.UnauthorizedException;
+import com.massage.booking.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Rotating refresh tokens. The client gets 256 random bits; the database keeps only their
+ * SHA-256, so a leaked table cannot be replayed. Every refresh revokes the presented token
+ * and issues its successor in the same family. A revoked token presented again means two
+ * parties hold the family — the whole family is revoked and both must log in again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpirationMs;
+
+    public record Rotation(Long userId, String token) {
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpirationMs;
+    }
+
+    /**
+     * Starts a new family — one per login.
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    // The reuse revocation must survive the 401 it ends in
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String rawToken) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .orElseThrow(this::invalid);
+
+        if (current.getRevokedAt() != null) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse for user {} — family {} revoked ({} live token(s))",
+                    current.getUserId(), current.getFamilyId(), revoked);
+            throw invalid();
+        }
+        if (!current.isUsable(now)) {
+            throw invalid();
+        }
+
+        current.setRevokedAt(now);
+        refreshTokenRepository.save(current);
+        return new Rotation(current.getUserId(), issue(current.getUserId(), current.getFamilyId()));
+    }
+
+    /**
+     * Logout — ends the token's whole family. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    @Scheduled(cron = "${jwt.refresh-cleanup-cron:0 55 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .userId(userId)
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs)))
+                .build());
+        return rawToken;
+    }
+
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private UnauthorizedException invalid() {
+        return new UnauthorizedException("Invalid or expired refresh token");
+    }
+}
@@ -0,0 +1,485 @@
+package com.massage.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.massage.booking.dto.request.BookableResourceRequest;
+import com.massage.booking.dto.response.BookableResourceResponse;
+import com.massage.booking.entity.BookableResource;
+import com.massage.booking.entity.Booking;
+import com.massage.booking.entity.enums.ResourceType;
+import com.massage.booking.entity.enums.SlotState;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.ResourcesChangedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.RejectionReason;
+import com.massage.booking.exception.ResourceNotFoundException;
+import com.massage.booking.repository.BookableResourceRepository;
+import com.massage.booking.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Capacity model for several therapists and rooms: a booking takes one free resource of each
+ * configured type. With no resources configured the center is a single resource, as before
+ * ({@link #isEnabled()} is false and callers keep the plain overlap check).
+ *
+ * Occupancy is one bitset per resource and day over the 30-minute grid (bit set = half-hour
+ * taken). Committed bookings are loaded per day and cached; reservations of in-flight booking
+ * transactions are kept apart, only steer concurrent assignments, and are dropped when their
+ * transaction completes. A half-hour is available when some therapist and some room is free —
+ * the OR of each type's committed free bitsets.
+ *
+ * Reservations are taken under a lock striped by resource and day, so bookings for different
+ * resources or days never wait on each other. The database stays the authority: callers pass the
+ * overlapping bookings read inside their SERIALIZABLE transaction, and resources used by those
+ * are never assigned.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResourceAllocationService {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int SLOTS_PER_DAY = BusinessCalendarService.SLOTS_PER_DAY;
+    private static final long ALL_FREE = -1L;
+
+    private final BookableResourceRepository resourceRepository;
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${booking.resources.max-days:400}")
+    private long maxDays;
+
+    private final ReentrantLock[] stripes = newStripes();
+    private final Map<ResourceDay, Long> pending = new ConcurrentHashMap<>();
+    private final Object ownReservationsKey = new Object();
+    private Cache<LocalDate, Map<Long, Long>> committed;
+
+    // Active resource ids per type, in assignment order — reloaded when resources change
+    private volatile Map<ResourceType, List<Long>> resources;
+
+    public record Assignment(Long therapistId, Long roomId) {
+    }
+
+    private record ResourceDay(Long resourceId, LocalDate date) {
+    }
+
+    @PostConstruct
+    void initCache() {
+        committed = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return !resources().isEmpty();
+    }
+
+    public Assignment assign(LocalDateTime start, LocalDateTime end, List<Booking> overlapping) {
+        return tryAssign(start, end, overlapping)
+                .orElseThrow(() -> new BusinessException("No therapist or room is free at this time", HttpStatus.CONFLICT,
+                        RejectionReason.NO_RESOURCE));
+    }
+
+    /**
+     * Reserves one free resource of each type for [start, end). The reservation is visible to
+     * concurrent assignments at once and becomes committed occupancy only if the caller's
+     * transaction commits.
+     */
+    public Optional<Assignment> tryAssign(LocalDateTime start, LocalDateTime end, List<Booking> overlapping) {
+        LocalDate date = start.toLocalDate();
+        long need = mask(date, start, end);
+        List<Booking> clashing = overlapping.stream()
+                .filter(b -> b.isActive() && b.getStartTime().isBefore(end) && b.getEndTime().isAfter(start))
+                .toList();
+
+        Long therapistId = null;
+        if (resources().containsKey(ResourceType.THERAPIST)) {
+            therapistId = reserve(ResourceType.THERAPIST, date, need, clashing, Booking::getTherapistId);
+            if (therapistId == null) {
+                return Optional.empty();
+            }
+        }
+        Long roomId = null;
+        if (resources().containsKey(ResourceType.ROOM)) {
+            roomId = reserve(ResourceType.ROOM, date, need, clashing, Booking::getRoomId);
+            if (roomId == null) {
+                if (therapistId != null) {
+                    unreserve(therapistId, date, need);
+                }
+                return Optional.empty();
+            }
+        }
+
+        settleOnCompletion(date, need, therapistId, roomId);
+        return Optional.of(new Assignment(therapistId, roomId));
+    }
+
+    /**
+     * Read-only counterpart of {@link #tryAssign}: whether one resource of each type would be free
+     * for [start, end) next to the given bookings. Reserves nothing — used to grant slot holds.
+     */
+    public boolean fits(LocalDateTime start, LocalDateTime end, List<Booking> overlapping) {
+        List<Booking> clashing = overlapping.stream()
+                .filter(b -> b.isActive() && b.getStartTime().isBefore(end) && b.getEndTime().isAfter(start))
+                .toList();
+        for (Map.Entry<ResourceType, List<Long>> type : resources().entrySet()) {
+            Function<Booking, Long> assigned = type.getKey() == ResourceType.THERAPIST
+                    ? Booking::getTherapistId : Booking::getRoomId;
+            Set<Long> taken = clashing.stream().map(assigned).filter(Objects::nonNull).collect(Collectors.toSet());
+            long unassigned = clashing.stream().map(assigned).filter(Objects::isNull).count();
+            long free = type.getValue().stream().filter(id -> !taken.contains(id)).count();
+            if (free - unassigned <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Half-hours of the day at which at least one resource of every type is free, from committed
+     * occupancy only — the result is cached as the day's availability, and a reservation that
+     * rolls back publishes nothing that would rebuild it.
+     */
+    public long freeMask(LocalDate date) {
+        Map<ResourceType, List<Long>> byType = resources();
+        if (byType.isEmpty()) {
+            return ALL_FREE;
+        }
+        Map<Long, Long> day = committedDay(date);
+        long free = ALL_FREE;
+        for (List<Long> ofType : byType.values()) {
+            long anyFree = 0;
+            for (Long resourceId : ofType) {
+                anyFree |= ~day.getOrDefault(resourceId, 0L);
+            }
+            free &= anyFree;
+        }
+        return free;
+    }
+
+    /**
+     * Whether another booking still fits at this half-hour once the current transaction commits —
+     * decides the slot row state. Counts committed occupancy and this transaction's own
+     * reservations only: another transaction's reservation may still roll back, and a row closed
+     * because of it would never be reopened. Always false without resources — the slot row
+     * itself is then the only capacity.
+     */
+    public boolean hasCapacity(LocalDateTime slot) {
+        if (!isEnabled()) {
+            return false;
+        }
+        LocalDate date = slot.toLocalDate();
+        long bit = 1L << (slot.toLocalTime().toSecondOfDay() / 60 / BusinessCalendarService.SLOT_MINUTES);
+        Map<Long, Long> day = committedDay(date);
+        Map<ResourceDay, Long> own = ownReservations();
+        for (List<Long> ofType : resources().values()) {
+            boolean anyFree = false;
+            for (Long resourceId : ofType) {
+                long occupied = day.getOrDefault(resourceId, 0L) | own.getOrDefault(new ResourceDay(resourceId, date), 0L);
+                if ((occupied & bit) == 0) {
+                    anyFree = true;
+                    break;
+                }
+            }
+            if (!anyFree) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A released slot means a canceled booking — the day is reloaded on next read
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSlotStateChanged(SlotStateChangedEvent event) {
+        if (event.state() == SlotState.AVAILABLE) {
+            committed.invalidate(event.slotDateTime().toLocalDate());
+        }
+    }
+
+    // Another node booked, canceled or changed resources — drop what this node has cached.
+    // Runs first, so the availability caches evicted by the same event rebuild on the new resources
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        switch (event.region()) {
+            case AVAILABILITY -> committed.invalidate(LocalDate.parse(event.key()));
+            case RESOURCES -> {
+                loadResources();
+                committed.invalidateAll();
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookableResourceResponse> getAll() {
+        return resourceRepository.findAllByOrderByTypeAscNameAsc().stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    @Transactional
+    public BookableResourceResponse create(BookableResourceRequest request) {
+        if (resourceRepository.existsByName(request.getName())) {
+            throw new BusinessException("Resource already exists: " + request.getName(), HttpStatus.CONFLICT);
+        }
+        BookableResource saved = resourceRepository.save(BookableResource.builder()
+                .name(request.getName())
+                .type(request.getType())
+                .build());
+        log.info("Resource created: {} ({})", saved.getName(), saved.getType());
+        reloadAfterCommit();
+        eventPublisher.publishEvent(new ResourcesChangedEvent(saved.getId()));
+        return mapToResponse(saved);
+    }
+
+    /**
+     * Existing bookings keep their assignment; the resource is just no longer offered.
+     */
+    @Transactional
+    public void deactivate(Long id) {
+        BookableResource resource = resourceRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Resource", id));
+        resource.setActive(false);
+        resourceRepository.save(resource);
+        log.info("Resource deactivated: {}", resource.getName());
+        reloadAfterCommit();
+        eventPublisher.publishEvent(new ResourcesChangedEvent(id));
+    }
+
+    private Long reserve(ResourceType type, LocalDate date, long need, List<Booking> clashing,
+                         Function<Booking, Long> assigned) {
+        Set<Long> taken = clashing.stream()
+                .map(assigned)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // Bookings from before resources existed still take one resource of each type
+        long unassigned = clashing.stream().map(assigned).filter(Objects::isNull).count();
+
+        for (Long resourceId : resources().get(type)) {
+            if (taken.contains(resourceId)) {
+                continue;
+            }
+            ReentrantLock lock = stripe(resourceId, date);
+            lock.lock();
+            try {
+                ResourceDay key = new ResourceDay(resourceId, date);
+                if ((pending.getOrDefault(key, 0L) & need) != 0) {
+                    continue;
+                }
+                if (unassigned > 0) {
+                    unassigned--;
+                    continue;
+                }
+                pending.merge(key, need, (a, b) -> a | b);
+                return resourceId;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    private void unreserve(Long resourceId, LocalDate date, long need) {
+        ReentrantLock lock = stripe(resourceId, date);
+        lock.lock();
+        try {
+            pending.computeIfPresent(new ResourceDay(resourceId, date),
+                    (key, bits) -> (bits & ~need) == 0 ? null : bits & ~need);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void settleOnCompletion(LocalDate date, long need, Long therapistId, Long roomId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commit(date, need, therapistId, roomId);
+            release(date, need, therapistId, roomId);
+            return;
+        }
+        Map<ResourceDay, Long> own = ownReservations();
+        if (own.isEmpty()) {
+            own = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(ownReservationsKey, own);
+        }
+        for (Long resourceId : new Long[]{therapistId, roomId}) {
+            if (resourceId != null) {
+                own.merge(new ResourceDay(resourceId, date), need, (a, b) -> a | b);
+            }
+        }
+        // Registered before the booking's slot event, so the committed bits are in place by the time
+        // the after-commit listeners evict the availability caches and a reader rebuilds them
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                commit(date, need, therapistId, roomId);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ownReservationsKey);
+                release(date, need, therapistId, roomId);
+            }
+        });
+    }
+
+    // Reservations taken by the current transaction, bound to it until completion
+    @SuppressWarnings("unchecked")
+    private Map<ResourceDay, Long> ownReservations() {
+        Object own = TransactionSynchronizationManager.getResource(ownReservationsKey);
+        return own != null ? (Map<ResourceDay, Long>) own : Map.of();
+    }
+
+    // Committed bits are added before the reservation is dropped, so the slot never looks free in between
+    private void commit(LocalDate date, long need, Long therapistId, Long roomId) {
+        Map<Long, Long> day = committed.getIfPresent(date);
+        if (day == null) {
+            return;
+        }
+        for (Long resourceId : new Long[]{therapistId, roomId}) {
+            if (resourceId != null) {
+                day.merge(resourceId, need, (a, b) -> a | b);
+            }
+        }
+    }
+
+    private void release(LocalDate date, long need, Long therapistId, Long roomId) {
+        for (Long resourceId : new Long[]{therapistId, roomId}) {
+            if (resourceId != null) {
+                unreserve(resourceId, date, need);
+            }
+        }
+    }
+
+    private Map<Long, Long> committedDay(LocalDate date) {
+        return committed.get(date, this::loadDay);
+    }
+
+    private Map<Long, Long> loadDay(LocalDate date) {
+        Map<Long, Long> masks = new ConcurrentHashMap<>();
+        for (Booking booking : bookingRepository.findActiveOverlapping(date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            long bits = mask(date, booking.getStartTime(), booking.getEndTime());
+            place(masks, ResourceType.THERAPIST, booking.getTherapistId(), bits);
+            place(masks, ResourceType.ROOM, booking.getRoomId(), bits);
+        }
+        log.debug("Loaded resource occupancy for {}", date);
+        return masks;
+    }
+
+    // An unassigned (older) booking is counted against the first resource of the type that can take it
+    private void place(Map<Long, Long> masks, ResourceType type, Long resourceId, long bits) {
+        List<Long> ofType = resources().get(type);
+        if (ofType == null) {
+            return;
+        }
+        Long target = resourceId;
+        if (target == null) {
+            target = ofType.stream()
+                    .filter(id -> (masks.getOrDefault(id, 0L) & bits) == 0)
+                    .findFirst()
+                    .orElse(ofType.get(0));
+        }
+        masks.merge(target, bits, (a, b) -> a | b);
+    }
+
+    // Half-hours of the given day touched by [start, end)
+    static long mask(LocalDate date, LocalDateTime start, LocalDateTime end) {
+        int from = start.toLocalDate().isBefore(date) ? 0
+                : start.toLocalTime().toSecondOfDay() / 60 / BusinessCalendarService.SLOT_MINUTES;
+        int to = end.toLocalDate().isAfter(date) ? SLOTS_PER_DAY
+                : (end.toLocalTime().toSecondOfDay() / 60 + BusinessCalendarService.SLOT_MINUTES - 1)
+                / BusinessCalendarService.SLOT_MINUTES;
+        if (from >= to) {
+            return 0L;
+        }
+        return ((1L << to) - 1) & ~((1L << from) - 1);
+    }
+
+    private Map<ResourceType, List<Long>> resources() {
+        Map<ResourceType, List<Long>> current = resources;
+        if (current == null) {
+            current = loadResources();
+        }
+        return current;
+    }
+
+    private synchronized Map<ResourceType, List<Long>> loadResources() {
+        Map<ResourceType, List<Long>> byType = new EnumMap<>(ResourceType.class);
+        for (BookableResource resource : resourceRepository.findByActiveTrueOrderByIdAsc()) {
+            byType.computeIfAbsent(resource.getType(), t -> new ArrayList<>()).add(resource.getId());
+        }
+        byType.replaceAll((type, ids) -> List.copyOf(ids));
+        resources = byType;
+        log.info("Bookable resources loaded: {}", byType);
+        return byType;
+    }
+
+    private void reloadAfterCommit() {
+        Runnable reload = () -> {
+            loadResources();
+            committed.invalidateAll();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload.run();
+                }
+            });
+        } else {
+            reload.run();
+        }
+    }
+
+    private ReentrantLock stripe(Long resourceId, LocalDate date) {
+        return stripes[Math.floorMod(31 * resourceId.hashCode() + date.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private BookableResourceResponse mapToResponse(BookableResource resource) {
+        return BookableResourceResponse.builder()
+                .id(resource.getId())
+                .name(resource.getName())
+                .type(resource.getType())
+                .active(resource.getActive())
+                .build();
+    }
+}
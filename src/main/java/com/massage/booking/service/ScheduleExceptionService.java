@@ -0,0 +1,164 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.request.ScheduleExceptionRequest;
+import com.massage.booking.dto.response.ScheduleExceptionResponse;
+import com.massage.booking.entity.Booking;
+import com.massage.booking.entity.ScheduleException;
+import com.massage.booking.entity.enums.SlotState;
+import com.massage.booking.event.ScheduleChangedEvent;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.ResourceNotFoundException;
+import com.massage.booking.repository.BookingRepository;
+import com.massage.booking.repository.ScheduleExceptionRepository;
+import com.massage.booking.service.BusinessCalendarService.DaySchedule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Admin side of the schedule_exceptions table: holiday closures, changed hours and extra openings.
+ * Each change regenerates the date's slot rows, announces the slots that opened or closed,
+ * and drops the date from the {@link BusinessCalendarService} cache after commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleExceptionService {
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final ScheduleExceptionRepository scheduleExceptionRepository;
+    private final BookingRepository bookingRepository;
+    private final BusinessCalendarService businessCalendarService;
+    private final TimeSlotService timeSlotService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<ScheduleExceptionResponse> getForRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RANGE_DAYS) {
+            throw new BusinessException("Invalid date range", HttpStatus.BAD_REQUEST);
+        }
+        return scheduleExceptionRepository.findByExceptionDateBetweenOrderByExceptionDateAsc(startDate, endDate)
+                .stream()
+                .map(exception -> mapToResponse(exception,
+                        businessCalendarService.resolve(exception.getExceptionDate(), exception), List.of()))
+                .toList();
+    }
+
+    @Transactional
+    public ScheduleExceptionResponse save(LocalDate date, ScheduleExceptionRequest request) {
+        validate(request);
+        log.info("Saving schedule exception for {}: available={}, {}-{}",
+                date, request.getIsAvailable(), request.getOpenTime(), request.getCloseTime());
+
+        DaySchedule before = businessCalendarService.day(date);
+
+        ScheduleException exception = scheduleExceptionRepository.findByExceptionDate(date)
+                .orElseGet(() -> ScheduleException.builder().exceptionDate(date).build());
+        boolean available = request.getIsAvailable();
+        exception.setIsAvailable(available);
+        exception.setOpenTime(available ? request.getOpenTime() : null);
+        exception.setCloseTime(available ? request.getCloseTime() : null);
+        exception.setReason(request.getReason());
+        scheduleExceptionRepository.save(exception);
+
+        DaySchedule after = businessCalendarService.resolve(date, exception);
+        List<Long> conflicts = applyChange(date, before, after);
+        return mapToResponse(exception, after, conflicts);
+    }
+
+    @Transactional
+    public void delete(LocalDate date) {
+        ScheduleException exception = scheduleExceptionRepository.findByExceptionDate(date)
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule exception not found for date: " + date));
+        log.info("Removing schedule exception for {}", date);
+
+        DaySchedule before = businessCalendarService.day(date);
+        scheduleExceptionRepository.delete(exception);
+        applyChange(date, before, businessCalendarService.resolve(date, null));
+    }
+
+    private void validate(ScheduleExceptionRequest request) {
+        if (!request.getIsAvailable()) {
+            return;
+        }
+        LocalTime open = request.getOpenTime();
+        LocalTime close = request.getCloseTime();
+        if ((open == null) != (close == null)) {
+            throw new BusinessException("Open and close time must be given together", HttpStatus.BAD_REQUEST);
+        }
+        if (open == null) {
+            return;
+        }
+        if (!open.isBefore(close)) {
+            throw new BusinessException("Open time must be before close time", HttpStatus.BAD_REQUEST);
+        }
+        if (!onGrid(open) || !onGrid(close)) {
+            throw new BusinessException("Opening hours must start and end on a full or half hour", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * 1️⃣ rows for newly opened slots, 2️⃣ calendar eviction after commit,
+     * 3️⃣ one state event per slot that flipped, 4️⃣ bookings left outside the new hours.
+     */
+    private List<Long> applyChange(LocalDate date, DaySchedule before, DaySchedule after) {
+        timeSlotService.generateSlots(date, after);
+
+        eventPublisher.publishEvent(new ScheduleChangedEvent(date));
+
+        DaySchedule flipped = new DaySchedule(before.openMask() ^ after.openMask());
+        for (LocalTime time : flipped.slotStarts()) {
+            timeSlotService.publishState(date.atTime(time), after.isOpenAt(time) ? SlotState.AVAILABLE : SlotState.BLOCKED);
+        }
+
+        List<Long> conflicts = bookingRepository
+                .findConflictingBookings(date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+                .stream()
+                .filter(booking -> !fitsHours(booking, after))
+                .map(Booking::getId)
+                .toList();
+        if (!conflicts.isEmpty()) {
+            log.warn("{} booking(s) on {} fall outside the new opening hours: {}", conflicts.size(), date, conflicts);
+        }
+        return conflicts;
+    }
+
+    // Every half-hour the booking touches must be open
+    private boolean fitsHours(Booking booking, DaySchedule day) {
+        LocalDateTime end = booking.getEndTime();
+        for (LocalDateTime t = booking.getStartTime(); t.isBefore(end);
+             t = t.plusMinutes(BusinessCalendarService.SLOT_MINUTES)) {
+            if (!t.toLocalDate().equals(booking.getStartTime().toLocalDate()) || !day.isOpenAt(t.toLocalTime())) {
+                return false;
+            }
+        }
+        return day.isOpenAt(end.minusMinutes(1).toLocalTime());
+    }
+
+    private boolean onGrid(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0
+                && time.getMinute() % BusinessCalendarService.SLOT_MINUTES == 0;
+    }
+
+    private ScheduleExceptionResponse mapToResponse(ScheduleException exception, DaySchedule day, List<Long> conflicts) {
+        return ScheduleExceptionResponse.builder()
+                .date(exception.getExceptionDate())
+                .isAvailable(exception.getIsAvailable())
+                .openTime(exception.getOpenTime())
+                .closeTime(exception.getCloseTime())
+                .reason(exception.getReason())
+                .openSlots(day.slotStarts())
+                .conflictingBookingIds(conflicts)
+                .build();
+    }
+}
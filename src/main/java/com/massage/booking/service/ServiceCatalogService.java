@@ -3,11 +3,14 @@ package com.massage.booking.service;
 import com.massage.booking.dto.request.ServiceRequest;
 import com.massage.booking.dto.response.ServiceResponse;
 import com.massage.booking.entity.enums.ServiceCategory;
+import com.massage.booking.event.CatalogChangedEvent;
 import com.massage.booking.exception.DuplicateResourceException;
 import com.massage.booking.exception.ResourceNotFoundException;
 import com.massage.booking.repository.MassageServiceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +23,7 @@ import java.util.stream.Collectors;
 public class ServiceCatalogService {
 
     private final MassageServiceRepository serviceRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ServiceResponse.AdminServiceResponse create(ServiceRequest request) {
@@ -39,6 +43,7 @@ public class ServiceCatalogService {
         );
 
         com.massage.booking.entity.MassageService saved = serviceRepository.save(service);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getId()));
         log.info("Service created with id: {}", saved.getId());
         return mapToAdminResponse(saved);
     }
@@ -73,6 +78,7 @@ public class ServiceCatalogService {
     }
 
     @Transactional
+    @CacheEvict(value = ReferenceDataService.SERVICES_CACHE, key = "#id")
     public ServiceResponse.AdminServiceResponse update(Long id, ServiceRequest request) {
         com.massage.booking.entity.MassageService service = serviceRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Service", id));
@@ -87,16 +93,19 @@ public class ServiceCatalogService {
         );
 
         com.massage.booking.entity.MassageService updated = serviceRepository.save(service);
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
         log.info("Service updated: {}", id);
         return mapToAdminResponse(updated);
     }
 
     @Transactional
+    @CacheEvict(value = ReferenceDataService.SERVICES_CACHE, key = "#id")
     public void delete(Long id) {
         com.massage.booking.entity.MassageService service = serviceRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Service", id));
         service.deactivate();
         serviceRepository.save(service);
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
         log.info("Service deactivated: {}", id);
     }
 
@@ -0,0 +1,366 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.response.SlotHoldResponse;
+import com.massage.booking.entity.TimeSlot;
+import com.massage.booking.entity.enums.SlotState;
+import com.massage.booking.event.SlotReleasedEvent;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.RejectionReason;
+import com.massage.booking.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temporary slot holds — a checkout hold taken when a client picks a slot, and the hold
+ * behind a waitlist offer. A hold covers its service's whole duration: the hold table maps
+ * every half-hour of [start, end) to the hold, so a booking or hold overlapping any part of it
+ * is rejected, not only one starting at the same time. Half-hours are claimed in ascending order
+ * with atomic compute (no locks, no transaction) and given back on the first one held by someone
+ * else, so the loser of a race gets its CONFLICT here instead of inside the SERIALIZABLE booking
+ * transaction. time_slots.held_until / held_by on every covered row are the durable copy:
+ * availability reads honour them and they are reloaded on startup.
+ *
+ * Expiry is driven by a {@link HoldExpiryWheel} swept once per tick.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotHoldService {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private final TimeSlotService timeSlotService;
+    private final ReferenceDataService referenceDataService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${booking.holds.minutes:5}")
+    private long holdMinutes;
+
+    @Value("${booking.holds.max-per-user:2}")
+    private long maxPerUser;
+
+    // Every covered half-hour → its hold
+    private final Map<LocalDateTime, Hold> holds = new ConcurrentHashMap<>();
+    private final HoldExpiryWheel<Hold> wheel =
+            new HoldExpiryWheel<>(TICKS_PER_WHEEL, TICK_MILLIS, System.currentTimeMillis());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHolds() {
+        // Consecutive held rows with the same holder and expiry are one hold
+        List<TimeSlot> rows = timeSlotService.findActiveHolds().stream()
+                .sorted(Comparator.comparing(TimeSlot::getSlotDateTime))
+                .toList();
+        int loaded = 0;
+        for (int i = 0; i < rows.size(); ) {
+            TimeSlot first = rows.get(i);
+            int next = i + 1;
+            while (next < rows.size() && continues(rows.get(next - 1), rows.get(next))) {
+                next++;
+            }
+            LocalDateTime end = rows.get(next - 1).getSlotDateTime().plusMinutes(BusinessCalendarService.SLOT_MINUTES);
+            Hold hold = new Hold(UUID.randomUUID().toString(), first.getHeldBy(), first.getSlotDateTime(), end,
+                    first.getHeldUntil(), null);
+            if (acquire(hold, new HashMap<>()) != null) {
+                schedule(hold);
+                loaded++;
+            }
+            i = next;
+        }
+        log.info("Loaded {} active slot holds", loaded);
+    }
+
+    /**
+     * Checkout hold for the service's duration — one half-hour when no service is given.
+     * Holding the same slot again extends the caller's hold.
+     */
+    @Transactional
+    public SlotHoldResponse hold(Long userId, LocalDateTime slot, Long serviceId) {
+        if (!timeSlotService.isWorkingDay(slot.toLocalDate()) || !timeSlotService.isWithinOpeningHours(slot)) {
+            throw new BusinessException("Selected time slot is not available", HttpStatus.BAD_REQUEST);
+        }
+        if (slot.isBefore(LocalDateTime.now())) {
+            throw new BusinessException("Cannot hold a slot in the past", HttpStatus.BAD_REQUEST);
+        }
+        long active = holds.values().stream()
+                .filter(h -> h.userId().equals(userId) && !h.start().equals(slot) && h.isActive())
+                .map(Hold::holdId)
+                .distinct()
+                .count();
+        if (active >= maxPerUser) {
+            throw new BusinessException("You can hold at most " + maxPerUser + " slots at a time", HttpStatus.CONFLICT);
+        }
+
+        LocalDateTime end = slot.plusMinutes(serviceId != null
+                ? referenceDataService.getService(serviceId).getTotalMinutes()
+                : BusinessCalendarService.SLOT_MINUTES);
+        Hold requested = new Hold(UUID.randomUUID().toString(), userId, slot, end,
+                LocalDateTime.now().plusMinutes(holdMinutes), null);
+
+        // 1️⃣ Lock-free claim of every covered half-hour — concurrent pickers are rejected without touching the database
+        Map<LocalDateTime, Hold> replaced = new HashMap<>();
+        Hold hold = acquire(requested, replaced);
+        if (hold == null) {
+            throw new BusinessException("Selected time slot is being booked by another client", HttpStatus.CONFLICT,
+                    RejectionReason.CONCURRENT_BOOKING);
+        }
+
+        // 2️⃣ Bookings already overlapping the hold must leave room for it
+        // 3️⃣ Durable copy on every covered row — fails if one was booked or blocked in the meantime
+        if (!timeSlotService.fitsBookings(slot, end) || !holdRows(hold)) {
+            restore(hold, replaced);
+            throw new BusinessException("Selected time slot is not available", HttpStatus.CONFLICT);
+        }
+
+        schedule(hold);
+        log.debug("Slot {}-{} held for user {} until {}", slot, end, userId, hold.expiresAt());
+        return SlotHoldResponse.builder()
+                .holdId(hold.holdId())
+                .startTime(slot)
+                .endTime(hold.end())
+                .expiresAt(hold.expiresAt())
+                .build();
+    }
+
+    /**
+     * Waitlist offer hold for [slot, end) — same table, tagged with the waitlist entry. Never throws.
+     */
+    @Transactional
+    public boolean holdForWaitlist(LocalDateTime slot, LocalDateTime end, Long entryId, Long userId,
+                                   LocalDateTime expiresAt) {
+        Map<LocalDateTime, Hold> replaced = new HashMap<>();
+        Hold hold = acquire(new Hold(UUID.randomUUID().toString(), userId, slot, end, expiresAt, entryId), replaced);
+        if (hold == null) {
+            return false;
+        }
+        if (!holdRows(hold)) {
+            restore(hold, replaced);
+            replaced.forEach((cell, previous) -> {
+                if (previous == null || !previous.isActive()) {
+                    timeSlotService.clearHold(cell, userId);
+                }
+            });
+            return false;
+        }
+        schedule(hold);
+        return true;
+    }
+
+    /**
+     * Startup: re-attaches a waitlist offer to the hold already recorded on time_slots.
+     */
+    public void restoreWaitlistHold(LocalDateTime slot, LocalDateTime end, Long entryId, Long userId,
+                                    LocalDateTime expiresAt) {
+        Hold hold = new Hold(UUID.randomUUID().toString(), userId, slot, end, expiresAt, entryId);
+        for (LocalDateTime cell : hold.cells()) {
+            holds.put(cell, hold);
+        }
+        schedule(hold);
+    }
+
+    @Transactional
+    public void release(Long userId, String holdId) {
+        Hold hold = holds.values().stream()
+                .filter(h -> h.holdId().equals(holdId))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found: " + holdId));
+        if (!hold.userId().equals(userId)) {
+            throw new BusinessException("Cannot release other client's hold", HttpStatus.FORBIDDEN);
+        }
+        if (removeCells(hold)) {
+            for (LocalDateTime cell : hold.cells()) {
+                timeSlotService.clearHold(cell, userId);
+                eventPublisher.publishEvent(new SlotReleasedEvent(cell));
+            }
+        }
+    }
+
+    @Transactional
+    public void releaseWaitlistHold(LocalDateTime slot, Long entryId) {
+        Hold hold = holds.get(slot);
+        if (hold != null && entryId.equals(hold.waitlistEntryId()) && removeCells(hold)) {
+            hold.cells().forEach(cell -> timeSlotService.clearHold(cell, hold.userId()));
+        }
+    }
+
+    /**
+     * Booking path: rejects [start, end) if any half-hour of it is held for another user;
+     * returns the caller's own hold starting at {@code start}, if any.
+     */
+    public Optional<Hold> checkHold(LocalDateTime start, LocalDateTime end, Long userId) {
+        if (isHeldByOther(start, end, userId)) {
+            throw new BusinessException("Selected time slot is on hold for another client", HttpStatus.CONFLICT,
+                    RejectionReason.ON_HOLD);
+        }
+        Hold own = holds.get(start);
+        if (own == null || !own.isActive() || !own.start().equals(start) || !own.userId().equals(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(own);
+    }
+
+    public boolean isHeldByOther(LocalDateTime start, LocalDateTime end, Long userId) {
+        for (LocalDateTime cell = start; cell.isBefore(end); cell = cell.plusMinutes(BusinessCalendarService.SLOT_MINUTES)) {
+            Hold hold = holds.get(cell);
+            if (hold != null && hold.isActive() && !hold.userId().equals(userId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Booking succeeded — the start row's hold columns were cleared by {@link TimeSlot#book()};
+     * the other covered rows are cleared here.
+     */
+    public void consume(LocalDateTime slot, Hold hold) {
+        removeCells(hold);
+        hold.cells().stream()
+                .filter(cell -> !cell.equals(slot))
+                .forEach(cell -> timeSlotService.clearHold(cell, hold.userId()));
+    }
+
+    public boolean isHeld(LocalDateTime slot) {
+        Hold hold = holds.get(slot);
+        return hold != null && hold.isActive();
+    }
+
+    /**
+     * Timer wheel sweep. Expired checkout holds announce their half-hours as released so a
+     * waiting client can be offered them; waitlist holds are expired by the waitlist's own sweep.
+     */
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void expireHolds() {
+        expireDue(System.currentTimeMillis());
+    }
+
+    void expireDue(long nowMillis) {
+        for (Hold hold : wheel.advance(nowMillis)) {
+            if (hold.isActive()) {
+                schedule(hold);   // popped a tick early
+                continue;
+            }
+            // Nothing removed: the hold was extended (replaced), released or consumed meanwhile
+            if (removeCells(hold) && hold.waitlistEntryId() == null) {
+                for (LocalDateTime cell : hold.cells()) {
+                    timeSlotService.publishState(cell, SlotState.AVAILABLE);
+                    eventPublisher.publishEvent(new SlotReleasedEvent(cell));
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims every half-hour of the requested hold, or returns null if another hold covers one
+     * of them. A re-hold of the same start by the same user keeps the existing hold id and
+     * waitlist link, with the later expiry and end. {@code replaced} receives what each claimed
+     * half-hour held before, for {@link #restore}.
+     */
+    private Hold acquire(Hold requested, Map<LocalDateTime, Hold> replaced) {
+        Hold current = holds.get(requested.start());
+        Hold claim = requested;
+        if (current != null && current.isActive() && current.userId().equals(requested.userId())
+                && current.start().equals(requested.start())) {
+            claim = new Hold(
+                    current.holdId(),
+                    current.userId(),
+                    current.start(),
+                    current.end().isAfter(requested.end()) ? current.end() : requested.end(),
+                    current.expiresAt().isAfter(requested.expiresAt()) ? current.expiresAt() : requested.expiresAt(),
+                    current.waitlistEntryId() != null ? current.waitlistEntryId() : requested.waitlistEntryId()
+            );
+        }
+
+        Hold candidate = claim;
+        for (LocalDateTime cell : candidate.cells()) {
+            Hold[] before = new Hold[1];
+            Hold result = holds.compute(cell, (key, existing) -> {
+                before[0] = existing;
+                if (existing == null || !existing.isActive() || existing.holdId().equals(candidate.holdId())) {
+                    return candidate;
+                }
+                return existing;
+            });
+            if (result != candidate) {
+                restore(candidate, replaced);
+                replaced.clear();
+                return null;
+            }
+            replaced.put(cell, before[0]);
+        }
+        return candidate;
+    }
+
+    // Gives the claimed half-hours back to whatever held them before
+    private void restore(Hold claimed, Map<LocalDateTime, Hold> replaced) {
+        replaced.forEach((cell, previous) -> {
+            if (previous == null || !previous.isActive()) {
+                holds.remove(cell, claimed);
+            } else {
+                holds.replace(cell, claimed, previous);
+            }
+        });
+    }
+
+    private boolean removeCells(Hold hold) {
+        boolean removed = false;
+        for (LocalDateTime cell : hold.cells()) {
+            removed |= holds.remove(cell, hold);
+        }
+        return removed;
+    }
+
+    private boolean holdRows(Hold hold) {
+        for (LocalDateTime cell : hold.cells()) {
+            if (!timeSlotService.holdSlot(cell, hold.userId(), hold.expiresAt())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void schedule(Hold hold) {
+        wheel.schedule(hold, hold.expiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static boolean continues(TimeSlot previous, TimeSlot next) {
+        return next.getSlotDateTime().equals(previous.getSlotDateTime().plusMinutes(BusinessCalendarService.SLOT_MINUTES))
+                && next.getHeldBy().equals(previous.getHeldBy())
+                && next.getHeldUntil().equals(previous.getHeldUntil());
+    }
+
+    public record Hold(String holdId, Long userId, LocalDateTime start, LocalDateTime end,
+                       LocalDateTime expiresAt, Long waitlistEntryId) {
+        boolean isActive() {
+            return expiresAt.isAfter(LocalDateTime.now());
+        }
+
+        // Half-hours covered by [start, end)
+        List<LocalDateTime> cells() {
+            List<LocalDateTime> cells = new ArrayList<>();
+            for (LocalDateTime cell = start; cell.isBefore(end); cell = cell.plusMinutes(BusinessCalendarService.SLOT_MINUTES)) {
+                cells.add(cell);
+            }
+            return cells;
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.massage.booking.service;
 
+import com.massage.booking.dto.request.BlockRangeRequest;
+import com.massage.booking.dto.response.BlockRangeResponse;
+import com.massage.booking.entity.Booking;
 import com.massage.booking.entity.TimeSlot;
+import com.massage.booking.entity.enums.SlotState;
+import com.massage.booking.event.SlotReleasedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
 import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.RejectionReason;
+import com.massage.booking.repository.BookingRepository;
 import com.massage.booking.repository.TimeSlotRepository;
-import com.massage.booking.repository.WorkingDayRepository;
+import com.massage.booking.service.BusinessCalendarService.DaySchedule;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,8 +23,14 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -25,40 +40,52 @@ import java.util.stream.Collectors;
 public class TimeSlotService {
 
     private final TimeSlotRepository timeSlotRepository;
-    private final WorkingDayRepository workingDayRepository;
+    private final BookingRepository bookingRepository;
+    private final BusinessCalendarService businessCalendarService;
+    private final ResourceAllocationService resourceAllocationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingMetrics bookingMetrics;
 
-    private static final int SLOT_DURATION_MINUTES = 30;
-    // FIX #5: align with DB schema (database-schema.sql sets open_time = 10:00)
-    private static final LocalTime OPEN_TIME  = LocalTime.of(10, 0);
-    private static final LocalTime CLOSE_TIME = LocalTime.of(20, 0);
+    // Default range window: the whole day, whatever the calendar says its hours are
+    private static final LocalTime DAY_START = LocalTime.MIN;
+    private static final LocalTime DAY_END = LocalTime.of(23, 59);
+    private static final int MAX_RANGE_DAYS = 366;
 
     public boolean isTimeSlotAvailable(LocalDateTime dateTime) {
-        if (!isWorkingDay(dateTime.toLocalDate())) return false;
+        return bookingMetrics.time(BookingMetrics.AVAILABILITY_CHECK, () -> {
+            if (!isWithinOpeningHours(dateTime)) return false;
 
-        LocalTime time = dateTime.toLocalTime();
-        if (time.isBefore(OPEN_TIME) || time.isAfter(CLOSE_TIME.minusMinutes(1))) return false;
-
-        return timeSlotRepository.findBySlotDateTime(dateTime)
-                .map(slot -> slot.getIsAvailable() && !slot.getIsBlocked())
-                .orElse(true);
+            return timeSlotRepository.findBySlotDateTime(dateTime)
+                    .map(slot -> slot.getIsAvailable() && !slot.getIsBlocked() && !slot.isHeld(LocalDateTime.now()))
+                    .orElse(true);
+        });
     }
 
     public List<LocalDateTime> getAvailableSlotsForDate(LocalDate date) {
-        if (!isWorkingDay(date)) return new ArrayList<>();
+        DaySchedule day = businessCalendarService.day(date);
+        if (!day.isOpen()) return new ArrayList<>();
 
         List<TimeSlot> slots = timeSlotRepository.findBySlotDateAndIsAvailableTrueAndIsBlockedFalse(date);
         if (slots.isEmpty()) {
             generateSlotsForDate(date);
             slots = timeSlotRepository.findBySlotDateAndIsAvailableTrueAndIsBlockedFalse(date);
         }
-        return slots.stream().map(TimeSlot::getSlotDateTime).collect(Collectors.toList());
+        // Rows outside the day's hours (shortened by an exception), half-hours where no therapist
+        // or no room is free, and held slots (checkout in progress, waitlist offer) are shown as taken
+        DaySchedule bookable = new DaySchedule(day.openMask() & resourceAllocationService.freeMask(date));
+        LocalDateTime now = LocalDateTime.now();
+        return slots.stream()
+                .filter(slot -> bookable.isOpenAt(slot.getSlotTime()) && !slot.isHeld(now))
+                .map(TimeSlot::getSlotDateTime)
+                .collect(Collectors.toList());
     }
 
     public List<AvailabilityResponse> getAvailabilityForRange(LocalDate startDate, LocalDate endDate) {
         List<AvailabilityResponse> availability = new ArrayList<>();
+        Map<LocalDate, DaySchedule> days = businessCalendarService.days(startDate, endDate);
         LocalDate current = startDate;
         while (!current.isAfter(endDate)) {
-            boolean isWorking = isWorkingDay(current);
+            boolean isWorking = days.get(current).isOpen();
             List<LocalDateTime> slots = isWorking ? getAvailableSlotsForDate(current) : new ArrayList<>();
             availability.add(AvailabilityResponse.builder()
                     .date(current)
@@ -76,6 +103,7 @@ public class TimeSlotService {
                 .orElseGet(() -> createSlot(dateTime));
         slot.block(reason);
         timeSlotRepository.save(slot);
+        publishState(dateTime, SlotState.BLOCKED);
     }
 
     @Transactional
@@ -84,6 +112,86 @@ public class TimeSlotService {
                 .orElseThrow(() -> new BusinessException("Time slot not found", HttpStatus.NOT_FOUND));
         slot.unblock();
         timeSlotRepository.save(slot);
+        publishState(dateTime, SlotState.AVAILABLE);
+    }
+
+    /**
+     * Closes a date span (optionally only a time window of each day) in one transaction:
+     * missing slot rows are batch-inserted already blocked, existing ones are blocked by one
+     * set-based UPDATE. Bookings inside the span are reported, not canceled.
+     */
+    @Transactional
+    public BlockRangeResponse blockRange(BlockRangeRequest request) {
+        LocalTime fromTime = request.getWindowStart() != null ? request.getWindowStart() : DAY_START;
+        LocalTime toTime = request.getWindowEnd() != null ? request.getWindowEnd() : DAY_END;
+        validateRange(request.getStartDate(), request.getEndDate(), fromTime, toTime);
+        log.info("Blocking {} to {} ({}-{}): {}",
+                request.getStartDate(), request.getEndDate(), fromTime, toTime, request.getReason());
+
+        // 1️⃣ One query for the rows that exist, one batch insert for the rest
+        Set<LocalDateTime> existing = new HashSet<>(
+                timeSlotRepository.findSlotDateTimesInRange(request.getStartDate(), request.getEndDate()));
+        List<LocalDateTime> grid = slotGrid(request.getStartDate(), request.getEndDate(), fromTime, toTime);
+        List<TimeSlot> missing = new ArrayList<>();
+        for (LocalDateTime dateTime : grid) {
+            if (!existing.contains(dateTime)) {
+                TimeSlot slot = createSlot(dateTime);
+                slot.block(request.getReason());
+                missing.add(slot);
+            }
+        }
+        timeSlotRepository.saveAll(missing);
+
+        // 2️⃣ One UPDATE for every existing row in the span
+        int updated = timeSlotRepository.blockRange(request.getStartDate(), request.getEndDate(),
+                fromTime, toTime, request.getReason(), LocalDateTime.now());
+
+        // 3️⃣ Bookings that fall inside the blocked window
+        List<Booking> conflicts = findBookingsInWindow(request.getStartDate(), request.getEndDate(), fromTime, toTime);
+
+        grid.forEach(dateTime -> publishState(dateTime, SlotState.BLOCKED));
+        log.info("Range blocked: {} slots updated, {} created, {} conflicting bookings",
+                updated, missing.size(), conflicts.size());
+
+        return BlockRangeResponse.builder()
+                .slotsUpdated(updated)
+                .slotsCreated(missing.size())
+                .conflicts(conflicts.stream()
+                        .map(b -> BlockRangeResponse.ConflictingBooking.builder()
+                                .bookingId(b.getId())
+                                .clientId(b.getClientId())
+                                .startTime(b.getStartTime())
+                                .endTime(b.getEndTime())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Lifts blocks in a date span with one UPDATE; slots that still carry a booking stay unavailable.
+     */
+    @Transactional
+    public BlockRangeResponse unblockRange(BlockRangeRequest request) {
+        LocalTime fromTime = request.getWindowStart() != null ? request.getWindowStart() : DAY_START;
+        LocalTime toTime = request.getWindowEnd() != null ? request.getWindowEnd() : DAY_END;
+        validateRange(request.getStartDate(), request.getEndDate(), fromTime, toTime);
+        log.info("Unblocking {} to {} ({}-{})", request.getStartDate(), request.getEndDate(), fromTime, toTime);
+
+        int updated = timeSlotRepository.unblockRange(request.getStartDate(), request.getEndDate(),
+                fromTime, toTime, LocalDateTime.now());
+
+        Set<LocalDateTime> booked = findBookingsInWindow(request.getStartDate(), request.getEndDate(), fromTime, toTime)
+                .stream()
+                .map(Booking::getStartTime)
+                .collect(Collectors.toSet());
+        slotGrid(request.getStartDate(), request.getEndDate(), fromTime, toTime)
+                .forEach(dateTime -> publishState(dateTime, booked.contains(dateTime) ? SlotState.BOOKED : SlotState.AVAILABLE));
+
+        return BlockRangeResponse.builder()
+                .slotsUpdated(updated)
+                .slotsCreated(0)
+                .conflicts(List.of())
+                .build();
     }
 
     @Transactional
@@ -95,19 +203,142 @@ public class TimeSlotService {
         }
         slot.book();
         timeSlotRepository.save(slot);
+        publishState(dateTime, SlotState.BOOKED);
     }
 
+    /**
+     * Booking path: loads the rows of [start, end) once (locked until the booking transaction ends)
+     * so the availability check and the later {@link #markBooked(TimeSlot)} share the start row.
+     * Working-day validation is left to the caller, which already did it from cache.
+     * A hold by another user on any covered row is rejected; the holder's own hold is consumed by {@link #markBooked}.
+     */
+    @Transactional
+    public TimeSlot claimSlot(LocalDateTime start, LocalDateTime end, Long userId) {
+        if (!isWithinOpeningHours(start)) {
+            throw new BusinessException("Selected time slot is not available", HttpStatus.CONFLICT,
+                    RejectionReason.NOT_AVAILABLE);
+        }
+        List<TimeSlot> covered = timeSlotRepository.findAllInRangeForUpdate(start, end);
+        TimeSlot slot = covered.stream()
+                .filter(row -> row.getSlotDateTime().equals(start))
+                .findFirst()
+                .orElseGet(() -> createSlot(start));
+        if (!slot.getIsAvailable() || slot.getIsBlocked()) {
+            throw new BusinessException("Selected time slot is not available", HttpStatus.CONFLICT,
+                    RejectionReason.NOT_AVAILABLE);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (covered.stream().anyMatch(row -> row.isHeldByOther(userId, now))) {
+            throw new BusinessException("Selected time slot is on hold for another client", HttpStatus.CONFLICT,
+                    RejectionReason.ON_HOLD);
+        }
+        return slot;
+    }
+
+    @Transactional
+    public void markBooked(TimeSlot slot) {
+        timeSlotRepository.save(book(slot));
+    }
+
+    /**
+     * Batch booking: locks the existing rows for all requested times with one query,
+     * acquired in ascending slot order so concurrent batches cannot deadlock.
+     * Times without a row are simply absent from the returned map.
+     */
+    @Transactional
+    public Map<LocalDateTime, TimeSlot> lockSlots(Collection<LocalDateTime> dateTimes) {
+        List<LocalDateTime> sorted = dateTimes.stream().distinct().sorted().toList();
+        Map<LocalDateTime, TimeSlot> locked = new LinkedHashMap<>();
+        for (TimeSlot slot : timeSlotRepository.findAllBySlotDateTimeInForUpdate(sorted)) {
+            locked.put(slot.getSlotDateTime(), slot);
+        }
+        return locked;
+    }
+
+    /**
+     * Marks all given times as booked, reusing rows already locked by {@link #lockSlots}
+     * and creating the missing ones — written with a single saveAll (JDBC-batched updates).
+     */
+    @Transactional
+    public void markAllBooked(Collection<LocalDateTime> dateTimes, Map<LocalDateTime, TimeSlot> locked) {
+        List<TimeSlot> toSave = new ArrayList<>();
+        for (LocalDateTime dateTime : dateTimes) {
+            TimeSlot slot = locked.get(dateTime);
+            if (slot == null) {
+                slot = createSlot(dateTime);
+            }
+            toSave.add(book(slot));
+        }
+        timeSlotRepository.saveAll(toSave);
+    }
+
+    /**
+     * Single UPDATE statement — the slot row is never loaded.
+     * A missing or blocked slot is not an error: there is simply nothing to release.
+     * A real release is announced to the waitlist matcher, which runs after commit.
+     */
     @Transactional
     public void releaseSlot(LocalDateTime dateTime) {
-        TimeSlot slot = timeSlotRepository.findBySlotDateTime(dateTime)
-                .orElseThrow(() -> new BusinessException("Time slot not found", HttpStatus.NOT_FOUND));
-        slot.release();
-        timeSlotRepository.save(slot);
+        int released = timeSlotRepository.releaseBySlotDateTime(dateTime, LocalDateTime.now());
+        if (released == 0) {
+            log.debug("No releasable slot at {} (missing or blocked)", dateTime);
+            return;
+        }
+        eventPublisher.publishEvent(new SlotReleasedEvent(dateTime));
+        publishState(dateTime, SlotState.AVAILABLE);
     }
 
+    /**
+     * Durable side of a slot hold: one conditional UPDATE. Returns false if the slot is
+     * booked, blocked, or held by someone else. A slot without a row is created already held.
+     */
+    @Transactional
+    public boolean holdSlot(LocalDateTime dateTime, Long userId, LocalDateTime until) {
+        int held = timeSlotRepository.holdBySlotDateTime(dateTime, userId, until, LocalDateTime.now());
+        if (held == 0) {
+            if (timeSlotRepository.existsBySlotDateTime(dateTime)) {
+                return false;
+            }
+            TimeSlot slot = createSlot(dateTime);
+            slot.setHeldBy(userId);
+            slot.setHeldUntil(until);
+            timeSlotRepository.save(slot);
+        }
+        publishState(dateTime, SlotState.HELD);
+        return true;
+    }
+
+    @Transactional
+    public void clearHold(LocalDateTime dateTime, Long userId) {
+        if (timeSlotRepository.clearHold(dateTime, userId, LocalDateTime.now()) > 0) {
+            publishState(dateTime, SlotState.AVAILABLE);
+        }
+    }
+
+    /**
+     * Hold path: whether a booking for [start, end) would fit next to the committed bookings.
+     * Not a booking decision — the booking transaction checks again under its locks.
+     */
+    @Transactional(readOnly = true)
+    public boolean fitsBookings(LocalDateTime start, LocalDateTime end) {
+        List<Booking> overlapping = bookingRepository.findActiveOverlapping(start, end);
+        return resourceAllocationService.isEnabled()
+                ? resourceAllocationService.fits(start, end, overlapping)
+                : overlapping.isEmpty();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TimeSlot> findActiveHolds() {
+        return timeSlotRepository.findByHeldUntilAfter(LocalDateTime.now());
+    }
+
+    // Served from the cached calendar (weekly rules + date exceptions) — no query per call
     public boolean isWorkingDay(LocalDate date) {
-        int dayValue = date.getDayOfWeek().getValue();
-        return workingDayRepository.existsByDayOfWeekAndIsActiveTrue(dayValue);
+        return businessCalendarService.isOpen(date);
+    }
+
+    public boolean isWithinOpeningHours(LocalDateTime dateTime) {
+        return businessCalendarService.isOpenAt(dateTime);
     }
 
     /**
@@ -116,7 +347,16 @@ public class TimeSlotService {
      */
     @Transactional
     public void generateSlotsForDate(LocalDate date) {
-        if (!isWorkingDay(date)) return;
+        generateSlots(date, businessCalendarService.day(date));
+    }
+
+    /**
+     * Creates the missing rows for the open slots of the given schedule — used directly when
+     * a schedule exception is saved, before the calendar cache sees the committed change.
+     */
+    @Transactional
+    public void generateSlots(LocalDate date, DaySchedule day) {
+        if (!day.isOpen()) return;
 
         // Load all existing slot datetimes for this date in ONE query
         Set<LocalDateTime> existing = timeSlotRepository
@@ -126,8 +366,7 @@ public class TimeSlotService {
                 .collect(Collectors.toSet());
 
         List<TimeSlot> toSave = new ArrayList<>();
-        LocalTime currentTime = OPEN_TIME;
-        while (currentTime.isBefore(CLOSE_TIME)) {
+        for (LocalTime currentTime : day.slotStarts()) {
             LocalDateTime dateTime = LocalDateTime.of(date, currentTime);
             if (!existing.contains(dateTime) && !timeSlotRepository.existsBySlotDateTime(dateTime)) {
                 toSave.add(TimeSlot.builder()
@@ -138,7 +377,6 @@ public class TimeSlotService {
                         .isBlocked(false)
                         .build());
             }
-            currentTime = currentTime.plusMinutes(SLOT_DURATION_MINUTES);
         }
 
         if (!toSave.isEmpty()) {
@@ -167,6 +405,62 @@ public class TimeSlotService {
         log.info("Slot generation complete for {} working days", totalGenerated);
     }
 
+    private void validateRange(LocalDate startDate, LocalDate endDate, LocalTime fromTime, LocalTime toTime) {
+        if (endDate.isBefore(startDate)) {
+            throw new BusinessException("End date cannot be before start date", HttpStatus.BAD_REQUEST);
+        }
+        // Inclusive range — 366 days means at most 365 days between start and end
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RANGE_DAYS) {
+            throw new BusinessException("Cannot block more than " + MAX_RANGE_DAYS + " days at once", HttpStatus.BAD_REQUEST);
+        }
+        if (!fromTime.isBefore(toTime)) {
+            throw new BusinessException("Window start must be before window end", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Open 30-minute slots of every day in the span that start inside [fromTime, toTime)
+    private List<LocalDateTime> slotGrid(LocalDate startDate, LocalDate endDate, LocalTime fromTime, LocalTime toTime) {
+        List<LocalDateTime> grid = new ArrayList<>();
+        Map<LocalDate, DaySchedule> days = businessCalendarService.days(startDate, endDate);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            for (LocalTime time : days.get(date).slotStarts()) {
+                if (!time.isBefore(fromTime) && time.isBefore(toTime)) {
+                    grid.add(LocalDateTime.of(date, time));
+                }
+            }
+        }
+        return grid;
+    }
+
+    // One query for the span, filtered to the daily window in memory
+    private List<Booking> findBookingsInWindow(LocalDate startDate, LocalDate endDate, LocalTime fromTime, LocalTime toTime) {
+        return bookingRepository.findConflictingBookings(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())
+                .stream()
+                .filter(b -> b.getStartTime().toLocalTime().isBefore(toTime)
+                        && b.getEndTime().isAfter(LocalDateTime.of(b.getStartTime().toLocalDate(), fromTime)))
+                .sorted(Comparator.comparing(Booking::getStartTime))
+                .toList();
+    }
+
+    /**
+     * Announced to availability stream subscribers once the surrounding transaction commits.
+     */
+    public void publishState(LocalDateTime dateTime, SlotState state) {
+        eventPublisher.publishEvent(new SlotStateChangedEvent(dateTime, state));
+    }
+
+    // The row only turns unavailable once no therapist or room is left at that time
+    private TimeSlot book(TimeSlot slot) {
+        if (resourceAllocationService.hasCapacity(slot.getSlotDateTime())) {
+            slot.bookPartially();
+            publishState(slot.getSlotDateTime(), SlotState.AVAILABLE);
+        } else {
+            slot.book();
+            publishState(slot.getSlotDateTime(), SlotState.BOOKED);
+        }
+        return slot;
+    }
+
     private TimeSlot createSlot(LocalDateTime dateTime) {
         return TimeSlot.builder()
                 .slotDate(dateTime.toLocalDate())
@@ -0,0 +1,316 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.request.WaitlistRequest;
+import com.massage.booking.dto.response.WaitlistEntryResponse;
+import com.massage.booking.entity.Booking;
+import com.massage.booking.entity.MassageService;
+import com.massage.booking.entity.User;
+import com.massage.booking.entity.WaitlistEntry;
+import com.massage.booking.entity.enums.WaitlistStatus;
+import com.massage.booking.event.SlotReleasedEvent;
+import com.massage.booking.event.WaitlistOfferAcceptedEvent;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.ResourceNotFoundException;
+import com.massage.booking.repository.BookingRepository;
+import com.massage.booking.repository.UserRepository;
+import com.massage.booking.repository.WaitlistEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Waitlist engine: clients register interest in a date (optionally a time window) for a service.
+ * When a slot is released the matcher scans only that day's queue, held in memory in id order,
+ * holds the slot for the first entry that fits and emails them an offer. An unanswered offer
+ * expires and the slot goes to the next entry.
+ *
+ * The in-memory index and holds are rebuilt from waitlist_entries on startup (single-node design,
+ * like the idempotency cache). The matcher re-reads each candidate row before offering, so the
+ * index may safely contain stale entries.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistService {
+
+    private static final Set<WaitlistStatus> ACTIVE = Set.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED);
+    private static final LocalTime DAY_START = LocalTime.of(0, 0);
+    private static final LocalTime DAY_END = LocalTime.of(23, 59);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final ReferenceDataService referenceDataService;
+    private final TimeSlotService timeSlotService;
+    private final SlotHoldService slotHoldService;
+    private final EmailNotificationService emailNotificationService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${booking.waitlist.offer-minutes:15}")
+    private long offerMinutes;
+
+    @Value("${booking.waitlist.max-active-per-user:5}")
+    private long maxActivePerUser;
+
+    // Per-day FIFO queues of waiting entries — a release only scans its own day
+    private final Map<LocalDate, NavigableMap<Long, Candidate>> index = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        List<WaitlistEntry> waiting = waitlistRepository
+                .findByStatusAndDesiredDateGreaterThanEqualOrderByIdAsc(WaitlistStatus.WAITING, LocalDate.now());
+        waiting.forEach(this::addToIndex);
+
+        List<WaitlistEntry> offered = waitlistRepository.findByStatus(WaitlistStatus.OFFERED);
+        offered.forEach(e -> slotHoldService.restoreWaitlistHold(e.getOfferedSlot(),
+                e.getOfferedSlot().plusMinutes(referenceDataService.getService(e.getServiceId()).getTotalMinutes()),
+                e.getId(), e.getUserId(), e.getOfferExpiresAt()));
+
+        log.info("Waitlist index loaded: {} waiting entries, {} open offers", waiting.size(), offered.size());
+    }
+
+    @Transactional
+    public WaitlistEntryResponse join(Long userId, WaitlistRequest request) {
+        log.info("User {} joining waitlist for service {} on {}", userId, request.getServiceId(), request.getDate());
+
+        // 1️⃣ Rule checks — same horizon and schedule as a booking
+        LocalDate date = request.getDate();
+        if (date.isBefore(LocalDate.now()) || date.isAfter(LocalDate.now().plusDays(BookingService.MAX_ADVANCE_DAYS))) {
+            throw new BusinessException("Cannot join the waitlist more than 3 months in advance", HttpStatus.BAD_REQUEST);
+        }
+        if (!timeSlotService.isWorkingDay(date)) {
+            throw new BusinessException("We are closed on " + date
+                    + " (regular opening days are Thursday through Sunday)", HttpStatus.BAD_REQUEST);
+        }
+        LocalTime windowStart = request.getWindowStart() != null ? request.getWindowStart() : DAY_START;
+        LocalTime windowEnd = request.getWindowEnd() != null ? request.getWindowEnd() : DAY_END;
+        if (!windowStart.isBefore(windowEnd)) {
+            throw new BusinessException("Window start must be before window end", HttpStatus.BAD_REQUEST);
+        }
+        MassageService service = referenceDataService.getService(request.getServiceId());
+
+        // 2️⃣ Per-user limits
+        if (waitlistRepository.existsByUserIdAndServiceIdAndDesiredDateAndStatusIn(
+                userId, service.getId(), date, ACTIVE)) {
+            throw new BusinessException("You are already on the waitlist for this service and date", HttpStatus.CONFLICT);
+        }
+        if (waitlistRepository.countByUserIdAndStatusIn(userId, ACTIVE) >= maxActivePerUser) {
+            throw new BusinessException("You can be on at most " + maxActivePerUser + " waitlists at a time",
+                    HttpStatus.CONFLICT);
+        }
+
+        // 3️⃣ Persist, then index — a rolled-back insert is dropped by the matcher's re-read
+        WaitlistEntry saved = waitlistRepository.save(
+                WaitlistEntry.create(userId, service.getId(), date, windowStart, windowEnd));
+        addToIndex(saved);
+
+        return mapToResponse(saved);
+    }
+
+    @Transactional
+    public void leave(Long userId, Long entryId) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry", entryId));
+        if (!entry.getUserId().equals(userId)) {
+            throw new BusinessException("Cannot remove other client's waitlist entry", HttpStatus.FORBIDDEN);
+        }
+        if (!entry.isActive()) {
+            throw new BusinessException("Waitlist entry is no longer active", HttpStatus.CONFLICT);
+        }
+
+        boolean hadOffer = entry.getStatus() == WaitlistStatus.OFFERED;
+        entry.cancel();
+        waitlistRepository.save(entry);
+        removeFromIndex(entry);
+
+        // A declined offer passes the slot straight on to the next entry
+        if (hadOffer) {
+            slotHoldService.releaseWaitlistHold(entry.getOfferedSlot(), entry.getId());
+            eventPublisher.publishEvent(new SlotReleasedEvent(entry.getOfferedSlot()));
+        }
+        log.info("Waitlist entry {} canceled by user {}", entryId, userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryResponse> getForUser(Long userId) {
+        return waitlistRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    /**
+     * Runs after the releasing transaction commits, off the request thread.
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onSlotReleased(SlotReleasedEvent event) {
+        try {
+            offerSlot(event.slotDateTime());
+        } catch (Exception e) {
+            log.error("Waitlist matching failed for slot {}: {}", event.slotDateTime(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOfferAccepted(WaitlistOfferAcceptedEvent event) {
+        waitlistRepository.findById(event.entryId()).ifPresent(entry -> {
+            entry.fulfil();
+            waitlistRepository.save(entry);
+        });
+        log.info("Waitlist entry {} fulfilled by booking {}", event.entryId(), event.bookingId());
+    }
+
+    /**
+     * Expires unanswered offers (each expiry re-releases its slot to the next entry)
+     * and drops waiting entries whose date has passed.
+     */
+    @Scheduled(fixedDelayString = "${booking.waitlist.sweep-interval-ms:60000}")
+    @Transactional
+    public void expireOffers() {
+        LocalDateTime now = LocalDateTime.now();
+        List<WaitlistEntry> expired = waitlistRepository.findByStatusAndOfferExpiresAtBefore(WaitlistStatus.OFFERED, now);
+        for (WaitlistEntry entry : expired) {
+            entry.expire();
+            slotHoldService.releaseWaitlistHold(entry.getOfferedSlot(), entry.getId());
+            eventPublisher.publishEvent(new SlotReleasedEvent(entry.getOfferedSlot()));
+        }
+        waitlistRepository.saveAll(expired);
+
+        int stale = waitlistRepository.expireWaitingBefore(now.toLocalDate(), now);
+        index.keySet().removeIf(date -> date.isBefore(now.toLocalDate()));
+
+        if (!expired.isEmpty() || stale > 0) {
+            log.info("Waitlist sweep: {} offers expired, {} past-date entries dropped", expired.size(), stale);
+        }
+    }
+
+    /**
+     * Offers the slot to the first waiting entry of that day whose window fits the service.
+     */
+    void offerSlot(LocalDateTime slot) {
+        NavigableMap<Long, Candidate> queue = index.get(slot.toLocalDate());
+        if (queue == null || queue.isEmpty() || slotHoldService.isHeld(slot)) {
+            return;
+        }
+        if (!timeSlotService.isTimeSlotAvailable(slot)) {
+            return;
+        }
+
+        // One query for the day's bookings — each candidate's duration is checked in memory
+        List<Booking> dayBookings = bookingRepository.findConflictingBookings(
+                slot.toLocalDate().atStartOfDay(), slot.toLocalDate().plusDays(1).atStartOfDay());
+
+        for (Candidate candidate : queue.values()) {
+            if (!candidate.fits(slot) || overlapsAny(dayBookings, slot, slot.plusMinutes(candidate.totalMinutes()))) {
+                continue;
+            }
+            if (queue.remove(candidate.entryId()) == null) {
+                continue; // taken by a concurrent matcher
+            }
+
+            WaitlistEntry entry = waitlistRepository.findById(candidate.entryId()).orElse(null);
+            if (entry == null || entry.getStatus() != WaitlistStatus.WAITING) {
+                continue; // canceled, or never committed
+            }
+
+            LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(offerMinutes);
+            if (!slotHoldService.holdForWaitlist(slot, slot.plusMinutes(candidate.totalMinutes()),
+                    entry.getId(), entry.getUserId(), expiresAt)) {
+                queue.put(candidate.entryId(), candidate); // another offer won the slot — keep our place
+                return;
+            }
+
+            entry.offer(slot, expiresAt);
+            waitlistRepository.save(entry);
+            notifyOffer(entry, expiresAt);
+            log.info("Slot {} offered to waitlist entry {} until {}", slot, entry.getId(), expiresAt);
+            return;
+        }
+    }
+
+    private void notifyOffer(WaitlistEntry entry, LocalDateTime expiresAt) {
+        try {
+            User user = userRepository.findById(entry.getUserId()).orElse(null);
+            if (user == null) {
+                return;
+            }
+            MassageService service = referenceDataService.getService(entry.getServiceId());
+            emailNotificationService.sendWaitlistOffer(
+                    user.getEmailAddress(),
+                    user.getName(),
+                    service.getName(),
+                    entry.getOfferedSlot(),
+                    expiresAt
+            );
+        } catch (Exception e) {
+            log.error("Failed to send waitlist offer for entry {}: {}", entry.getId(), e.getMessage());
+        }
+    }
+
+    private void addToIndex(WaitlistEntry entry) {
+        MassageService service = referenceDataService.getService(entry.getServiceId());
+        index.computeIfAbsent(entry.getDesiredDate(), d -> new ConcurrentSkipListMap<>())
+                .put(entry.getId(), new Candidate(
+                        entry.getId(),
+                        entry.getDesiredDate(),
+                        entry.getWindowStart(),
+                        entry.getWindowEnd(),
+                        service.getTotalMinutes()
+                ));
+    }
+
+    private void removeFromIndex(WaitlistEntry entry) {
+        NavigableMap<Long, Candidate> queue = index.get(entry.getDesiredDate());
+        if (queue != null) {
+            queue.remove(entry.getId());
+        }
+    }
+
+    private boolean overlapsAny(List<Booking> bookings, LocalDateTime startTime, LocalDateTime endTime) {
+        return bookings.stream().anyMatch(b -> b.getStartTime().isBefore(endTime) && b.getEndTime().isAfter(startTime));
+    }
+
+    private WaitlistEntryResponse mapToResponse(WaitlistEntry entry) {
+        return WaitlistEntryResponse.builder()
+                .id(entry.getId())
+                .serviceId(entry.getServiceId())
+                .date(entry.getDesiredDate())
+                .windowStart(entry.getWindowStart())
+                .windowEnd(entry.getWindowEnd())
+                .status(entry.getStatus())
+                .offeredSlot(entry.getOfferedSlot())
+                .offerExpiresAt(entry.getOfferExpiresAt())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
+    private record Candidate(Long entryId, LocalDate date, LocalTime windowStart, LocalTime windowEnd, int totalMinutes) {
+        boolean fits(LocalDateTime slot) {
+            return WaitlistEntry.fits(date, windowStart, windowEnd, slot, totalMinutes);
+        }
+    }
+}
@@ -55,6 +55,15 @@ VALUES
     (2, 3, DATE_ADD(NOW(), INTERVAL 5 DAY),  DATE_ADD(DATE_ADD(NOW(), INTERVAL 5 DAY), INTERVAL 85 MINUTE),  'BOOKED',    NULL, NULL, NOW(), NOW()),
     (1, 5, DATE_ADD(NOW(), INTERVAL -2 DAY), DATE_ADD(DATE_ADD(NOW(), INTERVAL -2 DAY), INTERVAL 55 MINUTE), 'COMPLETED', NULL, NULL, NOW(), NOW());
 
+-- 6. THERAPISTS AND ROOMS (each booking is assigned one of each)
+INSERT IGNORE INTO bookable_resources (name, type, active, created_at)
+VALUES
+    ('Therapist 1', 'THERAPIST', true, NOW()),
+    ('Therapist 2', 'THERAPIST', true, NOW()),
+    ('Therapist 3', 'THERAPIST', true, NOW()),
+    ('Room A',      'ROOM',      true, NOW()),
+    ('Room B',      'ROOM',      true, NOW());
+
 -- FIX #4: Removed the partial index (WHERE status = 'BOOKED') — MySQL does NOT support partial indexes.
 -- Regular indexes only:
 CREATE INDEX IF NOT EXISTS idx_bookings_time_range ON bookings(start_time, end_time);
@@ -0,0 +1,79 @@
+package com.massage.booking.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static com.massage.booking.support.QueryCountAssertions.assertStatements;
+import static com.massage.booking.support.QueryCountAssertions.count;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryMetricsDataSourceTest {
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:query-metrics;DB_CLOSE_DELAY=-1");
+        dataSource = QueryMetricsDataSource.wrap(h2);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS slot");
+            statement.execute("CREATE TABLE slot (id INT PRIMARY KEY)");
+        }
+    }
+
+    @Test
+    void shouldCountStatementsRowsAndTime() {
+        QueryStats.Scope scope = count(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO slot (id) VALUES (?)")) {
+                    for (int id = 1; id <= 3; id++) {
+                        insert.setInt(1, id);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                try (PreparedStatement select = connection.prepareStatement("SELECT id FROM slot");
+                     ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getInt(1);
+                    }
+                }
+            }
+        });
+
+        assertThat(scope.getStatements()).isEqualTo(2);   // one batch + one query
+        assertThat(scope.getRows()).isEqualTo(6);          // 3 written + 3 read
+        assertThat(scope.getJdbcNanos()).isPositive();
+    }
+
+    @Test
+    void nestedScopes_shouldEachSeeTheirOwnStatements() {
+        QueryStats.Scope outer = count(() -> {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.executeQuery("SELECT 1").close();
+                assertStatements(2, () -> {
+                    statement.executeQuery("SELECT 1").close();
+                    statement.executeQuery("SELECT 1").close();
+                });
+            }
+        });
+
+        assertThat(outer.getStatements()).isEqualTo(3);
+    }
+
+    @Test
+    void withoutScope_shouldRecordNothingAndStillWork() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            assertThat(statement.executeUpdate("INSERT INTO slot (id) VALUES (9)")).isEqualTo(1);
+        }
+        assertThat(dataSource.isWrapperFor(JdbcDataSource.class)).isTrue();
+    }
+}
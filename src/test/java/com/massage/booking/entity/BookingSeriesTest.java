@@ -0,0 +1,49 @@
+package com.massage.booking.entity;
+
+import com.massage.booking.entity.enums.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingSeriesTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2030, 1, 3, 11, 0); // a Thursday
+
+    @Test
+    void shouldOnlyMaterializeUpToHorizon() {
+        BookingSeries series = BookingSeries.create(1L, 1L, RecurrenceRule.WEEKLY, FIRST, LocalDate.of(2030, 12, 31));
+
+        List<LocalDateTime> occurrences = series.pendingOccurrencesUntil(LocalDate.of(2030, 1, 20));
+
+        assertEquals(List.of(FIRST, FIRST.plusWeeks(1), FIRST.plusWeeks(2)), occurrences);
+    }
+
+    @Test
+    void shouldSkipAlreadyMaterializedOccurrences() {
+        BookingSeries series = BookingSeries.create(1L, 1L, RecurrenceRule.BIWEEKLY, FIRST, LocalDate.of(2030, 12, 31));
+        series.markMaterializedUntil(LocalDate.of(2030, 1, 20));
+
+        List<LocalDateTime> occurrences = series.pendingOccurrencesUntil(LocalDate.of(2030, 2, 5));
+
+        assertEquals(List.of(FIRST.plusWeeks(4)), occurrences);
+    }
+
+    @Test
+    void shouldStopAtEndDate() {
+        BookingSeries series = BookingSeries.create(1L, 1L, RecurrenceRule.WEEKLY, FIRST, LocalDate.of(2030, 1, 12));
+        series.markMaterializedUntil(LocalDate.of(2030, 6, 1));
+
+        assertTrue(series.isFullyMaterialized());
+        assertEquals(LocalDate.of(2030, 1, 12), series.getMaterializedUntil());
+    }
+
+    @Test
+    void shouldRejectEndDateBeforeFirstOccurrence() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingSeries.create(1L, 1L, RecurrenceRule.WEEKLY, FIRST, LocalDate.of(2029, 12, 1)));
+    }
+}
@@ -0,0 +1,119 @@
+package com.massage.booking.security;
+
+import com.massage.booking.security.AdmissionGate.EndpointGroup;
+import com.massage.booking.security.AdmissionGate.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionGateTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionGate gate;
+
+    @BeforeEach
+    void setUp() {
+        gate = new AdmissionGate(meterRegistry);
+        ReflectionTestUtils.setField(gate, "enabled", true);
+        ReflectionTestUtils.setField(gate, "initialLimit", 10);
+        ReflectionTestUtils.setField(gate, "minLimit", 2);
+        ReflectionTestUtils.setField(gate, "maxLimit", 20);
+        ReflectionTestUtils.setField(gate, "latencyTolerance", 2.0);
+        ReflectionTestUtils.setField(gate, "windowSize", 5);
+        ReflectionTestUtils.setField(gate, "queueTimeoutMs", 0L);
+        ReflectionTestUtils.setField(gate, "maxQueue", 10);
+        ReflectionTestUtils.setField(gate, "lowShare", 0.5);
+        ReflectionTestUtils.setField(gate, "normalShare", 0.8);
+        ReflectionTestUtils.setField(gate, "publicReadMaxConcurrent", 100);
+        ReflectionTestUtils.setField(gate, "authMaxConcurrent", 3);
+        gate.init();
+    }
+
+    @Test
+    void anonymousReads_shouldBeShedWhileWritesStillGetIn() {
+        List<AdmissionGate.Permit> held = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            held.add(gate.admit(EndpointGroup.PUBLIC_READ, Priority.LOW));
+        }
+
+        assertThat(held).doesNotContainNull();
+        assertThat(gate.admit(EndpointGroup.PUBLIC_READ, Priority.LOW)).isNull();
+        assertThat(gate.admit(EndpointGroup.BOOKING_WRITE, Priority.CRITICAL)).isNotNull();
+        assertThat(meterRegistry.get("http.admission.requests")
+                .tags("group", "public_read", "priority", "low", "outcome", "rejected").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void groupCap_shouldLimitOneGroupWithoutTouchingOthers() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(gate.admit(EndpointGroup.AUTH, Priority.NORMAL)).isNotNull();
+        }
+
+        assertThat(gate.admit(EndpointGroup.AUTH, Priority.NORMAL)).isNull();
+        assertThat(gate.admit(EndpointGroup.OTHER, Priority.NORMAL)).isNotNull();
+    }
+
+    @Test
+    void queuedRequest_shouldBeAdmittedWhenAPermitIsReleased() throws Exception {
+        ReflectionTestUtils.setField(gate, "queueTimeoutMs", 2000L);
+        List<AdmissionGate.Permit> held = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            held.add(gate.admit(EndpointGroup.BOOKING_WRITE, Priority.CRITICAL));
+        }
+
+        CompletableFuture<AdmissionGate.Permit> queued =
+                CompletableFuture.supplyAsync(() -> gate.admit(EndpointGroup.BOOKING_WRITE, Priority.CRITICAL));
+        Thread.sleep(50);
+        held.getFirst().release(true);
+
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void adaptiveLimit_shouldShrinkWhenLatencyClimbsAboveBaseline() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 20, 2.0, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limit.tryAcquire(1.0)).isTrue();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire(1.0);
+            limit.release(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertThat(limit.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void adaptiveLimit_shouldGrowWhenSaturatedAndHealthy() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 20, 2.0, 2);
+
+        assertThat(limit.tryAcquire(1.0)).isTrue();
+        assertThat(limit.tryAcquire(1.0)).isTrue();
+        assertThat(limit.tryAcquire(1.0)).isFalse();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10));
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void priority_shouldFollowAuthenticationAndMethod() {
+        assertThat(AdmissionFilter.priorityFor(EndpointGroup.PUBLIC_READ, true, false)).isEqualTo(Priority.LOW);
+        assertThat(AdmissionFilter.priorityFor(EndpointGroup.PUBLIC_READ, true, true)).isEqualTo(Priority.NORMAL);
+        assertThat(AdmissionFilter.priorityFor(EndpointGroup.BOOKING_WRITE, false, true)).isEqualTo(Priority.CRITICAL);
+        assertThat(AdmissionFilter.groupFor("/v1/availability/slots", true)).isEqualTo(EndpointGroup.PUBLIC_READ);
+        assertThat(AdmissionFilter.groupFor("/v1/bookings", false)).isEqualTo(EndpointGroup.BOOKING_WRITE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.massage.booking.security;
+
+import com.massage.booking.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AuthRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new AuthRateLimiter(meterRegistry);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "maxKeys", 1000L);
+        ReflectionTestUtils.setField(limiter, "loginCapacity", 3);
+        ReflectionTestUtils.setField(limiter, "loginPerMinute", 60);
+        ReflectionTestUtils.setField(limiter, "loginEmailCapacity", 2);
+        ReflectionTestUtils.setField(limiter, "loginEmailPerMinute", 1);
+        ReflectionTestUtils.setField(limiter, "registerCapacity", 1);
+        ReflectionTestUtils.setField(limiter, "registerPerMinute", 1);
+        ReflectionTestUtils.setField(limiter, "refreshCapacity", 1);
+        ReflectionTestUtils.setField(limiter, "refreshPerMinute", 1);
+        limiter.init();
+    }
+
+    @Test
+    void bucket_shouldAllowBurstThenRefillOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(3, SECOND, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND);
+
+        assertThat(bucket.tryAcquire(SECOND)).isZero();
+        assertThat(bucket.tryAcquire(SECOND)).isPositive();
+        assertThat(bucket.tryAcquire(10 * SECOND)).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldKeepSeparateBucketsPerKey() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(AuthRateLimiter.LOGIN, "10.0.0.1")).isZero();
+        }
+
+        assertThat(limiter.tryAcquire(AuthRateLimiter.LOGIN, "10.0.0.1")).isPositive();
+        assertThat(limiter.tryAcquire(AuthRateLimiter.LOGIN, "10.0.0.2")).isZero();
+        assertThat(meterRegistry.get("auth.rate_limit.requests")
+                .tags("group", "login", "outcome", "rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void checkLoginEmail_shouldThrottleAcrossCaseAndWhitespace() {
+        limiter.checkLoginEmail("ana@example.com");
+        limiter.checkLoginEmail(" ANA@example.com");
+
+        assertThatThrownBy(() -> limiter.checkLoginEmail("ana@example.com"))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void groupFor_shouldOnlyLimitAuthPosts() {
+        assertThat(AuthRateLimiter.groupFor("POST", "/v1/auth/login")).isEqualTo(AuthRateLimiter.LOGIN);
+        assertThat(AuthRateLimiter.groupFor("POST", "/v1/auth/refresh")).isEqualTo(AuthRateLimiter.REFRESH);
+        assertThat(AuthRateLimiter.groupFor("GET", "/v1/auth/login")).isNull();
+        assertThat(AuthRateLimiter.groupFor("POST", "/v1/bookings")).isNull();
+    }
+
+    @Test
+    void disabled_shouldAllowEverything() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(AuthRateLimiter.REGISTER, "10.0.0.1")).isZero();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.massage.booking.security;
 
+import com.massage.booking.entity.enums.Role;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -25,7 +26,7 @@ class JwtUtilTest {
 
     @Test
     void shouldGenerateToken() {
-        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT");
+        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT", 1L, null);
 
         assertNotNull(token);
         assertFalse(token.isEmpty());
@@ -35,15 +36,15 @@ class JwtUtilTest {
 
     @Test
     void shouldExtractPhoneFromToken() {
-        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT");
-        String phone = jwtUtil.extractPhone(token);
+        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT", 1L, null);
+        String phone = jwtUtil.extractEmail(token);
 
         assertEquals("+34612345678", phone);
     }
 
     @Test
     void shouldExtractRoleFromToken() {
-        String token = jwtUtil.generateToken("+34612345678", "ROLE_ADMIN");
+        String token = jwtUtil.generateToken("+34612345678", "ROLE_ADMIN", 1L, null);
         String role = jwtUtil.extractRole(token);
 
         assertEquals("ROLE_ADMIN", role);
@@ -51,7 +52,7 @@ class JwtUtilTest {
 
     @Test
     void shouldValidateValidToken() {
-        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT");
+        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT", 1L, null);
 
         assertTrue(jwtUtil.validateToken(token));
     }
@@ -63,7 +64,7 @@ class JwtUtilTest {
 
     @Test
     void shouldRejectTamperedToken() {
-        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT");
+        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT", 1L, null);
         String tampered = token + "tampered";
 
         assertFalse(jwtUtil.validateToken(tampered));
@@ -71,8 +72,42 @@ class JwtUtilTest {
 
     @Test
     void shouldNotExpireBeforeTime() {
-        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT");
+        String token = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT", 1L, null);
 
         assertFalse(jwtUtil.isTokenExpired(token));
     }
+
+    @Test
+    void shouldGiveEveryTokenItsOwnId() {
+        String first = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT", 1L, null);
+        String second = jwtUtil.generateToken("+34612345678", "ROLE_CLIENT", 1L, null);
+
+        assertNotNull(jwtUtil.extractTokenId(first));
+        assertNotEquals(jwtUtil.extractTokenId(first), jwtUtil.extractTokenId(second));
+    }
+
+    @Test
+    void shouldRebuildPrincipalFromClaims() {
+        String token = jwtUtil.generateToken("john@example.com", "ROLE_SUBADMIN", 7L, 12L);
+
+        AuthenticatedUser principal = jwtUtil.toPrincipal(jwtUtil.parseValid(token).orElseThrow());
+
+        assertEquals(7L, principal.userId());
+        assertEquals(12L, principal.clientId());
+        assertEquals("john@example.com", principal.getUsername());
+        assertEquals(Role.ROLE_SUBADMIN, principal.role());
+        assertTrue(principal.isAdminOrSubAdmin());
+    }
+
+    @Test
+    void shouldNotParseTamperedToken() {
+        String token = jwtUtil.generateToken("john@example.com", "ROLE_CLIENT", 7L, null);
+
+        String[] parts = token.split("\\.");
+        // Change one claim character — the signature no longer matches the payload
+        char original = parts[1].charAt(10);
+        String payload = parts[1].substring(0, 10) + (original == 'A' ? 'B' : 'A') + parts[1].substring(11);
+
+        assertTrue(jwtUtil.parseValid(parts[0] + "." + payload + "." + parts[2]).isEmpty());
+    }
 }
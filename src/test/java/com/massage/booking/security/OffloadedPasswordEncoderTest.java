@@ -0,0 +1,109 @@
+package com.massage.booking.security;
+
+import com.massage.booking.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffloadedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OffloadedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void encodeAndMatch_shouldRunOnThePool() {
+        encoder = new OffloadedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, 5000, meterRegistry);
+
+        String hash = encoder.encode("Secure123!");
+
+        assertThat(encoder.matches("Secure123!", hash)).isTrue();
+        assertThat(encoder.matches("Wrong123!", hash)).isFalse();
+        assertThat(meterRegistry.get("auth.password.hash").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void saturatedPool_shouldRejectImmediatelyWith429() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new OffloadedPasswordEncoder(blocking(started, release), 1, 1, 5000, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        awaitQueued();
+
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        release.countDown();
+        assertThat(running.get(1, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(meterRegistry.get("auth.password.rejected").tag("reason", "saturated").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void slowHash_shouldTimeOutWith503() {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new OffloadedPasswordEncoder(blocking(started, release), 1, 1, 50, meterRegistry);
+
+        assertThatThrownBy(() -> encoder.encode("a"))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        release.countDown();
+    }
+
+    @Test
+    void upgradeEncoding_shouldFlagHashesBelowTheConfiguredStrength() {
+        encoder = new OffloadedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, 5000, meterRegistry);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("Secure123!"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("Secure123!"))).isFalse();
+    }
+
+    private void awaitQueued() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (meterRegistry.get("auth.password.queue").gauge().value() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private PasswordEncoder blocking(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.massage.booking.security;
+
+import com.massage.booking.entity.User;
+import com.massage.booking.entity.enums.CacheRegion;
+import com.massage.booking.entity.enums.Role;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.UserChangedEvent;
+import com.massage.booking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalRevalidatorTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private PrincipalRevalidator revalidator;
+
+    private final AuthenticatedUser subAdmin = new AuthenticatedUser(7L, null, "ana@example.com", Role.ROLE_SUBADMIN);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revalidator, "revalidationIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(revalidator, "maxUsers", 100L);
+        revalidator.initCache();
+    }
+
+    @Test
+    void shouldHitTheDatabaseOncePerInterval() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(Role.ROLE_SUBADMIN, true)));
+
+        assertTrue(revalidator.isCurrent(subAdmin));
+        assertTrue(revalidator.isCurrent(subAdmin));
+
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void shouldRefuseTokenAfterDemotion() {
+        when(userRepository.findById(7L))
+                .thenReturn(Optional.of(user(Role.ROLE_SUBADMIN, true)))
+                .thenReturn(Optional.of(user(Role.ROLE_CLIENT, true)));
+        assertTrue(revalidator.isCurrent(subAdmin));
+
+        revalidator.onUserChanged(new UserChangedEvent(7L));
+
+        assertFalse(revalidator.isCurrent(subAdmin));
+    }
+
+    @Test
+    void shouldRefuseTokenOfDeactivatedUserAfterRemoteInvalidation() {
+        when(userRepository.findById(7L))
+                .thenReturn(Optional.of(user(Role.ROLE_SUBADMIN, true)))
+                .thenReturn(Optional.of(user(Role.ROLE_SUBADMIN, false)));
+        assertTrue(revalidator.isCurrent(subAdmin));
+
+        revalidator.onCacheInvalidated(new CacheInvalidatedEvent(CacheRegion.PRINCIPAL, "7"));
+
+        assertFalse(revalidator.isCurrent(subAdmin));
+    }
+
+    @Test
+    void shouldRefuseTokenOfDeletedUser() {
+        when(userRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertFalse(revalidator.isCurrent(subAdmin));
+    }
+
+    private User user(Role role, boolean active) {
+        User user = new User();
+        user.setId(7L);
+        user.setRole(role);
+        user.setActive(active);
+        return user;
+    }
+}
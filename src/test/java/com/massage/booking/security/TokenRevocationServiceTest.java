@@ -0,0 +1,80 @@
+package com.massage.booking.security;
+
+import com.massage.booking.entity.RevokedToken;
+import com.massage.booking.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenRevocationService, "expectedEntries", 4);
+        tokenRevocationService.init();
+    }
+
+    @Test
+    void revoke_shouldPersistAndApplyLocallyAtOnce() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+
+        tokenRevocationService.revoke("jti-1", expiresAt);
+        tokenRevocationService.revoke("jti-1", expiresAt);
+
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        assertFalse(tokenRevocationService.isRevoked("jti-2"));
+        assertFalse(tokenRevocationService.isRevoked(null));
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void poll_shouldPickUpRevocationsFromOtherNodes() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        tokenRevocationService.load();
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqual(any()))
+                .thenReturn(List.of(revoked("remote-jti")));
+
+        tokenRevocationService.poll();
+
+        assertTrue(tokenRevocationService.isRevoked("remote-jti"));
+    }
+
+    @Test
+    void growingPastCapacity_shouldKeepEveryEntry() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+        for (int i = 0; i < 50; i++) {
+            tokenRevocationService.revoke("jti-" + i, expiresAt);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(tokenRevocationService.isRevoked("jti-" + i));
+        }
+        assertFalse(tokenRevocationService.isRevoked("jti-50"));
+    }
+
+    private RevokedToken revoked(String jti) {
+        return RevokedToken.builder()
+                .jti(jti)
+                .expiresAt(LocalDateTime.now().plusMinutes(10))
+                .revokedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -1,22 +1,35 @@
 package com.massage.booking.service;
 
+import com.massage.booking.dto.request.LoginRequest;
+import com.massage.booking.dto.request.RefreshTokenRequest;
 import com.massage.booking.dto.request.RegisterRequest;
 import com.massage.booking.dto.response.AuthResponse;
 import com.massage.booking.entity.User;
+import com.massage.booking.entity.enums.Role;
+import com.massage.booking.entity.valueobject.Email;
 import com.massage.booking.entity.valueobject.Phone;
 import com.massage.booking.exception.DuplicateResourceException;
+import com.massage.booking.repository.ClientRepository;
 import com.massage.booking.repository.UserRepository;
+import com.massage.booking.exception.UnauthorizedException;
 import com.massage.booking.security.JwtUtil;
+import com.massage.booking.security.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,12 +38,24 @@ class AuthServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ClientRepository clientRepository;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private EmailNotificationService emailNotificationService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -48,31 +73,115 @@ class AuthServiceTest {
 
     @Test
     void shouldRegisterNewUser() {
-        when(userRepository.existsByPhone(any(Phone.class))).thenReturn(false);
-        when(userRepository.existsByEmail(any())).thenReturn(false);
         when(passwordEncoder.encode(any())).thenReturn("hashed");
-        when(jwtUtil.generateToken(any(), any())).thenReturn("token123");
+        when(jwtUtil.generateToken(any(), any(), any(), any())).thenReturn("token123");
+        when(refreshTokenService.issue(1L)).thenReturn("refresh123");
 
         User savedUser = new User();
         savedUser.setId(1L);
         savedUser.setName("John Doe");
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
 
         AuthResponse response = authService.register(validRequest);
 
         assertNotNull(response);
         assertNotNull(response.getToken());
         assertEquals("Bearer", response.getType());
-        verify(userRepository).save(any(User.class));
+        assertEquals("refresh123", response.getRefreshToken());
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByPhone(any());
+        verify(userRepository, never()).existsByEmail(any());
     }
 
     @Test
     void shouldThrowExceptionWhenPhoneExists() {
-        when(userRepository.existsByPhone(any(Phone.class))).thenReturn(true);
+        when(passwordEncoder.encode(any())).thenReturn("hashed");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey("users." + User.UK_PHONE));
+
+        DuplicateResourceException ex = assertThrows(DuplicateResourceException.class,
+                () -> authService.register(validRequest));
+
+        assertTrue(ex.getMessage().startsWith("Phone number already registered"));
+        verify(emailNotificationService, never()).sendWelcomeEmail(any(), any());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenEmailExists() {
+        when(passwordEncoder.encode(any())).thenReturn("hashed");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey("users." + User.UK_EMAIL));
 
-        assertThrows(DuplicateResourceException.class,
+        DuplicateResourceException ex = assertThrows(DuplicateResourceException.class,
                 () -> authService.register(validRequest));
 
+        assertTrue(ex.getMessage().startsWith("Email already registered"));
+    }
+
+    @Test
+    void shouldUpgradeWeakHashWithConditionalUpdateAfterLogin() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("John Doe");
+        user.setPhone(Phone.of("+34612345678"));
+        user.setEmail(Email.of("john@example.com"));
+        user.setRole(Role.ROLE_CLIENT);
+        user.setActive(true);
+        user.setPasswordHash("weak");
+        when(userRepository.findByEmailAndActiveTrue(any())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("Secure123!", "weak")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("weak")).thenReturn(true);
+        when(passwordEncoder.encode("Secure123!")).thenReturn("strong");
+        when(userRepository.replacePasswordHash(eq(1L), eq("weak"), eq("strong"), any())).thenReturn(1);
+        when(jwtUtil.generateToken(any(), any(), any(), any())).thenReturn("token123");
+
+        AuthResponse response = authService.login(new LoginRequest("john@example.com", "Secure123!"));
+
+        assertEquals("token123", response.getToken());
+        verify(userRepository).replacePasswordHash(eq(1L), eq("weak"), eq("strong"), any());
         verify(userRepository, never()).save(any());
     }
+
+    @Test
+    void shouldRefreshWithRotatedToken() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("John Doe");
+        when(refreshTokenService.rotate("old")).thenReturn(new RefreshTokenService.Rotation(1L, "next"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(jwtUtil.generateToken(any(), any(), any(), any())).thenReturn("token123");
+
+        AuthResponse response = authService.refresh(new RefreshTokenRequest("old"));
+
+        assertEquals("token123", response.getToken());
+        assertEquals("next", response.getRefreshToken());
+    }
+
+    @Test
+    void shouldRejectRefreshForDeactivatedUser() {
+        User user = new User();
+        user.setId(1L);
+        user.setActive(false);
+        when(refreshTokenService.rotate("old")).thenReturn(new RefreshTokenService.Rotation(1L, "next"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThrows(UnauthorizedException.class, () -> authService.refresh(new RefreshTokenRequest("old")));
+        verify(jwtUtil, never()).generateToken(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldRevokeAccessAndRefreshTokensOnLogout() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+        when(jwtUtil.validateToken("access")).thenReturn(true);
+        when(jwtUtil.extractTokenId("access")).thenReturn("jti-1");
+        when(jwtUtil.extractExpiration("access")).thenReturn(expiresAt);
+
+        authService.logout("Bearer access", "refresh");
+
+        verify(tokenRevocationService).revoke("jti-1", expiresAt);
+        verify(refreshTokenService).revoke("refresh");
+    }
+
+    private DataIntegrityViolationException duplicateKey(String key) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Duplicate entry 'x' for key '" + key + "'"));
+    }
 }
\ No newline at end of file
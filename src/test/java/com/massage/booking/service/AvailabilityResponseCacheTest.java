@@ -0,0 +1,108 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.enums.CacheRegion;
+import com.massage.booking.entity.enums.SlotState;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.ResourcesChangedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityResponseCacheTest {
+
+    @Mock private TimeSlotService timeSlotService;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final ContentVersionService versions = new ContentVersionService();
+    private final LocalDate day = LocalDate.of(2030, 1, 3);
+
+    private AvailabilityResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AvailabilityResponseCache(timeSlotService, versions, jsonMapper,
+                new BookingMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(cache, "maxDays", 100L);
+        cache.initCache();
+    }
+
+    @Test
+    void shouldServeRepeatReadsFromBytesWithoutTouchingSlots() {
+        when(timeSlotService.isWorkingDay(day)).thenReturn(true);
+        when(timeSlotService.getAvailableSlotsForDate(day)).thenReturn(List.of(day.atTime(10, 0)));
+
+        byte[] first = cache.slotsJson(day);
+        byte[] second = cache.slotsJson(day);
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first, StandardCharsets.UTF_8)).contains("2030-01-03T10:00");
+        verify(timeSlotService, times(1)).getAvailableSlotsForDate(day);
+    }
+
+    @Test
+    void shouldRebuildOnlyTheChangedDay() {
+        LocalDate nextDay = day.plusDays(1);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.getAvailableSlotsForDate(any())).thenReturn(List.of(day.atTime(10, 0)));
+        cache.rangeJson(day, nextDay);
+
+        SlotStateChangedEvent event = new SlotStateChangedEvent(day.atTime(10, 0), SlotState.BOOKED);
+        versions.onSlotStateChanged(event);
+        cache.onSlotStateChanged(event);
+        cache.rangeJson(day, nextDay);
+
+        verify(timeSlotService, times(2)).getAvailableSlotsForDate(day);
+        verify(timeSlotService, times(1)).getAvailableSlotsForDate(nextDay);
+    }
+
+    @Test
+    void shouldRebuildEveryDayWhenResourcesChange() {
+        LocalDate nextDay = day.plusDays(1);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.getAvailableSlotsForDate(any())).thenReturn(List.of(day.atTime(10, 0)));
+        String before = versions.rangeETag(day, nextDay);
+        String untouched = versions.dayETag(day.plusDays(30));
+        cache.rangeJson(day, nextDay);
+
+        ResourcesChangedEvent local = new ResourcesChangedEvent(3L);
+        versions.onResourcesChanged(local);
+        cache.onResourcesChanged(local);
+        cache.rangeJson(day, nextDay);
+        // Same for a therapist deactivated on another node
+        CacheInvalidatedEvent remote = new CacheInvalidatedEvent(CacheRegion.RESOURCES, "*");
+        versions.onCacheInvalidated(remote);
+        cache.onCacheInvalidated(remote);
+        cache.rangeJson(day, nextDay);
+
+        verify(timeSlotService, times(3)).getAvailableSlotsForDate(day);
+        verify(timeSlotService, times(3)).getAvailableSlotsForDate(nextDay);
+        assertThat(versions.rangeETag(day, nextDay)).isNotEqualTo(before);
+        assertThat(versions.dayETag(day.plusDays(30))).isNotEqualTo(untouched);
+    }
+
+    @Test
+    void rangeShouldBeValidJsonArrayOfDays() {
+        when(timeSlotService.isWorkingDay(any())).thenReturn(false);
+
+        JsonNode range = jsonMapper.readTree(cache.rangeJson(day, day.plusDays(2)));
+
+        assertThat(range.isArray()).isTrue();
+        assertThat(range.size()).isEqualTo(3);
+        assertThat(range.get(0).get("date").asString()).isEqualTo("2030-01-03");
+    }
+}
@@ -0,0 +1,150 @@
+package com.massage.booking.service;
+
+import com.massage.booking.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingLockServiceTest {
+
+    private static final LocalDateTime SLOT = LocalDate.of(2030, 1, 3).atTime(10, 0);
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookingLockService lockService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lockService = new BookingLockService(null, meterRegistry);
+        ReflectionTestUtils.setField(lockService, "stripeCount", 64);
+        ReflectionTestUtils.setField(lockService, "waitMs", 100L);
+        lockService.init();
+    }
+
+    @Test
+    void sameStartTime_shouldTimeOutInTheJvmWhileItIsLocked() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> lockService.withSlotLock(SLOT, () -> {
+            holding.countDown();
+            await(release);
+            return "first";
+        }));
+        assertThat(holding.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> lockService.withSlotLock(SLOT, () -> "second"))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        release.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(lockService.withSlotLock(SLOT, () -> "third")).isEqualTo("third");
+        assertThat(meterRegistry.get("booking.lock.timeouts").tag("layer", "jvm").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("booking.lock.wait").tag("layer", "jvm").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void otherStartTimesOfTheSameDay_shouldNotWait_butABatchCoveringTheLockedOneShould() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> lockService.withSlotLock(SLOT, () -> {
+            holding.countDown();
+            await(release);
+            return "first";
+        }));
+        assertThat(holding.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(lockService.withSlotLock(SLOT.plusHours(2), () -> "later")).isEqualTo("later");
+        assertThat(lockService.withSlotLocks(List.of(SLOT.plusHours(2), SLOT.plusDays(7)), () -> "free"))
+                .isEqualTo("free");
+        assertThatThrownBy(() -> lockService.withSlotLocks(List.of(SLOT.plusDays(7), SLOT), () -> "batch"))
+                .isInstanceOf(BusinessException.class);
+
+        release.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("first");
+    }
+
+    @Test
+    void attempts_shouldBeCountedWhetherOrNotTheyAreRejected() {
+        lockService.withSlotLock(SLOT, () -> "ok");
+        assertThatThrownBy(() -> lockService.withSlotLock(SLOT, () -> {
+            throw new BusinessException("Time slot already booked", HttpStatus.CONFLICT);
+        })).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> lockService.withSlotLock(SLOT, () -> {
+            throw new BusinessException("Invalid", HttpStatus.BAD_REQUEST);
+        })).isInstanceOf(BusinessException.class);
+
+        assertThat(meterRegistry.get("booking.create.attempts").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void advisoryLocks_shouldNotPinMoreConnectionsThanTheSessionCap() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(1L);
+
+        lockService = new BookingLockService(dataSource, meterRegistry);
+        ReflectionTestUtils.setField(lockService, "stripeCount", 64);
+        ReflectionTestUtils.setField(lockService, "waitMs", 100L);
+        ReflectionTestUtils.setField(lockService, "advisoryEnabled", true);
+        ReflectionTestUtils.setField(lockService, "advisoryMaxSessions", 1);
+        lockService.init();
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> lockService.withSlotLock(SLOT, () -> {
+            holding.countDown();
+            await(release);
+            return "first";
+        }));
+        assertThat(holding.await(1, TimeUnit.SECONDS)).isTrue();
+
+        // Another start time — not blocked in the JVM, but no lock session is left
+        assertThatThrownBy(() -> lockService.withSlotLock(SLOT.plusDays(1), () -> "second"))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        verify(dataSource, times(1)).getConnection();
+
+        release.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(lockService.withSlotLock(SLOT.plusDays(1), () -> "third")).isEqualTo("third");
+        assertThat(meterRegistry.get("booking.lock.timeouts").tag("layer", "db").counter().count()).isEqualTo(1.0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.massage.booking.service;
+
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.RejectionReason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Offset.offset;
+
+class BookingMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingMetrics bookingMetrics = new BookingMetrics(meterRegistry);
+
+    @Test
+    void time_shouldRecordSuccessAndRejectionSeparately() {
+        assertThat(bookingMetrics.time(BookingMetrics.CREATE, () -> "ok")).isEqualTo("ok");
+        assertThatThrownBy(() -> bookingMetrics.time(BookingMetrics.CREATE, () -> {
+            throw new BusinessException("Time slot already booked", HttpStatus.CONFLICT, RejectionReason.SLOT_BOOKED);
+        })).isInstanceOf(BusinessException.class);
+
+        assertThat(meterRegistry.get("booking.operation").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("booking.operation").tag("outcome", "rejected").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("booking.conflicts")
+                .tag("operation", "create").tag("reason", "slot_booked").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void time_shouldTagConflictsByReasonCodeNotMessage() {
+        assertThatThrownBy(() -> bookingMetrics.time(BookingMetrics.CANCEL, () -> {
+            throw new BusinessException("Something already booked, on hold and too late", HttpStatus.CONFLICT);
+        })).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> bookingMetrics.time(BookingMetrics.CANCEL, () -> {
+            throw new BusinessException("Please retry.", HttpStatus.SERVICE_UNAVAILABLE, RejectionReason.LOCK_BUSY);
+        })).isInstanceOf(BusinessException.class);
+
+        assertThat(meterRegistry.get("booking.conflicts").tag("reason", "other").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("booking.conflicts").tag("reason", "lock_busy").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void time_shouldRecordUnexpectedFailureAsError() {
+        assertThatThrownBy(() -> bookingMetrics.time(BookingMetrics.CREATE, () -> {
+            throw new IllegalStateException("commit failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("booking.operation").tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("booking.conflicts").counter()).isNull();
+    }
+
+    @Test
+    void cacheLookup_shouldReportHitRatio() {
+        bookingMetrics.cacheLookup("availability", true);
+        bookingMetrics.cacheLookup("availability", true);
+        bookingMetrics.cacheLookup("availability", false);
+
+        assertThat(meterRegistry.get("booking.cache.hit.ratio").tag("cache", "availability").gauge().value())
+                .isCloseTo(2.0 / 3, offset(0.001));
+    }
+}
@@ -0,0 +1,138 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.request.BookingRequest;
+import com.massage.booking.dto.response.BookingResponse;
+import com.massage.booking.entity.Client;
+import com.massage.booking.entity.MassageService;
+import com.massage.booking.entity.User;
+import com.massage.booking.entity.WorkingDay;
+import com.massage.booking.entity.valueobject.Email;
+import com.massage.booking.event.ScheduleChangedEvent;
+import com.massage.booking.repository.ClientRepository;
+import com.massage.booking.repository.MassageServiceRepository;
+import com.massage.booking.repository.UserRepository;
+import com.massage.booking.repository.WorkingDayRepository;
+import com.massage.booking.support.QueryCountAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Statement budgets of the booking write paths, counted on the real (proxied) DataSource —
+ * a lazy load or a repeated lookup shows up here even when the mocked unit tests stay green.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        // data.sql targets MySQL with the schema already in place; these tests seed their own rows
+        "spring.sql.init.mode=never",
+        "jwt.secret=query-budget-test-secret-query-budget-test-secret-0123456789",
+        "sendgrid.api-key=unused",
+        "sendgrid.from-email=noreply@test.com",
+        "sendgrid.from-name=Test"
+})
+@ActiveProfiles("test")
+class BookingServiceQueryBudgetTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private MassageServiceRepository serviceRepository;
+
+    @Autowired
+    private WorkingDayRepository workingDayRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockitoBean
+    private EmailNotificationService emailNotificationService;
+
+    private User user;
+    private MassageService service;
+
+    @BeforeEach
+    void setUp() {
+        if (workingDayRepository.count() == 0) {
+            for (DayOfWeek day : DayOfWeek.values()) {
+                workingDayRepository.save(WorkingDay.builder()
+                        .dayOfWeek(day.getValue())
+                        .isActive(true)
+                        .openTime(LocalTime.of(10, 0))
+                        .closeTime(LocalTime.of(20, 0))
+                        .build());
+            }
+            // Startup slot generation already resolved the calendar without working days
+            cacheManager.getCache(ReferenceDataService.WEEKLY_HOURS_CACHE).clear();
+        }
+        eventPublisher.publishEvent(new ScheduleChangedEvent(bookingDate()));
+        user = userRepository.findByEmail(Email.of("budget@test.com")).orElseGet(() -> {
+            User saved = userRepository.save(User.createClient(
+                    "Budget Client", "+34600111222", "budget@test.com", "Password123!",
+                    new BCryptPasswordEncoder(4)));
+            clientRepository.save(Client.create(
+                    saved.getName(), "+34600111222", "budget@test.com", null, null, saved.getId()));
+            return saved;
+        });
+        service = serviceRepository.findAll().getFirst();
+
+        // Slots exist ahead of time in production; warm caches are the steady state, not part of the budget
+        timeSlotService.generateSlotsForDate(bookingDate());
+        referenceDataService.getService(service.getId());
+        timeSlotService.isWorkingDay(bookingDate());
+    }
+
+    @Test
+    void create_shouldStayWithinStatementBudget() {
+        BookingRequest request = request(11);
+
+        // user, client, locked read of the covered slot rows, conflict query, booking insert, slot update, invalidation row
+        QueryCountAssertions.assertStatements(7, () -> bookingService.create(user.getId(), request));
+    }
+
+    @Test
+    void cancel_shouldStayWithinStatementBudget() {
+        BookingResponse booking = bookingService.create(user.getId(), request(14));
+
+        // fetch-joined booking read, booking update, slot release, invalidation row
+        QueryCountAssertions.assertStatements(4, () ->
+                bookingService.cancel(booking.getId(), user.getId(), false, null));
+    }
+
+    private BookingRequest request(int hour) {
+        return BookingRequest.builder()
+                .serviceId(service.getId())
+                .startTime(LocalDateTime.of(bookingDate(), LocalTime.of(hour, 0)))
+                .build();
+    }
+
+    private static LocalDate bookingDate() {
+        return LocalDate.now().plusDays(3).with(TemporalAdjusters.next(DayOfWeek.THURSDAY));
+    }
+}
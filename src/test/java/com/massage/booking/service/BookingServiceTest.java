@@ -1,18 +1,24 @@
 package com.massage.booking.service;
 
 import com.massage.booking.dto.request.BookingRequest;
+import com.massage.booking.dto.response.BatchBookingResponse;
 import com.massage.booking.dto.response.BookingResponse;
 import com.massage.booking.entity.Booking;
 import com.massage.booking.entity.Client;
+import com.massage.booking.entity.IdempotencyRecord;
 import com.massage.booking.entity.MassageService;
+import com.massage.booking.entity.TimeSlot;
 import com.massage.booking.entity.User;
 import com.massage.booking.entity.enums.BookingStatus;
 import com.massage.booking.entity.enums.Role;
 import com.massage.booking.entity.enums.ServiceCategory;
+import com.massage.booking.entity.valueobject.Email;
+import com.massage.booking.event.WaitlistOfferAcceptedEvent;
 import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.DuplicateResourceException;
 import com.massage.booking.repository.BookingRepository;
 import com.massage.booking.repository.ClientRepository;
-import com.massage.booking.repository.MassageServiceRepository;
+import com.massage.booking.repository.IdempotencyRecordRepository;
 import com.massage.booking.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,15 +26,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -43,10 +54,15 @@ class BookingServiceTest {
 
     @Mock private BookingRepository bookingRepository;
     @Mock private ClientRepository clientRepository;
-    @Mock private MassageServiceRepository serviceRepository;
     @Mock private UserRepository userRepository;
+    @Mock private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock private ReferenceDataService referenceDataService;
     @Mock private TimeSlotService timeSlotService;
     @Mock private EmailNotificationService emailNotificationService;
+    @Mock private SlotHoldService slotHoldService;
+    @Mock private ResourceAllocationService resourceAllocationService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private ClientSearchIndex clientSearchIndex;
 
     @InjectMocks private BookingService bookingService;
 
@@ -54,6 +70,7 @@ class BookingServiceTest {
     private Client testClient;
     private MassageService testService;
     private BookingRequest validRequest;
+    private TimeSlot freeSlot;
 
     @BeforeEach
     void setUp() {
@@ -81,6 +98,12 @@ class BookingServiceTest {
         validRequest = new BookingRequest();
         validRequest.setServiceId(1L);
         validRequest.setStartTime(LocalDateTime.now().plusHours(3));
+
+        freeSlot = TimeSlot.builder()
+                .slotDateTime(validRequest.getStartTime())
+                .isAvailable(true)
+                .isBlocked(false)
+                .build();
     }
 
     @Test
@@ -88,9 +111,9 @@ class BookingServiceTest {
         // Arrange
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(clientRepository.findByUserId(1L)).thenReturn(Optional.of(testClient));
-        when(serviceRepository.findById(1L)).thenReturn(Optional.of(testService));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
         when(timeSlotService.isWorkingDay(any())).thenReturn(true);
-        when(timeSlotService.isTimeSlotAvailable(any())).thenReturn(true);
+        when(timeSlotService.claimSlot(any(), any(), any())).thenReturn(freeSlot);
         when(bookingRepository.findConflictingBookings(any(), any())).thenReturn(List.of());
 
         Booking savedBooking = Booking.create(
@@ -101,7 +124,7 @@ class BookingServiceTest {
                 null, null
         );
         when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
-        doNothing().when(timeSlotService).bookSlot(any());
+        doNothing().when(timeSlotService).markBooked(any());
         doNothing().when(emailNotificationService).sendBookingConfirmation(any(), any(), any(), any());
 
         // Act
@@ -112,19 +135,55 @@ class BookingServiceTest {
         assertThat(response).isNotNull();
     }
 
+    @Test
+    void create_shouldClaimIdempotencyKeyBeforeBookingAndLinkIt() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(clientRepository.findByUserId(1L)).thenReturn(Optional.of(testClient));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.claimSlot(any(), any(), any())).thenReturn(freeSlot);
+        when(bookingRepository.findConflictingBookings(any(), any())).thenReturn(List.of());
+        Booking savedBooking = Booking.create(10L, 1L, validRequest.getStartTime(),
+                testService.getTotalMinutes(), null, null);
+        savedBooking.setId(42L);
+        when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
+        IdempotencyRecord claim = IdempotencyRecord.builder().userId(1L).idempotencyKey("key-1").requestHash("h").build();
+
+        bookingService.create(1L, validRequest, claim);
+
+        var order = inOrder(idempotencyRecordRepository, bookingRepository);
+        order.verify(idempotencyRecordRepository).saveAndFlush(claim);
+        order.verify(bookingRepository).save(any(Booking.class));
+        assertThat(claim.getBookingId()).isEqualTo(42L);
+    }
+
+    @Test
+    void create_shouldNotBookWhenIdempotencyKeyIsAlreadyClaimed() {
+        when(referenceDataService.getService(1L)).thenReturn(testService);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk"));
+        IdempotencyRecord claim = IdempotencyRecord.builder().userId(1L).idempotencyKey("key-1").requestHash("h").build();
+
+        assertThatThrownBy(() -> bookingService.create(1L, validRequest, claim))
+                .isInstanceOf(DuplicateResourceException.class);
+        verify(bookingRepository, never()).save(any());
+        verify(timeSlotService, never()).claimSlot(any(), any(), any());
+    }
+
     @Test
     void create_shouldWorkWithNoLinkedClientRecord() {
         // A user who has no Client record (edge case — guest-style booking)
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(clientRepository.findByUserId(1L)).thenReturn(Optional.empty());
-        when(serviceRepository.findById(1L)).thenReturn(Optional.of(testService));
+        when(clientRepository.save(any(Client.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
         when(timeSlotService.isWorkingDay(any())).thenReturn(true);
-        when(timeSlotService.isTimeSlotAvailable(any())).thenReturn(true);
+        when(timeSlotService.claimSlot(any(), any(), any())).thenReturn(freeSlot);
         when(bookingRepository.findConflictingBookings(any(), any())).thenReturn(List.of());
 
         Booking savedBooking = Booking.create(1L, 1L, validRequest.getStartTime(), testService.getTotalMinutes(), null, null);
         when(bookingRepository.save(any())).thenReturn(savedBooking);
-        doNothing().when(timeSlotService).bookSlot(any());
+        doNothing().when(timeSlotService).markBooked(any());
         doNothing().when(emailNotificationService).sendBookingConfirmation(any(), any(), any(), any());
 
         BookingResponse response = bookingService.create(1L, validRequest);
@@ -133,23 +192,19 @@ class BookingServiceTest {
 
     @Test
     void create_shouldThrow_whenBookingTooSoon() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(clientRepository.findByUserId(1L)).thenReturn(Optional.of(testClient));
-        when(serviceRepository.findById(1L)).thenReturn(Optional.of(testService));
-        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
-
         validRequest.setStartTime(LocalDateTime.now().plusMinutes(30)); // too soon
 
         assertThatThrownBy(() -> bookingService.create(1L, validRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("2 hours");
+
+        // Rule violations are rejected before any lookup
+        verifyNoInteractions(userRepository, clientRepository, referenceDataService, bookingRepository, timeSlotService);
     }
 
     @Test
     void create_shouldThrow_whenNotWorkingDay() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(clientRepository.findByUserId(1L)).thenReturn(Optional.of(testClient));
-        when(serviceRepository.findById(1L)).thenReturn(Optional.of(testService));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
         when(timeSlotService.isWorkingDay(any())).thenReturn(false);
 
         assertThatThrownBy(() -> bookingService.create(1L, validRequest))
@@ -161,12 +216,140 @@ class BookingServiceTest {
     void create_shouldThrow_whenSlotNotAvailable() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(clientRepository.findByUserId(1L)).thenReturn(Optional.of(testClient));
-        when(serviceRepository.findById(1L)).thenReturn(Optional.of(testService));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
         when(timeSlotService.isWorkingDay(any())).thenReturn(true);
-        when(timeSlotService.isTimeSlotAvailable(any())).thenReturn(false);
+        when(timeSlotService.claimSlot(any(), any(), any()))
+                .thenThrow(new BusinessException("Selected time slot is not available", HttpStatus.CONFLICT));
 
         assertThatThrownBy(() -> bookingService.create(1L, validRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("not available");
+
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void create_shouldRejectSlotHeldForAnotherClient() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(clientRepository.findByUserId(1L)).thenReturn(Optional.of(testClient));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(slotHoldService.checkHold(eq(validRequest.getStartTime()), any(), eq(1L)))
+                .thenThrow(new BusinessException("Selected time slot is on hold for another client", HttpStatus.CONFLICT));
+
+        assertThatThrownBy(() -> bookingService.create(1L, validRequest))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("on hold");
+
+        verify(timeSlotService, never()).claimSlot(any(), any(), any());
+    }
+
+    @Test
+    void create_shouldFulfilWaitlistOfferWhenHolderBooks() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(clientRepository.findByUserId(1L)).thenReturn(Optional.of(testClient));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        SlotHoldService.Hold hold = new SlotHoldService.Hold("h-1", 1L, validRequest.getStartTime(),
+                validRequest.getStartTime().plusMinutes(60), LocalDateTime.now().plusMinutes(5), 7L);
+        when(slotHoldService.checkHold(eq(validRequest.getStartTime()), any(), eq(1L))).thenReturn(Optional.of(hold));
+        when(timeSlotService.claimSlot(any(), any(), any())).thenReturn(freeSlot);
+        when(bookingRepository.findConflictingBookings(any(), any())).thenReturn(List.of());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        bookingService.create(1L, validRequest);
+
+        verify(slotHoldService).consume(validRequest.getStartTime(), hold);
+        verify(eventPublisher).publishEvent(any(WaitlistOfferAcceptedEvent.class));
+    }
+
+    @Test
+    void create_shouldStayWithinLookupBudget() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(clientRepository.findByUserId(1L)).thenReturn(Optional.of(testClient));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.claimSlot(any(), any(), any())).thenReturn(freeSlot);
+        when(bookingRepository.findConflictingBookings(any(), any())).thenReturn(List.of());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        bookingService.create(1L, validRequest);
+
+        // Budget: user, client, cached service + working day, one slot read, one conflict query, two writes
+        verify(userRepository, times(1)).findById(1L);
+        verify(clientRepository, times(1)).findByUserId(1L);
+        verify(referenceDataService, times(1)).getService(1L);
+        verify(timeSlotService, times(1)).isWorkingDay(any());
+        verify(timeSlotService, times(1)).claimSlot(eq(validRequest.getStartTime()), any(), eq(1L));
+        verify(bookingRepository, times(1)).findConflictingBookings(any(), any());
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(timeSlotService, times(1)).markBooked(freeSlot);
+        verifyNoMoreInteractions(userRepository, clientRepository,
+                referenceDataService, bookingRepository, timeSlotService);
+    }
+
+    @Test
+    void cancel_shouldLoadOwnerInOneQueryAndReleaseSlotInPlace() {
+        Booking booking = bookingOwnedByTestClient(LocalDateTime.now().plusDays(2));
+        when(bookingRepository.findByIdWithOwner(5L)).thenReturn(Optional.of(booking));
+
+        bookingService.cancel(5L, 1L, false, null);
+
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.CANCELED);
+        verify(bookingRepository, times(1)).findByIdWithOwner(5L);
+        verify(bookingRepository, times(1)).save(booking);
+        verify(timeSlotService, times(1)).releaseSlot(booking.getStartTime());
+        verify(emailNotificationService).sendBookingCancellation(any(), any(), any(), any(), any());
+        verifyNoMoreInteractions(userRepository, clientRepository, bookingRepository, timeSlotService);
+    }
+
+    @Test
+    void cancel_shouldThrow_whenCallerDoesNotOwnBooking() {
+        Booking booking = bookingOwnedByTestClient(LocalDateTime.now().plusDays(2));
+        when(bookingRepository.findByIdWithOwner(5L)).thenReturn(Optional.of(booking));
+
+        assertThatThrownBy(() -> bookingService.cancel(5L, 99L, false, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("other client");
+
+        verify(timeSlotService, never()).releaseSlot(any());
+    }
+
+    @Test
+    void createBatch_shouldRejectOverlappingItemsAndSendOneSummary() {
+        testClient.setUser(testUser);
+        testUser.setEmail(Email.of("john@example.com"));
+        LocalDateTime first = LocalDateTime.now().plusDays(3).withHour(11).withMinute(0).withSecond(0).withNano(0);
+        BookingRequest ok = BookingRequest.builder().serviceId(1L).startTime(first).build();
+        BookingRequest overlapping = BookingRequest.builder().serviceId(1L).startTime(first.plusMinutes(30)).build();
+        BookingRequest nextWeek = BookingRequest.builder().serviceId(1L).startTime(first.plusWeeks(1)).build();
+
+        when(clientRepository.findByIdWithUser(10L)).thenReturn(Optional.of(testClient));
+        when(referenceDataService.getService(1L)).thenReturn(testService);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.isWithinOpeningHours(any())).thenReturn(true);
+        when(timeSlotService.lockSlots(any())).thenReturn(Map.of());
+        when(bookingRepository.findConflictingBookings(any(), any())).thenReturn(List.of());
+
+        BatchBookingResponse response = bookingService.createBatch(10L, List.of(ok, overlapping, nextWeek));
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(1);
+        assertThat(response.getResults().get(1).isCreated()).isFalse();
+        assertThat(response.getResults().get(1).getError()).contains("already booked");
+        verify(timeSlotService, times(1)).lockSlots(any());
+        verify(bookingRepository, times(1)).findConflictingBookings(any(), any());
+        verify(bookingRepository, times(1)).saveAll(argThat(list -> ((List<?>) list).size() == 2));
+        verify(emailNotificationService, times(1)).sendBookingSummary(eq("john@example.com"), any(), any());
+    }
+
+    private Booking bookingOwnedByTestClient(LocalDateTime startTime) {
+        testClient.setUser(testUser);
+        Booking booking = Booking.create(testClient.getId(), testService.getId(), startTime,
+                testService.getTotalMinutes(), null, null);
+        booking.setId(5L);
+        booking.setClient(testClient);
+        booking.setService(testService);
+        return booking;
     }
 }
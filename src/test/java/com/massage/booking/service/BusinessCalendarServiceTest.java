@@ -0,0 +1,100 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.ScheduleException;
+import com.massage.booking.entity.WorkingDay;
+import com.massage.booking.event.ScheduleChangedEvent;
+import com.massage.booking.repository.ScheduleExceptionRepository;
+import com.massage.booking.service.BusinessCalendarService.DaySchedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BusinessCalendarServiceTest {
+
+    @Mock private ReferenceDataService referenceDataService;
+    @Mock private ScheduleExceptionRepository scheduleExceptionRepository;
+
+    private BusinessCalendarService calendar;
+
+    private static final LocalDate THURSDAY = LocalDate.of(2030, 1, 3);
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @BeforeEach
+    void setUp() {
+        calendar = new BusinessCalendarService(referenceDataService, scheduleExceptionRepository);
+        ReflectionTestUtils.setField(calendar, "maxDays", 100L);
+        calendar.initCache();
+
+        WorkingDay thursday = WorkingDay.builder()
+                .dayOfWeek(4).isActive(true)
+                .openTime(LocalTime.of(10, 0)).closeTime(LocalTime.of(20, 0))
+                .build();
+        lenient().when(referenceDataService.getWeeklyHours()).thenReturn(Map.of(4, thursday));
+    }
+
+    @Test
+    void weeklyRule_shouldOpenHalfHoursFromOpenToClose() {
+        when(scheduleExceptionRepository.findByExceptionDate(THURSDAY)).thenReturn(Optional.empty());
+
+        DaySchedule day = calendar.day(THURSDAY);
+
+        assertThat(day.slotStarts()).hasSize(20).startsWith(LocalTime.of(10, 0)).endsWith(LocalTime.of(19, 30));
+        assertThat(day.isOpenAt(LocalTime.of(19, 45))).isTrue();
+        assertThat(day.isOpenAt(LocalTime.of(20, 0))).isFalse();
+        assertThat(day.isOpenAt(LocalTime.of(9, 30))).isFalse();
+    }
+
+    @Test
+    void exceptions_shouldOverrideTheWeeklyRule() {
+        ScheduleException holiday = ScheduleException.builder().exceptionDate(THURSDAY).isAvailable(false).build();
+        ScheduleException shortDay = ScheduleException.builder().exceptionDate(THURSDAY).isAvailable(true)
+                .openTime(LocalTime.of(12, 0)).closeTime(LocalTime.of(14, 0)).build();
+        ScheduleException extraOpening = ScheduleException.builder().exceptionDate(MONDAY).isAvailable(true).build();
+
+        assertThat(calendar.resolve(THURSDAY, holiday).isOpen()).isFalse();
+        assertThat(calendar.resolve(THURSDAY, shortDay).slotStarts())
+                .containsExactly(LocalTime.of(12, 0), LocalTime.of(12, 30), LocalTime.of(13, 0), LocalTime.of(13, 30));
+        assertThat(calendar.resolve(MONDAY, null).isOpen()).isFalse();
+        assertThat(calendar.resolve(MONDAY, extraOpening).slotStarts()).hasSize(20);
+    }
+
+    @Test
+    void day_shouldBeResolvedOnceUntilItsScheduleChanges() {
+        when(scheduleExceptionRepository.findByExceptionDate(THURSDAY)).thenReturn(Optional.empty());
+
+        calendar.isOpen(THURSDAY);
+        calendar.isOpenAt(THURSDAY.atTime(11, 0));
+        verify(scheduleExceptionRepository, times(1)).findByExceptionDate(THURSDAY);
+
+        calendar.onScheduleChanged(new ScheduleChangedEvent(THURSDAY));
+        calendar.isOpen(THURSDAY);
+        verify(scheduleExceptionRepository, times(2)).findByExceptionDate(THURSDAY);
+    }
+
+    @Test
+    void days_shouldLoadASpanWithOneExceptionQuery() {
+        when(scheduleExceptionRepository.findByExceptionDateBetweenOrderByExceptionDateAsc(THURSDAY, MONDAY))
+                .thenReturn(List.of(ScheduleException.builder().exceptionDate(THURSDAY).isAvailable(false).build()));
+
+        Map<LocalDate, DaySchedule> days = calendar.days(THURSDAY, MONDAY);
+
+        assertThat(days).hasSize(5);
+        assertThat(days.get(THURSDAY).isOpen()).isFalse();
+        verify(scheduleExceptionRepository, times(1)).findByExceptionDateBetweenOrderByExceptionDateAsc(any(), any());
+        verify(scheduleExceptionRepository, never()).findByExceptionDate(any());
+    }
+}
@@ -0,0 +1,154 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.CacheInvalidation;
+import com.massage.booking.entity.enums.CacheRegion;
+import com.massage.booking.entity.enums.SlotState;
+import com.massage.booking.event.CacheInvalidatedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
+import com.massage.booking.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two service instances over one shared log stand in for two nodes.
+ */
+class CacheCoherenceServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 3);
+
+    private final List<CacheInvalidation> log = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final List<Object> eventsA = new ArrayList<>();
+    private final List<Object> eventsB = new ArrayList<>();
+    private CacheCoherenceService nodeA;
+    private CacheCoherenceService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        CacheInvalidationRepository repository = sharedLog();
+        nodeA = node(repository, eventsA);
+        nodeB = node(repository, eventsB);
+        nodeA.poll(0);
+        nodeB.poll(0);
+    }
+
+    @Test
+    void mutationOnOneNode_shouldEvictOnTheOtherOnly() {
+        nodeA.onSlotStateChanged(new SlotStateChangedEvent(DAY.atTime(10, 0), SlotState.BOOKED));
+
+        assertThat(nodeB.poll(1000)).isEqualTo(1);
+        assertThat(nodeA.poll(1000)).isZero();
+        assertThat(eventsB).containsExactly(new CacheInvalidatedEvent(CacheRegion.AVAILABILITY, DAY.toString()));
+        assertThat(eventsA).isEmpty();
+
+        // Already applied — not republished
+        assertThat(nodeB.poll(2000)).isZero();
+    }
+
+    @Test
+    void eventsOfOneTransaction_shouldBeLoggedOncePerKey() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            nodeA.onSlotStateChanged(new SlotStateChangedEvent(DAY.atTime(10, 0), SlotState.BOOKED));
+            nodeA.onSlotStateChanged(new SlotStateChangedEvent(DAY.atTime(10, 30), SlotState.BOOKED));
+            assertThat(log).isEmpty();
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(s -> s.beforeCommit(false));
+            synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(log).hasSize(1);
+        assertThat(TransactionSynchronizationManager.getResource(nodeA)).isNull();
+    }
+
+    @Test
+    void lowerIdCommittedLate_shouldStillBeApplied() {
+        // id 1 is reserved by a slow transaction, id 2 commits first
+        sequence.incrementAndGet();
+        append(sequence.incrementAndGet(), CacheRegion.CATALOG, "7", nodeA.getNodeId());
+        assertThat(nodeB.poll(1000)).isEqualTo(1);
+
+        append(1L, CacheRegion.SCHEDULE, DAY.toString(), nodeA.getNodeId());
+        assertThat(nodeB.poll(2000)).isEqualTo(1);
+        assertThat(eventsB).containsExactly(
+                new CacheInvalidatedEvent(CacheRegion.CATALOG, "7"),
+                new CacheInvalidatedEvent(CacheRegion.SCHEDULE, DAY.toString()));
+    }
+
+    @Test
+    void gap_shouldBeGivenUpAfterTimeout() {
+        sequence.incrementAndGet();
+        append(sequence.incrementAndGet(), CacheRegion.CATALOG, "7", nodeA.getNodeId());
+        nodeB.poll(1000);
+
+        // Rolled back — id 1 never appears
+        nodeB.poll(1000 + 60_000);
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(nodeB, "gaps")).isEmpty();
+    }
+
+    private CacheCoherenceService node(CacheInvalidationRepository repository, List<Object> events) {
+        ApplicationEventPublisher publisher = events::add;
+        CacheCoherenceService node = new CacheCoherenceService(repository, publisher);
+        ReflectionTestUtils.setField(node, "enabled", true);
+        ReflectionTestUtils.setField(node, "gapTimeoutMs", 10_000L);
+        return node;
+    }
+
+    private void append(long id, CacheRegion region, String key, String origin) {
+        log.add(CacheInvalidation.builder().id(id).region(region).cacheKey(key).originNode(origin).build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheInvalidationRepository sharedLog() {
+        CacheInvalidationRepository repository = mock(CacheInvalidationRepository.class);
+        lenient().when(repository.save(any(CacheInvalidation.class))).thenAnswer(inv -> {
+            CacheInvalidation row = inv.getArgument(0);
+            row.setId(sequence.incrementAndGet());
+            log.add(row);
+            return row;
+        });
+        lenient().when(repository.saveAll(any(Iterable.class))).thenAnswer(inv -> {
+            List<CacheInvalidation> saved = new ArrayList<>();
+            for (CacheInvalidation row : (Iterable<CacheInvalidation>) inv.getArgument(0)) {
+                row.setId(sequence.incrementAndGet());
+                log.add(row);
+                saved.add(row);
+            }
+            return saved;
+        });
+        lenient().when(repository.findMaxId()).thenAnswer(inv -> sequence.get());
+        lenient().when(repository.findAfter(anyLong(), any(Pageable.class))).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            return log.stream()
+                    .filter(row -> row.getId() > after)
+                    .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                    .toList();
+        });
+        return repository;
+    }
+}
@@ -0,0 +1,84 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.Client;
+import com.massage.booking.entity.ClientSearchGram;
+import com.massage.booking.repository.ClientRepository;
+import com.massage.booking.repository.ClientSearchGramRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ClientSearchIndexTest {
+
+    @Mock private ClientRepository clientRepository;
+    @Mock private ClientSearchGramRepository gramRepository;
+
+    @InjectMocks private ClientSearchIndex clientSearchIndex;
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    @Test
+    void normalize_shouldFoldAccentsCaseAndPunctuation() {
+        assertThat(ClientSearchIndex.normalize("  José-María  O'Núñez ")).isEqualTo("jose maria o nunez");
+    }
+
+    @Test
+    void trigrams_shouldBeDistinctAndCoverTheWholeText() {
+        assertThat(ClientSearchIndex.trigrams("anna")).containsExactly("ann", "nna");
+        assertThat(ClientSearchIndex.trigrams("aaaa")).containsExactly("aaa");
+        assertThat(ClientSearchIndex.trigrams("al")).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void index_shouldWriteSearchColumnsAndReplaceTrigrams() {
+        Client client = Client.create("Zoë Kent", "+34 612 345 678", null, null, null, null);
+        client.setId(7L);
+
+        clientSearchIndex.index(client);
+
+        assertThat(client.getSearchName()).isEqualTo("zoe kent");
+        assertThat(client.getPhoneReversed()).isEqualTo("87654321643");
+        verify(gramRepository).deleteByClientId(7L);
+        ArgumentCaptor<List<ClientSearchGram>> grams = ArgumentCaptor.forClass(List.class);
+        verify(gramRepository).saveAll(grams.capture());
+        assertThat(grams.getValue()).extracting(ClientSearchGram::getGram)
+                .containsExactly("zoe", "oe ", "e k", " ke", "ken", "ent");
+    }
+
+    @Test
+    void nameQuery_shouldUseTrigrams() {
+        clientSearchIndex.search("Méndez", true, pageable);
+
+        verify(clientRepository).searchByName(eq("mendez"), eq(Set.of("men", "end", "nde", "dez")), eq(4L),
+                eq(true), any());
+    }
+
+    @Test
+    void shortNameQuery_shouldUsePrefix() {
+        clientSearchIndex.search("Jo", null, pageable);
+
+        verify(clientRepository).searchByNamePrefix("jo", null, pageable);
+    }
+
+    @Test
+    void digitQuery_shouldMatchPhonePrefixOrSuffix() {
+        clientSearchIndex.search("5 678", null, pageable);
+
+        verify(clientRepository).searchByPhone("5678", "8765", null, pageable);
+    }
+}
@@ -0,0 +1,61 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.response.ClientSuggestionResponse;
+import com.massage.booking.repository.ClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ClientTypeaheadIndexTest {
+
+    private ClientTypeaheadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ClientTypeaheadIndex(mock(ClientRepository.class));
+        index.replace(1L, suggestion(1L, "José María Núñez", "+34612345678", "jm@example.com"));
+        index.replace(2L, suggestion(2L, "Maria Lopez", "699111222", null));
+        index.replace(3L, suggestion(3L, "Marta Ruiz", "+34611000000", "marta@example.com"));
+    }
+
+    @Test
+    void namePrefix_shouldMatchFromAnyWord() {
+        assertThat(index.suggest("mari", 10)).extracting(ClientSuggestionResponse::getId).containsExactly(2L, 1L);
+        assertThat(index.suggest("maria nu", 10)).extracting(ClientSuggestionResponse::getId).containsExactly(1L);
+        assertThat(index.suggest("MAR", 10)).extracting(ClientSuggestionResponse::getId).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void phonePrefix_shouldMatchWithOrWithoutCountryCode() {
+        assertThat(index.suggest("+34 61", 10)).extracting(ClientSuggestionResponse::getId).containsExactly(3L, 1L);
+        assertThat(index.suggest("6123", 10)).extracting(ClientSuggestionResponse::getId).containsExactly(1L);
+    }
+
+    @Test
+    void emailPrefix_shouldMatch() {
+        assertThat(index.suggest("marta@", 10)).extracting(ClientSuggestionResponse::getId).containsExactly(3L);
+    }
+
+    @Test
+    void limit_shouldCountClientsNotKeys() {
+        assertThat(index.suggest("mar", 2)).hasSize(2);
+    }
+
+    @Test
+    void replace_shouldDropOldKeysAndRemoveDeactivatedClients() {
+        index.replace(2L, suggestion(2L, "Mariana Lopez", "699111222", null));
+        assertThat(index.suggest("maria l", 10)).isEmpty();
+        assertThat(index.suggest("mariana", 10)).extracting(ClientSuggestionResponse::getName)
+                .containsExactly("Mariana Lopez");
+
+        index.replace(1L, null);
+        assertThat(index.suggest("jose", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private ClientSuggestionResponse suggestion(Long id, String name, String phone, String email) {
+        return ClientSuggestionResponse.builder().id(id).name(name).phone(phone).email(email).build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.response.SlotDeltaResponse;
+import com.massage.booking.entity.enums.SlotState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingBufferTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2030, 1, 3, 11, 0);
+
+    @Test
+    void shouldKeepOnlyLatestStatePerSlot() {
+        CoalescingBuffer buffer = new CoalescingBuffer(10);
+        buffer.offer(SLOT, SlotState.HELD);
+        buffer.offer(SLOT, SlotState.BOOKED);
+        buffer.offer(SLOT.plusMinutes(30), SlotState.BLOCKED);
+
+        List<SlotDeltaResponse> deltas = buffer.drain();
+
+        assertThat(deltas).extracting(SlotDeltaResponse::getState)
+                .containsExactly(SlotState.BOOKED, SlotState.BLOCKED);
+        assertThat(buffer.drain()).isEmpty();
+    }
+
+    @Test
+    void shouldAskForResyncWhenCapacityExceeded() {
+        CoalescingBuffer buffer = new CoalescingBuffer(2);
+        buffer.offer(SLOT, SlotState.BOOKED);
+        buffer.offer(SLOT.plusMinutes(30), SlotState.BOOKED);
+        buffer.offer(SLOT.plusMinutes(60), SlotState.BOOKED);
+
+        assertThat(buffer.drain()).isNull();
+
+        // After the resync the buffer works normally again
+        buffer.offer(SLOT, SlotState.AVAILABLE);
+        assertThat(buffer.drain()).hasSize(1);
+    }
+
+    @Test
+    void invalidate_shouldDropDeltasAndAskForResync() {
+        CoalescingBuffer buffer = new CoalescingBuffer(10);
+        buffer.offer(SLOT, SlotState.BOOKED);
+
+        buffer.invalidate();
+
+        assertThat(buffer.isEmpty()).isFalse();
+        assertThat(buffer.drain()).isNull();
+        assertThat(buffer.drain()).isEmpty();
+    }
+}
@@ -0,0 +1,39 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.enums.SlotState;
+import com.massage.booking.event.CatalogChangedEvent;
+import com.massage.booking.event.SlotStateChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentVersionServiceTest {
+
+    private final ContentVersionService versions = new ContentVersionService();
+    private final LocalDate day = LocalDate.of(2030, 1, 3);
+
+    @Test
+    void slotChangeShouldOnlyChangeETagsCoveringThatDay() {
+        String dayTag = versions.dayETag(day);
+        String otherDayTag = versions.dayETag(day.plusDays(1));
+        String rangeTag = versions.rangeETag(day.minusDays(3), day.plusDays(3));
+
+        versions.onSlotStateChanged(new SlotStateChangedEvent(day.atTime(11, 0), SlotState.BOOKED));
+
+        assertThat(versions.dayETag(day)).isNotEqualTo(dayTag);
+        assertThat(versions.dayETag(day.plusDays(1))).isEqualTo(otherDayTag);
+        assertThat(versions.rangeETag(day.minusDays(3), day.plusDays(3))).isNotEqualTo(rangeTag);
+        assertThat(versions.dayETag(day)).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void catalogChangeShouldChangeCatalogETag() {
+        String before = versions.catalogETag();
+
+        versions.onCatalogChanged(new CatalogChangedEvent(1L));
+
+        assertThat(versions.catalogETag()).isNotEqualTo(before);
+    }
+}
@@ -0,0 +1,171 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.request.BookingRequest;
+import com.massage.booking.dto.response.BookingResponse;
+import com.massage.booking.entity.IdempotencyRecord;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.exception.DuplicateResourceException;
+import com.massage.booking.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock private BookingService bookingService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingMetrics bookingMetrics = new BookingMetrics(meterRegistry);
+    private BookingLockService bookingLockService;
+    private IdempotencyService idempotencyService;
+    private BookingRequest request;
+
+    @BeforeEach
+    void setUp() {
+        bookingLockService = new BookingLockService(null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(bookingLockService, "stripeCount", 4);
+        ReflectionTestUtils.setField(bookingLockService, "waitMs", 1000L);
+        bookingLockService.init();
+
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, bookingService, bookingLockService,
+                bookingMetrics);
+        ReflectionTestUtils.setField(idempotencyService, "retentionHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 100L);
+        idempotencyService.initCache();
+
+        request = BookingRequest.builder()
+                .serviceId(1L)
+                .startTime(LocalDateTime.now().plusDays(1).withNano(0))
+                .build();
+    }
+
+    @Test
+    void shouldReplayRetryFromCacheWithoutRebooking() {
+        BookingResponse created = BookingResponse.builder().id(42L).build();
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        when(bookingService.create(eq(1L), eq(request), any())).thenReturn(created);
+
+        BookingResponse first = idempotencyService.createBooking(1L, "key-1", request);
+        BookingResponse retry = idempotencyService.createBooking(1L, "key-1", request);
+
+        assertThat(retry).isSameAs(first);
+        verify(bookingService, times(1)).create(any(), any(), any());
+        verify(idempotencyRecordRepository, times(1)).findByUserIdAndIdempotencyKey(1L, "key-1");
+    }
+
+    @Test
+    void shouldReplayFromTableAfterCacheMiss() {
+        // First node books and stores the outcome
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-2")).thenReturn(Optional.empty());
+        when(bookingService.create(eq(1L), eq(request), any())).thenReturn(BookingResponse.builder().id(42L).build());
+        idempotencyService.createBooking(1L, "key-2", request);
+
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(bookingService).create(eq(1L), eq(request), saved.capture());
+        // What the booking transaction commits
+        saved.getValue().setBookingId(42L);
+        saved.getValue().setCreatedAt(LocalDateTime.now());
+
+        // A fresh instance (empty cache, e.g. after a restart) finds it in the table
+        IdempotencyService restarted = new IdempotencyService(idempotencyRecordRepository, bookingService, bookingLockService,
+                bookingMetrics);
+        ReflectionTestUtils.setField(restarted, "retentionHours", 24L);
+        ReflectionTestUtils.setField(restarted, "cacheSize", 100L);
+        restarted.initCache();
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-2"))
+                .thenReturn(Optional.of(saved.getValue()));
+        when(bookingService.getById(42L)).thenReturn(BookingResponse.builder().id(42L).build());
+
+        BookingResponse replayed = restarted.createBooking(1L, "key-2", request);
+
+        assertThat(replayed.getId()).isEqualTo(42L);
+        verify(bookingService, times(1)).create(any(), any(), any());
+    }
+
+    @Test
+    void shouldReplayWinnerWhenAnotherNodeClaimedTheKeyFirst() {
+        IdempotencyRecord winner = IdempotencyRecord.builder()
+                .userId(1L).idempotencyKey("key-4").bookingId(7L).createdAt(LocalDateTime.now()).build();
+        // Missing on the first look; committed by the other node once this attempt hits the unique key
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-4"))
+                .thenReturn(Optional.empty(), Optional.of(winner));
+        when(bookingService.create(eq(1L), eq(request), any())).thenAnswer(invocation -> {
+            winner.setRequestHash(((IdempotencyRecord) invocation.getArgument(2)).getRequestHash());
+            throw new DuplicateResourceException("Idempotency-Key key-4 was already used");
+        });
+        when(bookingService.getById(7L)).thenReturn(BookingResponse.builder().id(7L).build());
+
+        BookingResponse replayed = idempotencyService.createBooking(1L, "key-4", request);
+
+        assertThat(replayed.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void shouldIgnoreAndDeleteRowsOlderThanRetention() {
+        IdempotencyRecord expired = IdempotencyRecord.builder()
+                .userId(1L).idempotencyKey("key-5").requestHash("old").bookingId(7L)
+                .createdAt(LocalDateTime.now().minusHours(25)).build();
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-5")).thenReturn(Optional.of(expired));
+        when(bookingService.create(eq(1L), eq(request), any())).thenReturn(BookingResponse.builder().id(43L).build());
+
+        BookingResponse response = idempotencyService.createBooking(1L, "key-5", request);
+
+        assertThat(response.getId()).isEqualTo(43L);
+        verify(idempotencyRecordRepository).delete(expired);
+        verify(bookingService, never()).getById(any());
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, "key-3")).thenReturn(Optional.empty());
+        when(bookingService.create(eq(1L), eq(request), any())).thenReturn(BookingResponse.builder().id(42L).build());
+        idempotencyService.createBooking(1L, "key-3", request);
+
+        BookingRequest other = BookingRequest.builder()
+                .serviceId(2L)
+                .startTime(request.getStartTime())
+                .build();
+
+        assertThatThrownBy(() -> idempotencyService.createBooking(1L, "key-3", other))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("different booking request");
+    }
+
+    @Test
+    void shouldBypassDedupWithoutKey() {
+        when(bookingService.create(1L, request)).thenReturn(BookingResponse.builder().id(42L).build());
+
+        idempotencyService.createBooking(1L, null, request);
+
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void shouldTimeCreateAroundTheTransactionSoCommitFailuresAreErrors() {
+        // What the transactional proxy throws when the commit itself fails
+        when(bookingService.create(1L, request)).thenThrow(new IllegalStateException("commit failed"));
+
+        assertThatThrownBy(() -> idempotencyService.createBooking(1L, null, request))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get("booking.operation")
+                .tag("operation", "create").tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("booking.operation").tag("outcome", "success").timer()).isNull();
+    }
+}
@@ -0,0 +1,94 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.RefreshToken;
+import com.massage.booking.exception.UnauthorizedException;
+import com.massage.booking.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpirationMs", 60_000L);
+    }
+
+    @Test
+    void issue_shouldStoreOnlyTheHash() {
+        String raw = refreshTokenService.issue(7L);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(7L, saved.getValue().getUserId());
+        assertEquals(RefreshTokenService.hash(raw), saved.getValue().getTokenHash());
+        assertNotEquals(raw, saved.getValue().getTokenHash());
+        assertNotNull(saved.getValue().getFamilyId());
+    }
+
+    @Test
+    void rotate_shouldRevokePresentedTokenAndIssueSuccessorInSameFamily() {
+        RefreshToken current = token("family-1", null);
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenService.hash("raw")))
+                .thenReturn(Optional.of(current));
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        assertEquals(7L, rotation.userId());
+        assertNotEquals("raw", rotation.token());
+        assertNotNull(current.getRevokedAt());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(saved.capture());
+        assertEquals("family-1", saved.getAllValues().get(1).getFamilyId());
+    }
+
+    @Test
+    void rotate_shouldRevokeWholeFamilyWhenATokenIsReused() {
+        RefreshToken reused = token("family-1", LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenService.hash("raw")))
+                .thenReturn(Optional.of(reused));
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_shouldRejectUnknownToken() {
+        when(refreshTokenRepository.findByTokenHashForUpdate(any())).thenReturn(Optional.empty());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+
+    private RefreshToken token(String familyId, LocalDateTime revokedAt) {
+        return RefreshToken.builder()
+                .id(1L)
+                .userId(7L)
+                .tokenHash(RefreshTokenService.hash("raw"))
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .revokedAt(revokedAt)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.massage.booking.service;
+
+import com.massage.booking.entity.BookableResource;
+import com.massage.booking.entity.Booking;
+import com.massage.booking.entity.enums.ResourceType;
+import com.massage.booking.repository.BookableResourceRepository;
+import com.massage.booking.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceAllocationServiceTest {
+
+    @Mock private BookableResourceRepository resourceRepository;
+    @Mock private BookingRepository bookingRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private ResourceAllocationService allocator;
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 3);
+
+    @BeforeEach
+    void setUp() {
+        allocator = new ResourceAllocationService(resourceRepository, bookingRepository, eventPublisher);
+        ReflectionTestUtils.setField(allocator, "maxDays", 10L);
+        allocator.initCache();
+
+        lenient().when(resourceRepository.findByActiveTrueOrderByIdAsc()).thenReturn(List.of(
+                resource(1L, ResourceType.THERAPIST), resource(2L, ResourceType.THERAPIST),
+                resource(3L, ResourceType.THERAPIST), resource(10L, ResourceType.ROOM),
+                resource(11L, ResourceType.ROOM)));
+        lenient().when(bookingRepository.findActiveOverlapping(any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void inFlightReservations_shouldExhaustRoomsAndBeReleasedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ResourceAllocationService.Assignment first = allocator.assign(at(10, 0), at(11, 10), List.of());
+            ResourceAllocationService.Assignment second = allocator.assign(at(10, 30), at(11, 30), List.of());
+
+            assertThat(first).isEqualTo(new ResourceAllocationService.Assignment(1L, 10L));
+            assertThat(second).isEqualTo(new ResourceAllocationService.Assignment(2L, 11L));
+            // Therapist 3 is free, but both rooms are taken
+            assertThatThrownBy(() -> allocator.assign(at(11, 0), at(12, 0), List.of()))
+                    .hasMessageContaining("No therapist or room");
+            assertThat(allocator.hasCapacity(at(10, 30))).isFalse();
+            assertThat(allocator.hasCapacity(at(12, 0))).isTrue();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            assertThat(allocator.hasCapacity(at(10, 30))).isTrue();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void hasCapacityAndFreeMask_shouldIgnoreReservationsOfOtherTransactions() throws Exception {
+        // Another transaction takes both rooms at 10:30 and has not committed yet
+        CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                allocator.assign(at(10, 0), at(11, 0), List.of());
+                allocator.assign(at(10, 30), at(11, 30), List.of());
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }).get(1, TimeUnit.SECONDS);
+
+        // New assignments see the reservations; the row decision and the cached availability do not
+        assertThatThrownBy(() -> allocator.assign(at(10, 30), at(11, 0), List.of()))
+                .hasMessageContaining("No therapist or room");
+        assertThat(allocator.hasCapacity(at(10, 30))).isTrue();
+        assertThat(allocator.freeMask(DAY) >>> 21 & 1L).isEqualTo(1L);
+    }
+
+    @Test
+    void freeMask_shouldShowCommittedBookingBeforeAfterCommitListenersRun() {
+        lenient().when(resourceRepository.findByActiveTrueOrderByIdAsc()).thenReturn(List.of(
+                resource(1L, ResourceType.THERAPIST), resource(10L, ResourceType.ROOM)));
+        assertThat(allocator.freeMask(DAY) >>> 20 & 1L).isEqualTo(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            allocator.assign(at(10, 0), at(11, 0), List.of());
+            assertThat(allocator.freeMask(DAY) >>> 20 & 1L).isEqualTo(1L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Availability rebuilt by an after-commit listener already sees the booking
+            assertThat(allocator.freeMask(DAY) >>> 20 & 1L).isZero();
+            assertThat(allocator.freeMask(DAY) >>> 21 & 1L).isZero();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tryAssign_shouldSkipResourcesUsedByOverlappingBookings() {
+        Booking assigned = booking(at(10, 0), 60, 1L, 10L);
+        Booking older = booking(at(10, 0), 60, null, null);
+
+        Optional<ResourceAllocationService.Assignment> next =
+                allocator.tryAssign(at(10, 30), at(11, 30), List.of(assigned));
+        Optional<ResourceAllocationService.Assignment> full =
+                allocator.tryAssign(at(10, 30), at(11, 30), List.of(assigned, older));
+        Optional<ResourceAllocationService.Assignment> later =
+                allocator.tryAssign(at(11, 0), at(12, 0), List.of(assigned, older));
+
+        assertThat(next).contains(new ResourceAllocationService.Assignment(2L, 11L));
+        // An unassigned booking still takes one room
+        assertThat(full).isEmpty();
+        assertThat(later).contains(new ResourceAllocationService.Assignment(1L, 10L));
+    }
+
+    @Test
+    void freeMask_shouldBeFreeWhileAnyRoomIsFree() {
+        lenient().when(bookingRepository.findActiveOverlapping(any(), any())).thenReturn(List.of(
+                booking(at(10, 0), 60, 1L, 10L),
+                booking(at(10, 30), 60, null, null)));
+
+        long free = allocator.freeMask(DAY);
+
+        assertThat(free >>> 20 & 1L).isEqualTo(1L);   // 10:00 — room 11 still free
+        assertThat(free >>> 21 & 1L).isZero();        // 10:30 — both rooms taken
+        assertThat(free >>> 22 & 1L).isEqualTo(1L);   // 11:00 — room 10 free again
+    }
+
+    @Test
+    void withoutResources_shouldKeepSingleResourceBehaviour() {
+        lenient().when(resourceRepository.findByActiveTrueOrderByIdAsc()).thenReturn(List.of());
+
+        assertThat(allocator.isEnabled()).isFalse();
+        assertThat(allocator.freeMask(DAY)).isEqualTo(-1L);
+        assertThat(allocator.hasCapacity(at(10, 0))).isFalse();
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.atTime(hour, minute);
+    }
+
+    private static BookableResource resource(Long id, ResourceType type) {
+        return BookableResource.builder().id(id).name(type + "-" + id).type(type).active(true).build();
+    }
+
+    private static Booking booking(LocalDateTime start, int minutes, Long therapistId, Long roomId) {
+        Booking booking = Booking.create(1L, 1L, start, minutes, null, null);
+        booking.assignResources(therapistId, roomId);
+        return booking;
+    }
+}
@@ -0,0 +1,136 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.response.SlotHoldResponse;
+import com.massage.booking.entity.MassageService;
+import com.massage.booking.event.SlotReleasedEvent;
+import com.massage.booking.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotHoldServiceTest {
+
+    @Mock private TimeSlotService timeSlotService;
+    @Mock private ReferenceDataService referenceDataService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks private SlotHoldService slotHoldService;
+
+    private LocalDateTime slot;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(slotHoldService, "holdMinutes", 5L);
+        ReflectionTestUtils.setField(slotHoldService, "maxPerUser", 2L);
+        slot = LocalDateTime.now().plusDays(3).withHour(11).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void hold_shouldRejectSecondClientWithoutTouchingDatabase() {
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.isWithinOpeningHours(any())).thenReturn(true);
+        when(timeSlotService.holdSlot(eq(slot), eq(1L), any())).thenReturn(true);
+        when(timeSlotService.fitsBookings(any(), any())).thenReturn(true);
+
+        slotHoldService.hold(1L, slot, null);
+
+        assertThatThrownBy(() -> slotHoldService.hold(2L, slot, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("another client");
+        verify(timeSlotService, never()).holdSlot(eq(slot), eq(2L), any());
+        assertThatThrownBy(() -> slotHoldService.checkHold(slot, slot.plusMinutes(30), 2L))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void hold_shouldKeepWaitlistLinkWhenOfferedClientHoldsAtCheckout() {
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.isWithinOpeningHours(any())).thenReturn(true);
+        when(timeSlotService.holdSlot(eq(slot), eq(1L), any())).thenReturn(true);
+        when(timeSlotService.fitsBookings(any(), any())).thenReturn(true);
+        slotHoldService.holdForWaitlist(slot, slot.plusMinutes(30), 7L, 1L, LocalDateTime.now().plusMinutes(15));
+
+        SlotHoldResponse response = slotHoldService.hold(1L, slot, null);
+
+        assertThat(slotHoldService.checkHold(slot, slot.plusMinutes(30), 1L))
+                .hasValueSatisfying(hold -> {
+                    assertThat(hold.waitlistEntryId()).isEqualTo(7L);
+                    assertThat(hold.holdId()).isEqualTo(response.getHoldId());
+                });
+    }
+
+    @Test
+    void expireHolds_shouldDropExpiredCheckoutHoldAndAnnounceSlot() {
+        slotHoldService.restoreWaitlistHold(slot.plusHours(1), slot.plusMinutes(90), 7L, 1L, LocalDateTime.now().minusSeconds(1));
+        ReflectionTestUtils.setField(slotHoldService, "holdMinutes", 0L);
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.isWithinOpeningHours(any())).thenReturn(true);
+        when(timeSlotService.holdSlot(eq(slot), eq(2L), any())).thenReturn(true);
+        when(timeSlotService.fitsBookings(any(), any())).thenReturn(true);
+        slotHoldService.hold(2L, slot, null);
+
+        slotHoldService.expireDue(System.currentTimeMillis() + 2_000); // next wheel tick
+
+        assertThat(slotHoldService.isHeld(slot)).isFalse();
+        // Only the checkout hold is announced — waitlist holds are expired by the waitlist sweep
+        verify(eventPublisher, times(1)).publishEvent(any(SlotReleasedEvent.class));
+        verify(eventPublisher).publishEvent(new SlotReleasedEvent(slot));
+    }
+
+    @Test
+    void hold_shouldCoverEveryHalfHourOfTheService() {
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.isWithinOpeningHours(any())).thenReturn(true);
+        when(timeSlotService.holdSlot(any(), eq(1L), any())).thenReturn(true);
+        when(timeSlotService.fitsBookings(slot, slot.plusMinutes(60))).thenReturn(true);
+        when(referenceDataService.getService(1L)).thenReturn(service(50, 10));
+
+        SlotHoldResponse response = slotHoldService.hold(1L, slot, 1L);
+
+        assertThat(response.getEndTime()).isEqualTo(slot.plusMinutes(60));
+        verify(timeSlotService).holdSlot(eq(slot.plusMinutes(30)), eq(1L), any());
+        // A booking starting half an hour earlier runs into the held 11:00 half-hour
+        assertThatThrownBy(() -> slotHoldService.checkHold(slot.minusMinutes(30), slot.plusMinutes(30), 2L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("on hold");
+        assertThatThrownBy(() -> slotHoldService.hold(2L, slot.plusMinutes(30), null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("another client");
+        assertThat(slotHoldService.checkHold(slot.plusMinutes(60), slot.plusMinutes(120), 2L)).isEmpty();
+    }
+
+    @Test
+    void hold_shouldBeRejectedWhenBookingsLeaveNoRoom() {
+        when(timeSlotService.isWorkingDay(any())).thenReturn(true);
+        when(timeSlotService.isWithinOpeningHours(any())).thenReturn(true);
+        when(timeSlotService.fitsBookings(slot, slot.plusMinutes(30))).thenReturn(false);
+
+        assertThatThrownBy(() -> slotHoldService.hold(1L, slot, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("not available");
+        assertThat(slotHoldService.isHeld(slot)).isFalse();
+        verify(timeSlotService, never()).holdSlot(any(), any(), any());
+    }
+
+    private static MassageService service(int durationMinutes, int cleanupMinutes) {
+        MassageService service = new MassageService();
+        service.setId(1L);
+        service.setDurationMinutes(durationMinutes);
+        service.setCleanupMinutes(cleanupMinutes);
+        return service;
+    }
+}
@@ -0,0 +1,146 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.request.BlockRangeRequest;
+import com.massage.booking.dto.response.BlockRangeResponse;
+import com.massage.booking.entity.Booking;
+import com.massage.booking.entity.TimeSlot;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.repository.BookingRepository;
+import com.massage.booking.repository.TimeSlotRepository;
+import com.massage.booking.service.BusinessCalendarService.DaySchedule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimeSlotServiceTest {
+
+    @Mock private TimeSlotRepository timeSlotRepository;
+    @Mock private BookingRepository bookingRepository;
+    @Mock private BusinessCalendarService businessCalendarService;
+    @Mock private ResourceAllocationService resourceAllocationService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Spy private BookingMetrics bookingMetrics = new BookingMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks private TimeSlotService timeSlotService;
+
+    private static final LocalDate THURSDAY = LocalDate.of(2030, 1, 3);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void blockRange_shouldInsertMissingRowsUpdateTheRestAndReportConflicts() {
+        DaySchedule openDay = DaySchedule.of(LocalTime.of(10, 0), LocalTime.of(20, 0));
+        when(businessCalendarService.days(THURSDAY, THURSDAY.plusDays(1)))
+                .thenReturn(Map.of(THURSDAY, openDay, THURSDAY.plusDays(1), openDay));
+        when(timeSlotRepository.findSlotDateTimesInRange(THURSDAY, THURSDAY.plusDays(1)))
+                .thenReturn(List.of(THURSDAY.atTime(10, 0)));
+        when(timeSlotRepository.blockRange(eq(THURSDAY), eq(THURSDAY.plusDays(1)),
+                eq(LocalTime.of(10, 0)), eq(LocalTime.of(11, 0)), anyString(), any())).thenReturn(1);
+        Booking inWindow = Booking.create(10L, 1L, THURSDAY.atTime(10, 30), 70, null, null);
+        Booking afternoon = Booking.create(11L, 1L, THURSDAY.atTime(15, 0), 70, null, null);
+        when(bookingRepository.findConflictingBookings(THURSDAY.atStartOfDay(), THURSDAY.plusDays(2).atStartOfDay()))
+                .thenReturn(List.of(afternoon, inWindow));
+
+        BlockRangeResponse response = timeSlotService.blockRange(BlockRangeRequest.builder()
+                .startDate(THURSDAY)
+                .endDate(THURSDAY.plusDays(1))
+                .windowStart(LocalTime.of(10, 0))
+                .windowEnd(LocalTime.of(11, 0))
+                .reason("Holiday")
+                .build());
+
+        // 2 days x 2 slots in the window, one row already existed
+        ArgumentCaptor<List<TimeSlot>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(timeSlotRepository).saveAll(inserted.capture());
+        assertThat(inserted.getValue()).hasSize(3).allMatch(TimeSlot::getIsBlocked);
+        assertThat(response.getSlotsUpdated()).isEqualTo(1);
+        assertThat(response.getSlotsCreated()).isEqualTo(3);
+        assertThat(response.getConflicts()).extracting(BlockRangeResponse.ConflictingBooking::getClientId)
+                .containsExactly(10L);
+        verify(timeSlotRepository, never()).save(any());
+    }
+
+    @Test
+    void blockRange_shouldRejectInvertedWindow() {
+        BlockRangeRequest request = BlockRangeRequest.builder()
+                .startDate(THURSDAY)
+                .endDate(THURSDAY)
+                .windowStart(LocalTime.of(14, 0))
+                .windowEnd(LocalTime.of(12, 0))
+                .build();
+
+        assertThatThrownBy(() -> timeSlotService.blockRange(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Window start");
+        verifyNoInteractions(timeSlotRepository);
+    }
+
+    @Test
+    void blockRange_shouldRejectMoreThan366DaysInclusive() {
+        BlockRangeRequest request = BlockRangeRequest.builder()
+                .startDate(THURSDAY)
+                .endDate(THURSDAY.plusDays(366))
+                .windowStart(LocalTime.of(12, 0))
+                .windowEnd(LocalTime.of(14, 0))
+                .build();
+
+        assertThatThrownBy(() -> timeSlotService.blockRange(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("366 days");
+        verifyNoInteractions(timeSlotRepository);
+    }
+
+    @Test
+    void claimSlot_shouldRejectHoldByAnotherClientOnALaterCoveredRow() {
+        LocalDateTime start = THURSDAY.atTime(10, 0);
+        when(businessCalendarService.isOpenAt(start)).thenReturn(true);
+        when(timeSlotRepository.findAllInRangeForUpdate(start, start.plusMinutes(70)))
+                .thenReturn(List.of(slot(start, null), slot(start.plusMinutes(30), 99L), slot(start.plusMinutes(60), null)));
+
+        assertThatThrownBy(() -> timeSlotService.claimSlot(start, start.plusMinutes(70), 1L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("on hold for another client");
+    }
+
+    @Test
+    void claimSlot_shouldReturnStartRowWhenOnlyTheClientsOwnHoldsCoverTheRange() {
+        LocalDateTime start = THURSDAY.atTime(10, 0);
+        TimeSlot startRow = slot(start, 1L);
+        when(businessCalendarService.isOpenAt(start)).thenReturn(true);
+        when(timeSlotRepository.findAllInRangeForUpdate(start, start.plusMinutes(70)))
+                .thenReturn(List.of(startRow, slot(start.plusMinutes(30), 1L)));
+
+        assertThat(timeSlotService.claimSlot(start, start.plusMinutes(70), 1L)).isSameAs(startRow);
+    }
+
+    private static TimeSlot slot(LocalDateTime dateTime, Long heldBy) {
+        return TimeSlot.builder()
+                .slotDate(dateTime.toLocalDate())
+                .slotTime(dateTime.toLocalTime())
+                .slotDateTime(dateTime)
+                .isAvailable(true)
+                .isBlocked(false)
+                .heldBy(heldBy)
+                .heldUntil(heldBy == null ? null : LocalDateTime.now().plusMinutes(10))
+                .build();
+    }
+}
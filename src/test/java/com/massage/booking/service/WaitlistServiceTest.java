@@ -0,0 +1,125 @@
+package com.massage.booking.service;
+
+import com.massage.booking.dto.request.WaitlistRequest;
+import com.massage.booking.entity.MassageService;
+import com.massage.booking.entity.User;
+import com.massage.booking.entity.WaitlistEntry;
+import com.massage.booking.entity.enums.WaitlistStatus;
+import com.massage.booking.exception.BusinessException;
+import com.massage.booking.repository.BookingRepository;
+import com.massage.booking.repository.UserRepository;
+import com.massage.booking.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    @Mock private WaitlistEntryRepository waitlistRepository;
+    @Mock private BookingRepository bookingRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private ReferenceDataService referenceDataService;
+    @Mock private TimeSlotService timeSlotService;
+    @Mock private SlotHoldService slotHoldService;
+    @Mock private EmailNotificationService emailNotificationService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks private WaitlistService waitlistService;
+
+    private final LocalDate date = LocalDate.now().plusDays(7);
+    private MassageService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(waitlistService, "offerMinutes", 15L);
+        ReflectionTestUtils.setField(waitlistService, "maxActivePerUser", 5L);
+
+        service = new MassageService();
+        service.setId(1L);
+        service.setName("Toque Profundo 60");
+        service.setDurationMinutes(60);
+        service.setCleanupMinutes(10);
+    }
+
+    @Test
+    void offerSlot_shouldOfferToFirstEntryWhoseWindowFits() {
+        WaitlistEntry morning = entry(1L, 2L, LocalTime.of(10, 0), LocalTime.of(12, 0));
+        WaitlistEntry evening = entry(2L, 3L, LocalTime.of(17, 0), LocalTime.of(20, 0));
+        indexEntries(morning, evening);
+
+        LocalDateTime slot = date.atTime(18, 0);
+        when(timeSlotService.isTimeSlotAvailable(slot)).thenReturn(true);
+        when(bookingRepository.findConflictingBookings(any(), any())).thenReturn(List.of());
+        when(waitlistRepository.findById(2L)).thenReturn(Optional.of(evening));
+        when(slotHoldService.holdForWaitlist(eq(slot), eq(slot.plusMinutes(70)), eq(2L), eq(3L), any())).thenReturn(true);
+        User user = new User();
+        user.setName("Ana");
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+
+        waitlistService.offerSlot(slot);
+
+        assertThat(evening.getStatus()).isEqualTo(WaitlistStatus.OFFERED);
+        assertThat(evening.getOfferedSlot()).isEqualTo(slot);
+        assertThat(morning.getStatus()).isEqualTo(WaitlistStatus.WAITING);
+        verify(emailNotificationService).sendWaitlistOffer(any(), eq("Ana"), eq("Toque Profundo 60"), eq(slot), any());
+    }
+
+    @Test
+    void offerSlot_shouldDoNothingWhileSlotIsHeld() {
+        indexEntries(entry(1L, 2L, LocalTime.of(10, 0), LocalTime.of(20, 0)));
+        LocalDateTime slot = date.atTime(11, 0);
+        when(slotHoldService.isHeld(slot)).thenReturn(true);
+
+        waitlistService.offerSlot(slot);
+
+        verify(waitlistRepository, never()).findById(anyLong());
+        verify(slotHoldService, never()).holdForWaitlist(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void join_shouldRejectWhenUserHasTooManyActiveEntries() {
+        when(timeSlotService.isWorkingDay(date)).thenReturn(true);
+        when(referenceDataService.getService(1L)).thenReturn(service);
+        when(waitlistRepository.countByUserIdAndStatusIn(eq(2L), any())).thenReturn(5L);
+
+        WaitlistRequest request = WaitlistRequest.builder().serviceId(1L).date(date).build();
+
+        assertThatThrownBy(() -> waitlistService.join(2L, request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("at most 5");
+        verify(waitlistRepository, never()).save(any());
+    }
+
+    private WaitlistEntry entry(Long id, Long userId, LocalTime from, LocalTime to) {
+        WaitlistEntry entry = WaitlistEntry.create(userId, 1L, date, from, to);
+        entry.setId(id);
+        return entry;
+    }
+
+    private void indexEntries(WaitlistEntry... entries) {
+        when(referenceDataService.getService(1L)).thenReturn(service);
+        when(waitlistRepository.findByStatusAndDesiredDateGreaterThanEqualOrderByIdAsc(eq(WaitlistStatus.WAITING), any()))
+                .thenReturn(List.of(entries));
+        when(waitlistRepository.findByStatus(WaitlistStatus.OFFERED)).thenReturn(List.of());
+        waitlistService.loadIndex();
+    }
+}
@@ -0,0 +1,42 @@
+package com.massage.booking.support;
+
+import com.massage.booking.config.QueryStats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Asserts how many SQL statements a block runs — for tests against the real (proxied)
+ * DataSource, e.g. to pin a fixed N+1:
+ *
+ * <pre>
+ * QueryCountAssertions.assertMaxStatements(2, () -> timeSlotService.generateSlotsForDate(date));
+ * </pre>
+ */
+public final class QueryCountAssertions {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private QueryCountAssertions() {
+    }
+
+    public static QueryStats.Scope count(Action action) {
+        QueryStats.Scope scope = QueryStats.open();
+        try (scope) {
+            action.run();
+        } catch (Exception e) {
+            throw new AssertionError("Action under query count failed", e);
+        }
+        return scope;
+    }
+
+    public static void assertStatements(int expected, Action action) {
+        assertThat(count(action).getStatements()).as("SQL statements").isEqualTo(expected);
+    }
+
+    public static void assertMaxStatements(int max, Action action) {
+        assertThat(count(action).getStatements()).as("SQL statements").isLessThanOrEqualTo(max);
+    }
+}